@@ -0,0 +1,250 @@
+package com.peraxis.product.audit;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Explains every distinct query shape this service sends to Mongo and flags the ones
+ * that scan the collection or sort in memory. Shapes come from the driver's command
+ * stream with literal values blanked out, so a new code path is audited the first time
+ * it runs without being registered anywhere. Each new shape is explained once, off the
+ * calling thread, at queryPlanner verbosity so nothing is executed.
+ */
+@Component
+public class QueryPlanAuditor implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanAuditor.class);
+    private static final Set<String> AUDITED_COMMANDS =
+        Set.of("find", "count", "distinct", "aggregate", "findAndModify", "update", "delete");
+    private static final Set<String> SYSTEM_DATABASES = Set.of("admin", "config", "local");
+    private static final BsonString BLANK = new BsonString("?");
+
+    // Lazy: the Mongo client this listener is registered on is itself built before the template
+    @Autowired
+    @Lazy
+    private MongoTemplate mongoTemplate;
+
+    @Value("${product.query-audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.query-audit.max-shapes:500}")
+    private int maxShapes;
+
+    private final ExecutorService explainer = Executors.newSingleThreadExecutor();
+    private final Map<String, QueryShapeReport> shapes = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if (!enabled || !AUDITED_COMMANDS.contains(commandName) || SYSTEM_DATABASES.contains(event.getDatabaseName())) {
+            return;
+        }
+        try {
+            BsonDocument command = event.getCommand();
+            BsonValue target = command.get(commandName);
+            if (target == null || !target.isString() || target.asString().getValue().startsWith("system.")) {
+                return;
+            }
+            String collection = target.asString().getValue();
+            BsonDocument explainable = explainable(commandName, collection, command);
+            if (explainable == null) {
+                return;
+            }
+            String shape = commandName + " " + collection + " " + shapeOf(explainable).asDocument().toJson();
+            QueryShapeReport existing = shapes.get(shape);
+            if (existing != null) {
+                existing.seen();
+                return;
+            }
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            QueryShapeReport report = new QueryShapeReport(event.getDatabaseName(), collection, commandName, shape, explainable);
+            if (shapes.putIfAbsent(shape, report) == null) {
+                explainer.execute(() -> explain(report));
+            }
+        } catch (Exception e) {
+            logger.debug("Could not capture query shape for {}", commandName, e);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+    }
+
+    /** Re-explains every known shape, e.g. after an index change. */
+    public void refresh() {
+        shapes.values().forEach(report -> explainer.execute(() -> explain(report)));
+    }
+
+    public Map<String, Object> getReport(boolean problemsOnly) {
+        List<QueryShapeReport> reports = new ArrayList<>(shapes.values());
+        reports.sort(Comparator.comparing(QueryShapeReport::getCollection).thenComparing(QueryShapeReport::getShape));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("shapes", reports.size());
+        result.put("collectionScanShapes", reports.stream().filter(QueryShapeReport::isCollectionScan).count());
+        result.put("inMemorySortShapes", reports.stream().filter(QueryShapeReport::isInMemorySort).count());
+        result.put("reports", reports.stream()
+            .filter(report -> !problemsOnly || report.isProblem())
+            .map(QueryShapeReport::toMap)
+            .toList());
+        return result;
+    }
+
+    private void explain(QueryShapeReport report) {
+        try {
+            BsonDocument explain = new BsonDocument("explain", report.getExplainable())
+                .append("verbosity", new BsonString("queryPlanner"));
+            Document result = mongoTemplate.getMongoDatabaseFactory()
+                .getMongoDatabase(report.getDatabase())
+                .runCommand(explain);
+            List<String> stages = new ArrayList<>();
+            collectStages(result, false, stages);
+            report.explained(stages);
+            if (report.isProblem()) {
+                logger.warn("Query shape on {} uses {}: {}", report.getCollection(), stages, report.getShape());
+            }
+        } catch (Exception e) {
+            report.failed(e.getMessage());
+            logger.debug("Explain failed for {}", report.getShape(), e);
+        }
+    }
+
+    // Stage names under any winningPlan, plus blocking $sort stages of an aggregation pipeline.
+    // The echoed "command" is skipped so a requested sort is not mistaken for an executed one.
+    @SuppressWarnings("unchecked")
+    private static void collectStages(Object node, boolean inWinningPlan, List<String> stages) {
+        if (node instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) node).entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if ("rejectedPlans".equals(key) || "command".equals(key)) {
+                    continue;
+                }
+                if (inWinningPlan && "stage".equals(key) && value instanceof String) {
+                    stages.add((String) value);
+                } else if ("stages".equals(key) && value instanceof List) {
+                    for (Object stage : (List<Object>) value) {
+                        if (stage instanceof Map && ((Map<String, Object>) stage).containsKey("$sort")) {
+                            stages.add("$sort");
+                        }
+                    }
+                }
+                collectStages(value, inWinningPlan || "winningPlan".equals(key), stages);
+            }
+        } else if (node instanceof List) {
+            for (Object element : (List<Object>) node) {
+                collectStages(element, inWinningPlan, stages);
+            }
+        }
+    }
+
+    // The read part of the command as something explain accepts; writes are explained as the equivalent find
+    private static BsonDocument explainable(String commandName, String collection, BsonDocument command) {
+        BsonString target = new BsonString(collection);
+        switch (commandName) {
+            case "find":
+                return copyFields(command, new BsonDocument("find", target), "filter", "sort", "hint", "collation");
+            case "count":
+                return copyFields(command, new BsonDocument("count", target), "query", "hint", "collation");
+            case "distinct":
+                return copyFields(command, new BsonDocument("distinct", target), "key", "query", "collation");
+            case "aggregate":
+                return copyFields(command, new BsonDocument("aggregate", target), "pipeline", "hint", "collation")
+                    .append("cursor", new BsonDocument());
+            case "findAndModify": {
+                BsonDocument find = new BsonDocument("find", target);
+                if (command.containsKey("query")) find.append("filter", copy(command.get("query")));
+                if (command.containsKey("sort")) find.append("sort", copy(command.get("sort")));
+                return find;
+            }
+            default: {
+                // update / delete: the first statement stands for the batch
+                BsonValue statements = command.get("update".equals(commandName) ? "updates" : "deletes");
+                if (statements == null || !statements.isArray() || statements.asArray().isEmpty()) {
+                    return null;
+                }
+                BsonDocument statement = statements.asArray().get(0).asDocument();
+                return new BsonDocument("find", target).append("filter", copy(statement.get("q", new BsonDocument())));
+            }
+        }
+    }
+
+    private static BsonDocument copyFields(BsonDocument source, BsonDocument target, String... fields) {
+        for (String field : fields) {
+            if (source.containsKey(field)) {
+                target.append(field, copy(source.get(field)));
+            }
+        }
+        return target;
+    }
+
+    // Detaches a value from the driver's buffer, which is only valid during the callback
+    private static BsonValue copy(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument copy = new BsonDocument();
+            value.asDocument().forEach((key, element) -> copy.append(key, copy(element)));
+            return copy;
+        }
+        if (value.isArray()) {
+            BsonArray copy = new BsonArray();
+            value.asArray().forEach(element -> copy.add(copy(element)));
+            return copy;
+        }
+        return value;
+    }
+
+    // Field names, operators and sort directions are kept; literal values are blanked
+    private static BsonValue shapeOf(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((key, element) -> shape.append(key,
+                "sort".equals(key) || "$sort".equals(key) || "key".equals(key) ? element : shapeOf(element)));
+            return shape;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            if (!array.isEmpty() && array.stream().allMatch(BsonValue::isDocument)) {
+                BsonArray shape = new BsonArray();
+                array.forEach(element -> shape.add(shapeOf(element)));
+                return shape;
+            }
+            return BLANK;
+        }
+        return BLANK;
+    }
+}
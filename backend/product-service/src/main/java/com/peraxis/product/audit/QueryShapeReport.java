@@ -0,0 +1,78 @@
+package com.peraxis.product.audit;
+
+import org.bson.BsonDocument;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/** One distinct query shape and what its last explain said about it. */
+public class QueryShapeReport {
+    private final String database;
+    private final String collection;
+    private final String command;
+    private final String shape;
+    // The first concrete command seen for this shape, re-explained on refresh
+    private final BsonDocument explainable;
+    private final LocalDateTime firstSeen = LocalDateTime.now();
+    private final LongAdder executions = new LongAdder();
+
+    private volatile List<String> stages = List.of();
+    private volatile boolean collectionScan;
+    private volatile boolean inMemorySort;
+    private volatile LocalDateTime explainedAt;
+    private volatile String error;
+
+    QueryShapeReport(String database, String collection, String command, String shape, BsonDocument explainable) {
+        this.database = database;
+        this.collection = collection;
+        this.command = command;
+        this.shape = shape;
+        this.explainable = explainable;
+        executions.increment();
+    }
+
+    void seen() {
+        executions.increment();
+    }
+
+    void explained(List<String> stages) {
+        this.stages = List.copyOf(stages);
+        this.collectionScan = stages.contains("COLLSCAN");
+        this.inMemorySort = stages.contains("SORT") || stages.contains("$sort");
+        this.explainedAt = LocalDateTime.now();
+        this.error = null;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.explainedAt = LocalDateTime.now();
+    }
+
+    String getDatabase() { return database; }
+    BsonDocument getExplainable() { return explainable; }
+
+    public String getCollection() { return collection; }
+    public String getCommand() { return command; }
+    public String getShape() { return shape; }
+    public boolean isCollectionScan() { return collectionScan; }
+    public boolean isInMemorySort() { return inMemorySort; }
+    public boolean isProblem() { return collectionScan || inMemorySort; }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("collection", collection);
+        map.put("command", command);
+        map.put("shape", shape);
+        map.put("stages", stages);
+        map.put("collectionScan", collectionScan);
+        map.put("inMemorySort", inMemorySort);
+        map.put("executions", executions.sum());
+        map.put("firstSeen", firstSeen);
+        map.put("explainedAt", explainedAt);
+        map.put("error", error);
+        return map;
+    }
+}
@@ -0,0 +1,19 @@
+package com.peraxis.product.bulk;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    NDJSON, CSV;
+
+    public static ImportFormat fromContentType(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType
+            + " (use application/x-ndjson or text/csv)");
+    }
+}
@@ -0,0 +1,7 @@
+package com.peraxis.product.bulk;
+
+public interface ImportListener {
+    void onRowError(long row, String sku, String message);
+
+    void onBatchWritten(ImportSummary progress);
+}
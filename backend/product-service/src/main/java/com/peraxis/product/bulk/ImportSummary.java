@@ -0,0 +1,49 @@
+package com.peraxis.product.bulk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ImportSummary {
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    private long failed;
+    private long superseded;
+    private long batches;
+    private final long startedAt = System.currentTimeMillis();
+
+    void rowRead() { rowsRead++; }
+    void rowFailed() { failed++; }
+    // A later row for the same SKU in the same batch replaced this one
+    void rowSuperseded() { superseded++; }
+    void batchWritten(long inserted, long matched, long modified, long failed) {
+        this.inserted += inserted;
+        this.updated += modified;
+        this.unchanged += matched - modified;
+        this.failed += failed;
+        this.batches++;
+    }
+
+    public long getRowsRead() { return rowsRead; }
+    public long getInserted() { return inserted; }
+    public long getUpdated() { return updated; }
+    public long getUnchanged() { return unchanged; }
+    public long getFailed() { return failed; }
+    public long getSuperseded() { return superseded; }
+    public long getBatches() { return batches; }
+    public long getElapsedMs() { return System.currentTimeMillis() - startedAt; }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("rowsRead", rowsRead);
+        map.put("inserted", inserted);
+        map.put("updated", updated);
+        map.put("unchanged", unchanged);
+        map.put("failed", failed);
+        map.put("superseded", superseded);
+        map.put("batches", batches);
+        map.put("elapsedMs", getElapsedMs());
+        return map;
+    }
+}
@@ -0,0 +1,70 @@
+package com.peraxis.product.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams import feedback to the client as one JSON object per line: an {@code error}
+ * line per rejected row, a {@code progress} line per written batch, and a final
+ * {@code summary} (or {@code failed}) line.
+ */
+public class NdjsonImportWriter implements ImportListener {
+
+    private final ObjectMapper objectMapper;
+    private final OutputStream out;
+
+    public NdjsonImportWriter(ObjectMapper objectMapper, OutputStream out) {
+        this.objectMapper = objectMapper;
+        this.out = out;
+    }
+
+    @Override
+    public void onRowError(long row, String sku, String message) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "error");
+        line.put("row", row);
+        line.put("sku", sku);
+        line.put("message", message);
+        write(line, false);
+    }
+
+    @Override
+    public void onBatchWritten(ImportSummary progress) {
+        write(typed("progress", progress.toMap()), true);
+    }
+
+    public void summary(ImportSummary summary) {
+        write(typed("summary", summary.toMap()), true);
+    }
+
+    public void failed(String message) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "failed");
+        line.put("message", message);
+        write(line, true);
+    }
+
+    private Map<String, Object> typed(String type, Map<String, Object> body) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.putAll(body);
+        return line;
+    }
+
+    private void write(Map<String, Object> line, boolean flush) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
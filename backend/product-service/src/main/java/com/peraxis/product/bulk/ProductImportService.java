@@ -0,0 +1,323 @@
+package com.peraxis.product.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import com.peraxis.product.service.ProductPatch;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming catalog import. Rows are parsed one at a time, validated, and upserted by
+ * (sellerId, sku) in unordered bulk writes of {@code product.import.batch-size} rows, so
+ * memory stays bounded by one batch regardless of file size. Within a batch the last
+ * row for a SKU wins.
+ */
+@Service
+public class ProductImportService {
+
+    // Multi-valued CSV columns hold pipe-separated values
+    private static final Set<String> CSV_LIST_COLUMNS = Set.of("images", "videos", "tags");
+    // Identity and audit fields are owned by the import, never taken from a row
+    private static final Set<String> IGNORED_FIELDS = Set.of("id", "_id", "sku", "sellerId", "createdAt", "updatedAt", "version");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private UpdateMapper updateMapper;
+    private MongoPersistentEntity<?> productEntity;
+
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @PostConstruct
+    public void init() {
+        updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+        productEntity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+    }
+
+    public ImportSummary importProducts(InputStream input, ImportFormat format, String userId, String userRole,
+                                        ImportListener listener) throws IOException {
+        ImportSummary summary = new ImportSummary();
+        Map<String, PendingRow> batch = new LinkedHashMap<>();
+        int[] reportedErrors = {0};
+        ImportListener capped = new ImportListener() {
+            @Override
+            public void onRowError(long row, String sku, String message) {
+                if (reportedErrors[0]++ < maxReportedErrors) {
+                    listener.onRowError(row, sku, message);
+                }
+            }
+
+            @Override
+            public void onBatchWritten(ImportSummary progress) {
+                listener.onBatchWritten(progress);
+            }
+        };
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource source = format == ImportFormat.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+        RawRow raw;
+        while ((raw = source.next()) != null) {
+            summary.rowRead();
+            Object sku = raw.values == null ? null : raw.values.get("sku");
+            try {
+                if (raw.error != null) {
+                    throw new IllegalArgumentException(raw.error);
+                }
+                PendingRow pending = toPendingRow(raw, userId, userRole);
+                if (batch.put(pending.key(), pending) != null) {
+                    summary.rowSuperseded();
+                }
+            } catch (IllegalArgumentException e) {
+                summary.rowFailed();
+                capped.onRowError(raw.number, sku == null ? null : String.valueOf(sku), e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, summary, capped);
+            }
+        }
+        flush(batch, summary, capped);
+        return summary;
+    }
+
+    private PendingRow toPendingRow(RawRow raw, String userId, String userRole) {
+        Map<String, Object> values = raw.values;
+        Object skuValue = values.get("sku");
+        if (skuValue == null || String.valueOf(skuValue).isBlank()) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        String sku = String.valueOf(skuValue).trim();
+        String sellerId = userId;
+        if ("ADMIN".equals(userRole) && values.get("sellerId") != null && !String.valueOf(values.get("sellerId")).isBlank()) {
+            sellerId = String.valueOf(values.get("sellerId")).trim();
+        }
+
+        Map<String, Object> fields = new HashMap<>(values);
+        fields.keySet().removeAll(IGNORED_FIELDS);
+        Product product = objectMapper.convertValue(fields, Product.class);
+        validate(product);
+
+        // The same pipeline as PATCH, so discount and the filter keys follow whatever the row wrote
+        Map<String, Object> defaults = new HashMap<>();
+        if (!fields.containsKey("status")) {
+            defaults.put("status", ProductStatus.DRAFT);
+        }
+        if (!fields.containsKey("featured")) {
+            defaults.put("featured", false);
+        }
+        if (!fields.containsKey("trending")) {
+            defaults.put("trending", false);
+        }
+        AggregationUpdate update = ProductPatch.importing(product, fields.keySet())
+            .toUpsert(updateMapper, productEntity, LocalDateTime.now(), defaults);
+
+        // Equality fields in the filter are copied into the document on insert
+        Query query = new Query(Criteria.where("sellerId").is(sellerId).and("sku").is(sku));
+        return new PendingRow(raw.number, sellerId, sku, query, update);
+    }
+
+    private void validate(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (product.getPrice() == null || product.getPrice() < 0) {
+            throw new IllegalArgumentException("price is required and must not be negative");
+        }
+        if (product.getOriginalPrice() != null && product.getOriginalPrice() < 0) {
+            throw new IllegalArgumentException("originalPrice must not be negative");
+        }
+        if (product.getStock() != null && product.getStock() < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+        if (product.getMinStock() != null && product.getMinStock() < 0) {
+            throw new IllegalArgumentException("minStock must not be negative");
+        }
+    }
+
+    private void flush(Map<String, PendingRow> batch, ImportSummary summary, ImportListener listener) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<PendingRow> rows = new ArrayList<>(batch.values());
+        batch.clear();
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (PendingRow row : rows) {
+            operations.upsert(row.query, row.update);
+        }
+
+        BulkWriteResult result;
+        long failed = 0;
+        try {
+            result = operations.execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every other row in the batch was still applied
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                PendingRow row = rows.get(error.getIndex());
+                listener.onRowError(row.number, row.sku, error.getMessage());
+                failed++;
+            }
+        }
+        summary.batchWritten(result.getUpserts().size(), result.getMatchedCount(), result.getModifiedCount(), failed);
+
+        Set<String> sellerIds = rows.stream().map(row -> row.sellerId).collect(Collectors.toSet());
+        List<String> skus = rows.stream().map(row -> row.sku).toList();
+        Query touched = new Query(Criteria.where("sellerId").in(sellerIds).and("sku").in(skus));
+        touched.fields().include("_id");
+        List<String> ids = mongoTemplate.find(touched, Product.class).stream().map(Product::getId).toList();
+        productCache.invalidate(ids);
+        eventPublisher.publishEvent(new ProductsBulkChangedEvent(ids));
+
+        listener.onBatchWritten(summary);
+    }
+
+    private interface RowSource {
+        RawRow next() throws IOException;
+    }
+
+    private class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long lineNumber;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new RawRow(lineNumber, objectMapper.readValue(line, new TypeReference<Map<String, Object>>() {}), null);
+                } catch (JsonProcessingException e) {
+                    return new RawRow(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class CsvRowSource implements RowSource {
+        private final CsvReader reader;
+        private List<String> header;
+        private long recordNumber;
+
+        CsvRowSource(BufferedReader reader) {
+            this.reader = new CsvReader(reader);
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            if (header == null) {
+                header = reader.readRecord();
+                if (header == null) {
+                    return null;
+                }
+                header = header.stream().map(String::trim).toList();
+            }
+            List<String> record = reader.readRecord();
+            if (record == null) {
+                return null;
+            }
+            recordNumber++;
+            if (record.size() != header.size()) {
+                return new RawRow(recordNumber, null,
+                    "Expected " + header.size() + " columns but found " + record.size());
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = record.get(i);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String column = header.get(i);
+                values.put(column, CSV_LIST_COLUMNS.contains(column)
+                    ? Arrays.stream(value.split("\\|")).map(String::trim).filter(v -> !v.isEmpty()).toList()
+                    : value);
+            }
+            return new RawRow(recordNumber, values, null);
+        }
+    }
+
+    private static class RawRow {
+        final long number;
+        final Map<String, Object> values;
+        final String error;
+
+        RawRow(long number, Map<String, Object> values, String error) {
+            this.number = number;
+            this.values = values;
+            this.error = error;
+        }
+    }
+
+    private static class PendingRow {
+        final long number;
+        final String sellerId;
+        final String sku;
+        final Query query;
+        final AggregationUpdate update;
+
+        PendingRow(long number, String sellerId, String sku, Query query, AggregationUpdate update) {
+            this.number = number;
+            this.sellerId = sellerId;
+            this.sku = sku;
+            this.query = query;
+            this.update = update;
+        }
+
+        String key() {
+            return sellerId + "\u0000" + sku;
+        }
+    }
+}
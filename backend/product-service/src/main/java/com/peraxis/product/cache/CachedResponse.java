@@ -0,0 +1,44 @@
+package com.peraxis.product.cache;
+
+/**
+ * A fully serialized JSON response body with its strong ETag. Instances are immutable
+ * and shared; the body array must not be modified.
+ */
+public class CachedResponse {
+    private final byte[] body;
+    private final String etag;
+    private final long generation;
+    private final long createdAtNanos;
+
+    CachedResponse(byte[] body, String etag, long generation) {
+        this.body = body;
+        this.etag = etag;
+        this.generation = generation;
+        this.createdAtNanos = System.nanoTime();
+    }
+
+    public byte[] getBody() { return body; }
+    public String getEtag() { return etag; }
+    long getGeneration() { return generation; }
+    long getCreatedAtNanos() { return createdAtNanos; }
+
+    /** If-None-Match uses weak comparison, so W/ prefixes are ignored; "*" matches anything. */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
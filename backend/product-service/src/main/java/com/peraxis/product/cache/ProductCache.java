@@ -0,0 +1,312 @@
+package com.peraxis.product.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.entity.Product;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Two-tier product lookup cache: an in-process W-TinyLFU near cache backed by a
+ * shared Redis tier. Writes on any replica invalidate both tiers and broadcast the
+ * product id on a pub/sub channel so every other replica drops its near copy.
+ *
+ * Pub/sub is fire-and-forget, so near entries also expire after
+ * {@code near.expire-after-write-seconds}; a lost message costs at most that much
+ * staleness. In Redis an invalidation leaves a short tombstone instead of deleting the
+ * key, and fills go through a script that refuses to overwrite a tombstone or a newer
+ * version. A replica that loaded a product before another replica's write therefore
+ * cannot park the old copy in Redis for the whole TTL.
+ *
+ * Cached products are shared instances and must be treated as read-only.
+ */
+@Component
+public class ProductCache implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCache.class);
+    private static final String KEY_PREFIX = "product:cache:";
+    // Product JSON always starts with '{', so this never collides with a cached value
+    private static final String TOMBSTONE = "invalidated";
+    // KEYS[1] product key; ARGV: json, version, ttl seconds, tombstone
+    private static final String WRITE_IF_NOT_NEWER =
+        "local current = redis.call('GET', KEYS[1]) "
+        + "if current then "
+        + "  if current == ARGV[4] then return 0 end "
+        + "  local ok, stored = pcall(cjson.decode, current) "
+        + "  if ok and type(stored) == 'table' and tonumber(stored['version']) "
+        + "     and tonumber(stored['version']) > tonumber(ARGV[2]) then return 0 end "
+        + "end "
+        + "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[3]) "
+        + "return 1";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ChannelTopic productInvalidationTopic;
+
+    @Autowired
+    private RedisMessageListenerContainer redisContainer;
+
+    @Value("${product.cache.near.maximum-size:10000}")
+    private int nearMaximumSize;
+
+    @Value("${product.cache.near.expire-after-write-seconds:30}")
+    private long nearExpireAfterWriteSeconds;
+
+    @Value("${product.cache.redis.ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    // Long enough to outlast any load that started before the write
+    @Value("${product.cache.redis.tombstone-seconds:5}")
+    private long tombstoneSeconds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    // Bumped on every invalidation so a load that raced with a write is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder redisErrors = new LongAdder();
+
+    private final List<Consumer<Collection<String>>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    private TinyLfuCache<String, Product> nearCache;
+
+    @PostConstruct
+    public void init() {
+        nearCache = new TinyLfuCache<>(nearMaximumSize, TimeUnit.SECONDS.toNanos(nearExpireAfterWriteSeconds));
+        redisContainer.addMessageListener(this, productInvalidationTopic);
+    }
+
+    public Product get(String id, Function<String, Product> loader) {
+        Product product = nearCache.getIfPresent(id);
+        if (product != null) {
+            return product;
+        }
+
+        long observed = generation.get();
+        product = readShared(id);
+        if (product == null) {
+            product = loader.apply(id);
+            if (product == null) {
+                return null;
+            }
+            if (generation.get() == observed) {
+                writeShared(product);
+            }
+        }
+        if (generation.get() == observed) {
+            nearCache.put(id, product);
+        }
+        return product;
+    }
+
+    /**
+     * Multi-id {@link #get}: near-cache hits first, then one {@code MGET} against Redis,
+     * then a single {@code loader} call for whatever is still missing. Ids the loader
+     * does not return are absent from the result.
+     */
+    public Map<String, Product> getAll(Collection<String> ids, Function<Collection<String>, Collection<Product>> loader) {
+        Map<String, Product> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            Product product = nearCache.getIfPresent(id);
+            if (product != null) {
+                found.put(id, product);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long observed = generation.get();
+        Map<String, Product> shared = readShared(missing);
+        List<String> unloaded = missing.stream().filter(id -> !shared.containsKey(id)).toList();
+        List<Product> loaded = unloaded.isEmpty() ? List.of() : List.copyOf(loader.apply(unloaded));
+        if (generation.get() == observed && !loaded.isEmpty()) {
+            writeShared(loaded);
+        }
+        Map<String, Product> fetched = new HashMap<>(shared);
+        loaded.forEach(product -> fetched.put(product.getId(), product));
+        if (generation.get() == observed) {
+            fetched.forEach(nearCache::put);
+        }
+        found.putAll(fetched);
+        return found;
+    }
+
+    /** Called with the ids of every invalidation, whether local or received from a peer. */
+    public void addInvalidationListener(Consumer<Collection<String>> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    public void invalidate(String id) {
+        generation.incrementAndGet();
+        nearCache.invalidate(id);
+        notifyListeners(List.of(id));
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + id, TOMBSTONE, tombstoneSeconds, TimeUnit.SECONDS);
+            redisTemplate.convertAndSend(productInvalidationTopic.getTopic(), instanceId + ":" + id);
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Failed to propagate cache invalidation for product {}", id, e);
+        }
+    }
+
+    // One Redis round trip and one broadcast for the whole batch
+    public void invalidate(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        ids.forEach(nearCache::invalidate);
+        notifyListeners(ids);
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                ids.forEach(id -> strings.setEx(KEY_PREFIX + id, tombstoneSeconds, TOMBSTONE));
+                return null;
+            });
+            redisTemplate.convertAndSend(productInvalidationTopic.getTopic(), instanceId + ":" + String.join(",", ids));
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Failed to propagate cache invalidation for {} products", ids.size(), e);
+        }
+    }
+
+    // Message format: <instanceId>:<id>[,<id>...]
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        generation.incrementAndGet();
+        List<String> ids = List.of(body.substring(separator + 1).split(","));
+        ids.forEach(nearCache::invalidate);
+        notifyListeners(ids);
+    }
+
+    private void notifyListeners(Collection<String> ids) {
+        for (Consumer<Collection<String>> listener : invalidationListeners) {
+            listener.accept(ids);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = nearCache.getHitCount();
+        long misses = nearCache.getMissCount();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nearSize", nearCache.size());
+        stats.put("nearMaximumSize", nearCache.getMaximumSize());
+        stats.put("nearHits", hits);
+        stats.put("nearMisses", misses);
+        stats.put("nearHitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("nearEvictions", nearCache.getEvictionCount());
+        stats.put("redisHits", redisHits.sum());
+        stats.put("redisMisses", redisMisses.sum());
+        stats.put("redisErrors", redisErrors.sum());
+        return stats;
+    }
+
+    // Redis is an optimisation only; any failure falls through to Mongo
+    private Product readShared(String id) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+            if (json == null || TOMBSTONE.equals(json)) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
+            return objectMapper.readValue(json, Product.class);
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Shared cache read failed for product {}", id, e);
+            return null;
+        }
+    }
+
+    private Map<String, Product> readShared(List<String> ids) {
+        Map<String, Product> products = new HashMap<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(ids.stream().map(id -> KEY_PREFIX + id).toList());
+            for (int i = 0; i < ids.size(); i++) {
+                String json = values == null ? null : values.get(i);
+                if (json != null && !TOMBSTONE.equals(json)) {
+                    products.put(ids.get(i), objectMapper.readValue(json, Product.class));
+                }
+            }
+            redisHits.add(products.size());
+            redisMisses.add(ids.size() - products.size());
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Shared cache read failed for {} products", ids.size(), e);
+        }
+        return products;
+    }
+
+    // Pipelined, so a batch of misses costs one round trip
+    private void writeShared(Collection<Product> products) {
+        try {
+            List<String[]> writes = new ArrayList<>();
+            for (Product product : products) {
+                writes.add(writeArgs(product));
+            }
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                writes.forEach(args -> strings.eval(WRITE_IF_NOT_NEWER, ReturnType.INTEGER, 1, args));
+                return null;
+            });
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.warn("Shared cache write failed for {} products", products.size(), e);
+        }
+    }
+
+    private void writeShared(Product product) {
+        writeShared(List.of(product));
+    }
+
+    private String[] writeArgs(Product product) throws Exception {
+        return new String[] {
+            KEY_PREFIX + product.getId(),
+            objectMapper.writeValueAsString(product),
+            Long.toString(product.getVersion()),
+            Long.toString(redisTtlSeconds),
+            TOMBSTONE
+        };
+    }
+}
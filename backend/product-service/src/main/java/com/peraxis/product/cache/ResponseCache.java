@@ -0,0 +1,215 @@
+package com.peraxis.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Final JSON bytes of product detail and listing responses, so a hit skips both Mongo
+ * and Jackson and a matching If-None-Match skips the body altogether.
+ *
+ * Product entries carry the ETag {@code "<version>.<updatedAt millis>[.<related hash>]"} and are dropped
+ * whenever {@link ProductCache} invalidates the product, locally or on a peer. Listing
+ * entries are tagged with a hash of their bytes and indexed by the product ids they
+ * contain; invalidating a product retires only the listings it appears in. A change that
+ * brings a product into a listing it was not part of shows up when the listing expires
+ * after its short TTL, as rails and facets are rebuilt asynchronously anyway. Bulk
+ * changes retire every listing.
+ */
+@Component
+public class ResponseCache {
+
+    private static final String PRODUCT_PREFIX = "product:";
+    private static final String LISTING_PREFIX = "listing:";
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${product.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.response-cache.maximum-size:5000}")
+    private int maximumSize;
+
+    @Value("${product.response-cache.listing-ttl-seconds:30}")
+    private long listingTtlSeconds;
+
+    // Bumped on every invalidation so a response rendered from data that raced with a write is not cached
+    private final AtomicLong productGeneration = new AtomicLong();
+    // Bumped only to retire every listing at once
+    private final AtomicLong listingGeneration = new AtomicLong();
+    // Sequence number of each invalidation; a stripe holds the latest one of the ids hashed to it,
+    // so a listing can tell whether any product it rendered changed while it was rendered
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(INVALIDATION_STRIPES);
+    // Product id -> keys of the cached listings that contain it; only changed inside compute/remove
+    private final Map<String, Set<String>> listingsByProduct = new ConcurrentHashMap<>();
+
+    private TinyLfuCache<String, CachedResponse> entries;
+
+    @PostConstruct
+    public void init() {
+        entries = new TinyLfuCache<>(maximumSize);
+        productCache.addInvalidationListener(this::invalidate);
+    }
+
+    public CachedResponse product(String id, Supplier<Product> loader) {
+        String key = PRODUCT_PREFIX + id;
+        CachedResponse cached = enabled ? entries.getIfPresent(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        long observed = productGeneration.get();
+        Product product = loader.get();
+        byte[] body = serialize(Map.of("success", true, "product", product));
+        CachedResponse response = new CachedResponse(body, etagOf(product), observed);
+        if (enabled && productGeneration.get() == observed) {
+            entries.put(key, response);
+        }
+        return response;
+    }
+
+    /** The body supplier may throw; failures are never cached. */
+    public CachedResponse listing(String key, Supplier<Object> body) {
+        String cacheKey = LISTING_PREFIX + key;
+        CachedResponse cached = enabled ? entries.getIfPresent(cacheKey) : null;
+        if (cached != null && cached.getGeneration() == listingGeneration.get()
+                && System.nanoTime() - cached.getCreatedAtNanos() < TimeUnit.SECONDS.toNanos(listingTtlSeconds)) {
+            return cached;
+        }
+        long observed = listingGeneration.get();
+        long sequence = invalidationSequence.get();
+        byte[] bytes = serialize(body.get());
+        CachedResponse response = new CachedResponse(bytes, contentEtag(bytes), observed);
+        if (enabled && listingGeneration.get() == observed) {
+            List<String> productIds = productIdsOf(bytes);
+            // Indexed before the put, so an invalidation that misses the check below finds the entry
+            productIds.forEach(id -> listingsByProduct.compute(id, (productId, keys) -> {
+                Set<String> next = keys == null ? new HashSet<>() : keys;
+                next.add(cacheKey);
+                return next;
+            }));
+            entries.put(cacheKey, response);
+            if (invalidatedSince(productIds, sequence)) {
+                entries.invalidate(cacheKey);
+            }
+            if (listingsByProduct.size() > maximumSize * 64L) {
+                // Keys of evicted and expired listings pile up here; start over rather than sweep
+                retireListings();
+            }
+        }
+        return response;
+    }
+
+    public void invalidate(Collection<String> productIds) {
+        productGeneration.incrementAndGet();
+        for (String id : productIds) {
+            invalidatedAt.set(stripeOf(id), invalidationSequence.incrementAndGet());
+            entries.invalidate(PRODUCT_PREFIX + id);
+            Set<String> listings = listingsByProduct.remove(id);
+            if (listings != null) {
+                listings.forEach(entries::invalidate);
+            }
+        }
+    }
+
+    // Bulk loads may not name their products, and move many listings at once
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        invalidate(event.getProductIds());
+        retireListings();
+    }
+
+    private void retireListings() {
+        listingGeneration.incrementAndGet();
+        listingsByProduct.clear();
+    }
+
+    private boolean invalidatedSince(List<String> productIds, long sequence) {
+        for (String id : productIds) {
+            if (invalidatedAt.get(stripeOf(id)) > sequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every rendered product view carries its id, so the ids are the "id" fields of the body
+    private List<String> productIdsOf(byte[] bytes) {
+        try {
+            return objectMapper.readTree(bytes).findValuesAsText("id");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read rendered response", e);
+        }
+    }
+
+    private static int stripeOf(String id) {
+        return Math.floorMod(id.hashCode(), INVALIDATION_STRIPES);
+    }
+
+    public Map<String, Object> getStats() {
+        long hits = entries.getHitCount();
+        long misses = entries.getMissCount();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maximumSize", entries.getMaximumSize());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictions", entries.getEvictionCount());
+        return stats;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    public static String etagOf(Product product) {
+        long updatedAt = product.getUpdatedAt() == null ? 0
+            : product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // Related lists are refreshed in the background without a version bump
+        List<String> related = product.getRelatedProductIds();
+        return "\"" + product.getVersion() + "." + updatedAt
+            + (related == null || related.isEmpty() ? "" : "." + Integer.toHexString(related.hashCode())) + "\"";
+    }
+
+    private static String contentEtag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"l" + HexFormat.of().formatHex(digest, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.peraxis.product.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded in-process cache using W-TinyLFU eviction. New entries land in a small
+ * LRU window; when the window overflows, its victim is only admitted into the
+ * segmented-LRU main space if the frequency sketch rates it above the main space's
+ * own victim. One-hit wonders therefore cannot flush out the steadily hot set.
+ *
+ * Lookups are lock-free; policy bookkeeping for reads is skipped under contention
+ * rather than making readers queue on the policy lock. With an expire-after-write
+ * duration, an entry older than that reads as a miss and is dropped.
+ */
+public class TinyLfuCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> data = new ConcurrentHashMap<>();
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch<K> sketch;
+    private final ReentrantLock policyLock = new ReentrantLock();
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    // 0 keeps entries until they are evicted or invalidated
+    private final long expireAfterWriteNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TinyLfuCache(int maximumSize) {
+        this(maximumSize, 0);
+    }
+
+    public TinyLfuCache(int maximumSize, long expireAfterWriteNanos) {
+        if (maximumSize < 2) {
+            throw new IllegalArgumentException("Cache maximum size must be at least 2");
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 80 / 100;
+        this.sketch = new FrequencySketch<>(maximumSize);
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    public V getIfPresent(K key) {
+        Entry<V> entry = data.get(key);
+        if (entry != null && expireAfterWriteNanos > 0 && System.nanoTime() - entry.writtenAt > expireAfterWriteNanos) {
+            expire(key, entry);
+            entry = null;
+        }
+        V value = entry == null ? null : entry.value;
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                if (value != null) {
+                    onAccess(key);
+                }
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        policyLock.lock();
+        try {
+            if (data.put(key, new Entry<>(value, System.nanoTime())) != null && onAccess(key)) {
+                return;
+            }
+            window.put(key, Boolean.TRUE);
+            if (window.size() > windowMaximum) {
+                admit(removeEldest(window));
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            data.remove(key);
+            window.remove(key);
+            probation.remove(key);
+            protectedSegment.remove(key);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Only drops the entry that was read, not one written since
+    private void expire(K key, Entry<V> entry) {
+        policyLock.lock();
+        try {
+            if (data.remove(key, entry)) {
+                window.remove(key);
+                probation.remove(key);
+                protectedSegment.remove(key);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public long size() { return data.size(); }
+    public int getMaximumSize() { return maximumSize; }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    // Returns false when the key is not tracked by any segment (e.g. evicted concurrently)
+    private boolean onAccess(K key) {
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return true;
+        }
+        if (probation.remove(key) != null) {
+            protectedSegment.put(key, Boolean.TRUE);
+            if (protectedSegment.size() > protectedMaximum) {
+                probation.put(removeEldest(protectedSegment), Boolean.TRUE);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void admit(K candidate) {
+        if (probation.size() + protectedSegment.size() < maximumSize - windowMaximum) {
+            probation.put(candidate, Boolean.TRUE);
+            return;
+        }
+        LinkedHashMap<K, Boolean> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        K victim = victimSegment.isEmpty() ? null : victimSegment.keySet().iterator().next();
+        if (victim != null && sketch.frequency(candidate) > sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            data.remove(victim);
+            probation.put(candidate, Boolean.TRUE);
+        } else {
+            data.remove(candidate);
+        }
+        evictions.increment();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long writtenAt;
+
+        Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    private static <K> K removeEldest(Map<K, Boolean> segment) {
+        Iterator<K> iterator = segment.keySet().iterator();
+        K eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+}
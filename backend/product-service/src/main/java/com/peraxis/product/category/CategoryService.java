@@ -0,0 +1,255 @@
+package com.peraxis.product.category;
+
+import com.peraxis.product.entity.Category;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the in-memory {@link CategoryTree}. The {@code categories} collection is the
+ * source of truth; category and subcategory names that products use but the collection
+ * lacks are added to it, so the tree always covers the catalog. Local changes rebuild
+ * the tree after a short delay; the periodic refresh picks up other replicas' changes.
+ */
+@Component
+public class CategoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
+
+    // Top-level categories seeded by DATABASE_SCHEMAS.sql
+    private static final List<String[]> SCHEMA_ROOTS = List.of(
+        new String[] {"Electronics", "electronics", "Electronic devices and accessories"},
+        new String[] {"Fashion", "fashion", "Clothing and fashion accessories"},
+        new String[] {"Home & Kitchen", "home-kitchen", "Home and kitchen appliances"},
+        new String[] {"Books", "books", "Books and educational materials"},
+        new String[] {"Sports", "sports", "Sports equipment and accessories"}
+    );
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${product.categories.refresh-interval-seconds:300}")
+    private long refreshIntervalSeconds;
+
+    @Value("${product.categories.rebuild-delay-ms:1000}")
+    private long rebuildDelayMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+    private volatile CategoryTree tree;
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly,
+            refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public CategoryTree current() {
+        CategoryTree current = tree;
+        if (current == null) {
+            synchronized (this) {
+                if (tree == null) {
+                    rebuild();
+                }
+                current = tree;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Filter for products under {@code key} (an id, slug or name). A key that is not in
+     * the tree matches {@code category} ignoring case.
+     */
+    public Criteria subtreeCriteria(String key) {
+        List<CategoryTree.Node> nodes = current().find(key);
+        if (nodes.isEmpty()) {
+            return Criteria.where("categoryKey").is(Product.keyOf(key));
+        }
+        return current().subtreeCriteria(nodes);
+    }
+
+    public CategoryTree.Node create(Category category) {
+        if (category.getName() == null || category.getName().isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        category.setName(category.getName().trim());
+        CategoryTree.Node parent = null;
+        if (category.getParentId() != null) {
+            parent = current().get(category.getParentId());
+            if (parent == null) {
+                throw new IllegalArgumentException("Parent category not found: " + category.getParentId());
+            }
+        }
+        if (category.getSlug() == null || category.getSlug().isBlank()) {
+            category.setSlug(parent == null ? slugOf(category.getName()) : parent.getSlug() + "-" + slugOf(category.getName()));
+        }
+        category.setId(null);
+        category.setCreatedAt(LocalDateTime.now());
+        category.setUpdatedAt(category.getCreatedAt());
+        Category saved = mongoTemplate.insert(category);
+        rebuild();
+        return tree.get(saved.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestSync();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Product current = event.getCurrent();
+        if (current != null && !covers(current.getCategory(), current.getSubcategory())) {
+            requestSync();
+        }
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        requestSync();
+    }
+
+    public void requestSync() {
+        if (syncPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::syncQuietly, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean covers(String category, String subcategory) {
+        if (category == null || category.isBlank()) {
+            return true;
+        }
+        CategoryTree.Node root = root(current(), category);
+        return root != null && (subcategory == null || subcategory.isBlank() || child(root, subcategory) != null);
+    }
+
+    private void syncQuietly() {
+        try {
+            syncFromProducts();
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Category sync failed, keeping previous tree", e);
+        }
+    }
+
+    // Adds the schema roots to an empty collection, then every category/subcategory
+    // pair the products use that the tree does not have yet
+    private void syncFromProducts() {
+        syncPending.set(false);
+        if (mongoTemplate.count(new Query(), Category.class) == 0) {
+            for (String[] root : SCHEMA_ROOTS) {
+                insertQuietly(root[0], root[1], root[2], null);
+            }
+        }
+        rebuild();
+
+        List<Document> pipeline = List.of(new Document("$group", new Document("_id",
+            new Document("category", "$category").append("subcategory", "$subcategory"))));
+        boolean added = false;
+        for (Document group : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class)).aggregate(pipeline)) {
+            Document pair = group.get("_id", Document.class);
+            Object category = pair.get("category");
+            Object subcategory = pair.get("subcategory");
+            if (!(category instanceof String) || ((String) category).isBlank()) {
+                continue;
+            }
+            CategoryTree.Node root = root(tree, (String) category);
+            if (root == null) {
+                insertQuietly(((String) category).trim(), slugOf((String) category), null, null);
+                rebuild();
+                root = root(tree, (String) category);
+                added = true;
+            }
+            if (root != null && subcategory instanceof String && !((String) subcategory).isBlank()
+                    && child(root, (String) subcategory) == null) {
+                insertQuietly(((String) subcategory).trim(), root.getSlug() + "-" + slugOf((String) subcategory), null, root.getId());
+                added = true;
+            }
+        }
+        if (added) {
+            logger.info("Added categories used by products; tree now has {} nodes", current().size());
+        }
+    }
+
+    private void insertQuietly(String name, String slug, String description, String parentId) {
+        Category category = new Category();
+        category.setName(name);
+        category.setSlug(slug);
+        category.setDescription(description);
+        category.setParentId(parentId);
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            try {
+                mongoTemplate.insert(category);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Either another replica added it first, or a different name has the same slug
+                if (mongoTemplate.exists(new Query(Criteria.where("name").is(name).and("parentId").is(parentId)), Category.class)) {
+                    return;
+                }
+                category.setId(null);
+                category.setSlug(slug + "-" + (attempt + 1));
+            }
+        }
+        logger.warn("Could not add category {}: slug {} is taken", name, slug);
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Category tree rebuild failed, keeping previous tree", e);
+        }
+    }
+
+    private void rebuild() {
+        tree = CategoryTree.of(mongoTemplate.findAll(Category.class));
+    }
+
+    private static CategoryTree.Node root(CategoryTree tree, String name) {
+        return tree.find(name).stream().filter(node -> node.getDepth() == 0).findFirst().orElse(null);
+    }
+
+    private static CategoryTree.Node child(CategoryTree.Node parent, String name) {
+        String trimmed = name.trim();
+        return parent.getChildren().stream()
+            .filter(node -> node.getName().equalsIgnoreCase(trimmed))
+            .findFirst()
+            .orElse(null);
+    }
+
+    static String slugOf(String name) {
+        String ascii = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        String slug = ascii.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return slug.isEmpty() ? Integer.toHexString(Objects.hashCode(name)) : slug;
+    }
+}
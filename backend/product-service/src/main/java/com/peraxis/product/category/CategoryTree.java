@@ -0,0 +1,235 @@
+package com.peraxis.product.category;
+
+import com.peraxis.product.entity.Category;
+import com.peraxis.product.entity.Product;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the category hierarchy. Every node carries its ancestor path and
+ * the ids and names of its whole subtree, computed once at build time, so resolving a
+ * browse filter is a map lookup. A parent that is missing, or that would close a cycle,
+ * is ignored and the node becomes a root.
+ */
+public final class CategoryTree {
+
+    private static final Comparator<Node> ORDER = Comparator.comparingInt((Node node) -> node.displayOrder)
+        .thenComparing(node -> node.name, String.CASE_INSENSITIVE_ORDER);
+
+    private final Map<String, Node> byId;
+    private final Map<String, Node> bySlug;
+    private final Map<String, List<Node>> byName;
+    private final List<Node> roots;
+    private final LocalDateTime builtAt;
+
+    private CategoryTree(Map<String, Node> byId, Map<String, Node> bySlug, Map<String, List<Node>> byName,
+                         List<Node> roots, LocalDateTime builtAt) {
+        this.byId = byId;
+        this.bySlug = bySlug;
+        this.byName = byName;
+        this.roots = roots;
+        this.builtAt = builtAt;
+    }
+
+    public static CategoryTree of(Collection<Category> categories) {
+        Map<String, Category> source = new HashMap<>();
+        for (Category category : categories) {
+            if (category.getId() != null && category.getName() != null) {
+                source.put(category.getId(), category);
+            }
+        }
+
+        Map<String, String> parents = new HashMap<>();
+        source.values().forEach(category -> parents.put(category.getId(),
+            source.containsKey(category.getParentId()) ? category.getParentId() : null));
+        for (String id : source.keySet()) {
+            Set<String> path = new HashSet<>();
+            for (String current = id; current != null; current = parents.get(current)) {
+                if (!path.add(current)) {
+                    parents.put(current, null);
+                    break;
+                }
+            }
+        }
+
+        Map<String, List<String>> children = new HashMap<>();
+        List<String> rootIds = new ArrayList<>();
+        parents.forEach((id, parent) -> {
+            if (parent == null) {
+                rootIds.add(id);
+            } else {
+                children.computeIfAbsent(parent, key -> new ArrayList<>()).add(id);
+            }
+        });
+
+        Map<String, Node> byId = new HashMap<>();
+        List<Node> roots = new ArrayList<>();
+        for (String id : rootIds) {
+            roots.add(build(source.get(id), null, children, source, byId));
+        }
+        roots.sort(ORDER);
+
+        Map<String, Node> bySlug = new HashMap<>();
+        Map<String, List<Node>> byName = new HashMap<>();
+        for (Node node : byId.values()) {
+            if (node.slug != null) {
+                bySlug.put(node.slug.toLowerCase(Locale.ROOT), node);
+            }
+            byName.computeIfAbsent(node.name.toLowerCase(Locale.ROOT), key -> new ArrayList<>()).add(node);
+        }
+        byName.replaceAll((name, nodes) -> List.copyOf(nodes));
+        return new CategoryTree(Map.copyOf(byId), Map.copyOf(bySlug), Map.copyOf(byName), List.copyOf(roots), LocalDateTime.now());
+    }
+
+    private static Node build(Category category, Node parent, Map<String, List<String>> children,
+                              Map<String, Category> source, Map<String, Node> byId) {
+        List<String> ancestors = new ArrayList<>();
+        if (parent != null) {
+            ancestors.addAll(parent.ancestorIds);
+            ancestors.add(parent.id);
+        }
+        Node node = new Node(category, parent == null ? null : parent.id, ancestors,
+            parent == null ? category.getName() : parent.rootName);
+        byId.put(node.id, node);
+
+        List<Node> nodes = new ArrayList<>();
+        Set<String> descendantIds = new LinkedHashSet<>();
+        Set<String> subtreeNames = new LinkedHashSet<>();
+        descendantIds.add(node.id);
+        subtreeNames.add(node.name);
+        for (String childId : children.getOrDefault(node.id, List.of())) {
+            Node child = build(source.get(childId), node, children, source, byId);
+            nodes.add(child);
+            descendantIds.addAll(child.descendantIds);
+            subtreeNames.addAll(child.subtreeNames);
+        }
+        nodes.sort(ORDER);
+        node.children = List.copyOf(nodes);
+        node.descendantIds = Set.copyOf(descendantIds);
+        node.subtreeNames = Set.copyOf(subtreeNames);
+        return node;
+    }
+
+    public Node get(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /** Nodes matching {@code key} as an id, a slug, or a name ignoring case; names may repeat under different roots. */
+    public List<Node> find(String key) {
+        if (key == null || key.isBlank()) {
+            return List.of();
+        }
+        Node node = byId.get(key);
+        if (node == null) {
+            node = bySlug.get(key.toLowerCase(Locale.ROOT));
+        }
+        if (node != null) {
+            return List.of(node);
+        }
+        return byName.getOrDefault(key.trim().toLowerCase(Locale.ROOT), List.of());
+    }
+
+    /**
+     * Products anywhere under the given nodes. A root selects its whole {@code category};
+     * a deeper node selects its root's category with the subtree's names as
+     * {@code subcategory}. Names match the way tree lookups do, ignoring case, through
+     * equality or {@code $in} on the indexed {@code categoryKey} and {@code subcategoryKey}.
+     */
+    public Criteria subtreeCriteria(Collection<Node> nodes) {
+        Set<String> wholeRoots = new LinkedHashSet<>();
+        Map<String, Set<String>> subcategories = new LinkedHashMap<>();
+        for (Node node : nodes) {
+            if (node.depth == 0) {
+                wholeRoots.add(Product.keyOf(node.name));
+            } else {
+                Set<String> keys = subcategories.computeIfAbsent(Product.keyOf(node.rootName), key -> new LinkedHashSet<>());
+                node.subtreeNames.forEach(name -> keys.add(Product.keyOf(name)));
+            }
+        }
+        subcategories.keySet().removeAll(wholeRoots);
+
+        List<Criteria> branches = new ArrayList<>();
+        if (!wholeRoots.isEmpty()) {
+            branches.add(wholeRoots.size() == 1
+                ? Criteria.where("categoryKey").is(wholeRoots.iterator().next())
+                : Criteria.where("categoryKey").in(wholeRoots));
+        }
+        subcategories.forEach((root, keys) ->
+            branches.add(Criteria.where("categoryKey").is(root).and("subcategoryKey").in(keys)));
+        return branches.size() == 1 ? branches.get(0) : new Criteria().orOperator(branches);
+    }
+
+    public List<Node> getRoots() { return roots; }
+    public int size() { return byId.size(); }
+    public LocalDateTime getBuiltAt() { return builtAt; }
+
+    /** Nested id/name/slug/children maps for the API. */
+    public List<Map<String, Object>> toResponse() {
+        return roots.stream().map(CategoryTree::toResponse).toList();
+    }
+
+    private static Map<String, Object> toResponse(Node node) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", node.id);
+        body.put("name", node.name);
+        body.put("slug", node.slug);
+        body.put("depth", node.depth);
+        body.put("active", node.active);
+        body.put("children", node.children.stream().map(CategoryTree::toResponse).toList());
+        return body;
+    }
+
+    public static final class Node {
+        private final String id;
+        private final String name;
+        private final String slug;
+        private final String parentId;
+        private final String rootName;
+        private final int depth;
+        private final int displayOrder;
+        private final boolean active;
+        private final List<String> ancestorIds;
+        // Assigned once while the tree is built, never after
+        private List<Node> children;
+        private Set<String> descendantIds;
+        private Set<String> subtreeNames;
+
+        private Node(Category category, String parentId, List<String> ancestorIds, String rootName) {
+            this.id = category.getId();
+            this.name = category.getName();
+            this.slug = category.getSlug();
+            this.parentId = parentId;
+            this.rootName = rootName;
+            this.depth = ancestorIds.size();
+            this.displayOrder = category.getDisplayOrder();
+            this.active = category.isActive();
+            this.ancestorIds = List.copyOf(ancestorIds);
+        }
+
+        public String getId() { return id; }
+        public String getName() { return name; }
+        public String getSlug() { return slug; }
+        public String getParentId() { return parentId; }
+        public String getRootName() { return rootName; }
+        public int getDepth() { return depth; }
+        public boolean isActive() { return active; }
+        /** Root first, excluding this node. */
+        public List<String> getAncestorIds() { return ancestorIds; }
+        /** Including this node. */
+        public Set<String> getDescendantIds() { return descendantIds; }
+        public Set<String> getSubtreeNames() { return subtreeNames; }
+        public List<Node> getChildren() { return children; }
+    }
+}
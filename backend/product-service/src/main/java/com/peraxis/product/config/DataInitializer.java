@@ -2,7 +2,9 @@ package com.peraxis.product.config;
 
 import com.peraxis.product.entity.Product;
 import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.synthetic.SyntheticCatalogSeeder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Query;
@@ -18,9 +20,18 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private SyntheticCatalogSeeder syntheticCatalogSeeder;
+
+    // Seeds a generated catalog of this size instead of the hand-written samples
+    @Value("${product.synthetic.count:0}")
+    private long syntheticCount;
+
     @Override
     public void run(String... args) throws Exception {
-        if (mongoTemplate.count(new Query(), Product.class) == 0) {
+        if (syntheticCount > 0) {
+            syntheticCatalogSeeder.seed(syntheticCount);
+        } else if (mongoTemplate.count(new Query(), Product.class) == 0) {
             createSampleProducts();
         }
     }
@@ -0,0 +1,66 @@
+package com.peraxis.product.config;
+
+import com.mongodb.ReadPreference;
+import com.peraxis.product.audit.QueryPlanAuditor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two templates over one client. {@code mongoTemplate} reads from the primary and is
+ * used for writes, caches and anything a seller must see right after writing it.
+ * {@code browseMongoTemplate} serves anonymous catalog browsing from secondaries no
+ * further behind than {@code product.read-replicas.max-staleness-seconds}, falling back
+ * to the primary when none qualifies (or on a standalone server).
+ */
+@Configuration
+public class MongoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+    // The driver rejects smaller values
+    private static final long MIN_MAX_STALENESS_SECONDS = 90;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryPlanAuditing(QueryPlanAuditor auditor) {
+        return builder -> builder.addCommandListener(auditor);
+    }
+
+    // Declaring any MongoTemplate turns off Boot's, so the primary one is declared too
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(factory, converter);
+    }
+
+    @Bean
+    public MongoTemplate browseMongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                             ReadPreference browseReadPreference) {
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        template.setReadPreference(browseReadPreference);
+        return template;
+    }
+
+    @Bean
+    public ReadPreference browseReadPreference(
+            @Value("${product.read-replicas.enabled:true}") boolean enabled,
+            @Value("${product.read-replicas.max-staleness-seconds:90}") long maxStalenessSeconds) {
+        if (!enabled) {
+            return ReadPreference.primary();
+        }
+        if (maxStalenessSeconds < MIN_MAX_STALENESS_SECONDS) {
+            logger.warn("product.read-replicas.max-staleness-seconds={} is below the driver minimum, using {}",
+                maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS);
+            maxStalenessSeconds = MIN_MAX_STALENESS_SECONDS;
+        }
+        return ReadPreference.secondaryPreferred(maxStalenessSeconds, TimeUnit.SECONDS);
+    }
+}
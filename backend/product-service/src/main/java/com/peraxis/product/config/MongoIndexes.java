@@ -0,0 +1,114 @@
+package com.peraxis.product.config;
+
+import com.peraxis.product.entity.Category;
+import com.peraxis.product.entity.PriceHistoryBucket;
+import com.peraxis.product.entity.PriceRuleChange;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.Review;
+import com.peraxis.product.entity.StockReservation;
+import com.peraxis.product.entity.VariantEntry;
+import com.peraxis.product.service.ProductPatch;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the entities and checks they exist. Spring Boot does
+ * not create annotated indexes on its own, so this is what makes the declarations real.
+ * A failed build (for example a unique index over existing duplicates) is logged and
+ * reported rather than stopping startup.
+ *
+ * Derived fields that an index is declared on are backfilled here too, so the index
+ * covers documents written before the field existed.
+ */
+@Component
+public class MongoIndexes {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexes.class);
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(Product.class, StockReservation.class, Review.class,
+        PriceHistoryBucket.class, Category.class, VariantEntry.class, PriceRuleChange.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private volatile Map<String, Object> report = Map.of();
+
+    @PostConstruct
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Class<?> type : INDEXED_ENTITIES) {
+            String collection = mongoTemplate.getCollectionName(type);
+            try {
+                IndexOperations operations = mongoTemplate.indexOps(type);
+                List<String> declared = new ArrayList<>();
+                for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+                    String name = (String) index.getIndexOptions().get("name");
+                    declared.add(name);
+                    try {
+                        operations.ensureIndex(index);
+                    } catch (Exception e) {
+                        logger.error("Could not create index {} on {}", name, collection, e);
+                    }
+                }
+                Set<String> present = operations.getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+                List<String> missing = declared.stream().filter(name -> !present.contains(name)).toList();
+                if (!missing.isEmpty()) {
+                    logger.error("Collection {} is missing declared indexes {}", collection, missing);
+                }
+                result.put(collection, Map.of("declared", declared, "missing", missing));
+            } catch (Exception e) {
+                logger.error("Index verification failed for {}", collection, e);
+                result.put(collection, Map.of("error", String.valueOf(e.getMessage())));
+            }
+        }
+        report = result;
+        backfillKeys();
+    }
+
+    // One server-side pipeline update per key; a no-op once every document with a value has one
+    private void backfillKeys() {
+        backfillKey(Product.class, "categoryKey", "category");
+        backfillKey(Product.class, "subcategoryKey", "subcategory");
+        backfillKey(Product.class, "brandKey", "brand");
+        backfillKey(VariantEntry.class, "categoryKey", "category");
+        backfillKey(VariantEntry.class, "subcategoryKey", "subcategory");
+    }
+
+    private void backfillKey(Class<?> type, String key, String source) {
+        String collection = mongoTemplate.getCollectionName(type);
+        try {
+            long updated = mongoTemplate.getCollection(collection).updateMany(
+                new Document(key, new Document("$exists", false)).append(source, new Document("$type", "string")),
+                List.of(new Document("$set", new Document(key, ProductPatch.keyExpression(source)))))
+                .getModifiedCount();
+            if (updated > 0) {
+                logger.info("Backfilled {} on {} {}", key, updated, collection);
+            }
+        } catch (Exception e) {
+            logger.error("Could not backfill {} on {}; {} filters miss documents without one", key, collection, source, e);
+        }
+    }
+
+    public Map<String, Object> getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,25 @@
+package com.peraxis.product.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class RedisConfig {
+    
+    @Bean
+    public ChannelTopic productInvalidationTopic(
+            @Value("${product.cache.invalidation-channel:product-invalidation}") String channel) {
+        return new ChannelTopic(channel);
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer redisContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+}
@@ -0,0 +1,62 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.category.CategoryTree;
+import com.peraxis.product.entity.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+public class CategoryController {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @GetMapping("/categories/tree")
+    public ResponseEntity<?> getCategoryTree() {
+        CategoryTree tree = categoryService.current();
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", tree.toResponse(),
+            "size", tree.size(),
+            "builtAt", tree.getBuiltAt()
+        ));
+    }
+
+    @PostMapping("/admin/categories")
+    public ResponseEntity<?> createCategory(
+            @RequestBody Category category,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        try {
+            CategoryTree.Node node = categoryService.create(category);
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Category created successfully",
+                "id", node.getId(),
+                "slug", node.getSlug(),
+                "ancestorIds", node.getAncestorIds()
+            ));
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", "A category with this slug already exists"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.media.MediaFile;
+import com.peraxis.product.media.MediaService;
+import com.peraxis.product.media.MediaVariant;
+import com.peraxis.product.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Product image upload and delivery. Image bytes are handed to the container's sendfile
+ * support when it has one (Tomcat NIO does), so they go from the page cache to the
+ * socket without entering the heap; otherwise they are streamed with
+ * {@link FileChannel#transferTo}.
+ */
+@RestController
+public class MediaController {
+
+    // Tomcat's request attributes for sendfile (org.apache.tomcat.util.net.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String MEDIA_PATH = "/api/products/media/";
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private ProductService productService;
+
+    @PostMapping("/api/products/{id}/images")
+    public ResponseEntity<?> uploadImage(
+            @PathVariable String id,
+            @RequestParam("file") MultipartFile file,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"SELLER".equals(userRole) && !"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Unauthorized to upload product images"
+            ));
+        }
+        try {
+            String mediaId;
+            try (InputStream content = file.getInputStream()) {
+                mediaId = mediaService.store(content);
+            }
+            Map<String, String> urls = new LinkedHashMap<>();
+            for (MediaVariant variant : MediaVariant.values()) {
+                urls.put(variant.name().toLowerCase(Locale.ROOT), MEDIA_PATH + mediaId + "/" + variant.name().toLowerCase(Locale.ROOT));
+            }
+            Product product = productService.addImage(id, urls.get("card"), userId, userRole);
+            if (product == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Product not found"
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "mediaId", mediaId,
+                "urls", urls,
+                "images", product.getImages()
+            ));
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body(Map.of(
+                "success", false,
+                "message", "Could not store image"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/api/products/media/{mediaId}/{variant}")
+    public ResponseEntity<?> getImage(
+            @PathVariable String mediaId,
+            @PathVariable String variant,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        MediaFile file;
+        try {
+            file = mediaService.resolve(mediaId, MediaVariant.from(variant));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+        if (file == null) {
+            return ResponseEntity.status(404).body(Map.of(
+                "success", false,
+                "message", "Image not found"
+            ));
+        }
+        send(file, request, response);
+        return null;
+    }
+
+    // Serves the /api/placeholder/{w}/{h} images the frontends reference
+    @GetMapping("/api/placeholder/{width}/{height}")
+    public ResponseEntity<?> getPlaceholder(
+            @PathVariable int width,
+            @PathVariable int height,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        try {
+            send(mediaService.placeholder(width, height), request, response);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/api/products/media/stats")
+    public ResponseEntity<?> getMediaStats(@RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", mediaService.getStats()
+        ));
+    }
+
+    private static void send(MediaFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + file.getEtag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.isImmutable() ? IMMUTABLE : "no-cache");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || "*".equals(ifNoneMatch.trim()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(file.getLength());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.getLength());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < file.getLength()) {
+                position += channel.transferTo(position, file.getLength() - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.price.PriceHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+public class PriceHistoryController {
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<?> getPriceHistory(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "12") int months) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "history", priceHistoryService.getHistory(id, months)
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/admin/price-history/stats")
+    public ResponseEntity<?> getStats(@RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", priceHistoryService.getStats()
+        ));
+    }
+}
@@ -0,0 +1,145 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.entity.PriceRuleSet;
+import com.peraxis.product.pricing.PriceRuleEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/api/products/admin/price-rules")
+public class PriceRuleController {
+
+    @Autowired
+    private PriceRuleEngine priceRuleEngine;
+
+    @PostMapping
+    public ResponseEntity<?> createRuleSet(
+            @RequestBody PriceRuleSet ruleSet,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return forbidden();
+        }
+        try {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Price rule set created",
+                "ruleSet", priceRuleEngine.create(ruleSet, userId)
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listRuleSets(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "ruleSets", priceRuleEngine.list(Math.max(1, Math.min(limit, 200)))
+        ));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getRuleSet(
+            @PathVariable String id,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return forbidden();
+        }
+        PriceRuleSet ruleSet = priceRuleEngine.get(id);
+        if (ruleSet == null) {
+            return notFound();
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "ruleSet", ruleSet
+        ));
+    }
+
+    @PostMapping("/{id}/preview")
+    public ResponseEntity<?> previewRuleSet(
+            @PathVariable String id,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return forbidden();
+        }
+        try {
+            Map<String, Object> preview = priceRuleEngine.preview(id);
+            if (preview == null) {
+                return notFound();
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "preview", preview
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping("/{id}/apply")
+    public ResponseEntity<?> applyRuleSet(
+            @PathVariable String id,
+            @RequestHeader("X-User-Role") String userRole) {
+        return start(id, userRole, priceRuleEngine::apply, "Price rule set is being applied");
+    }
+
+    @PostMapping("/{id}/rollback")
+    public ResponseEntity<?> rollbackRuleSet(
+            @PathVariable String id,
+            @RequestHeader("X-User-Role") String userRole) {
+        return start(id, userRole, priceRuleEngine::rollback, "Price rule set is being rolled back");
+    }
+
+    // Runs are asynchronous; callers poll GET /{id} for status and counters
+    private ResponseEntity<?> start(String id, String userRole, Function<String, PriceRuleSet> action, String message) {
+        if (!"ADMIN".equals(userRole)) {
+            return forbidden();
+        }
+        try {
+            PriceRuleSet ruleSet = action.apply(id);
+            if (ruleSet == null) {
+                return notFound();
+            }
+            return ResponseEntity.status(202).body(Map.of(
+                "success", true,
+                "message", message,
+                "ruleSet", ruleSet
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(403).body(Map.of(
+            "success", false,
+            "message", "Access denied. Admin role required."
+        ));
+    }
+
+    private static ResponseEntity<?> notFound() {
+        return ResponseEntity.status(404).body(Map.of(
+            "success", false,
+            "message", "Price rule set not found"
+        ));
+    }
+}
@@ -1,27 +1,100 @@
 package com.peraxis.product.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.bulk.ImportFormat;
+import com.peraxis.product.bulk.ImportSummary;
+import com.peraxis.product.bulk.NdjsonImportWriter;
+import com.peraxis.product.bulk.ProductImportService;
+import com.peraxis.product.audit.QueryPlanAuditor;
+import com.peraxis.product.cache.CachedResponse;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.cache.ResponseCache;
+import com.peraxis.product.config.MongoIndexes;
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.dto.FacetedPage;
 import com.peraxis.product.entity.Product;
+import com.peraxis.product.facet.FacetQuery;
+import com.peraxis.product.popularity.PopularityScorer;
+import com.peraxis.product.service.CountMode;
+import com.peraxis.product.service.ProductFields;
 import com.peraxis.product.service.ProductService;
+import com.peraxis.product.service.VersionConflictException;
+import com.peraxis.product.streaming.ProductStreamService;
+import com.peraxis.product.synthetic.SyntheticCatalogSeeder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
 // @CrossOrigin - Handled by Gateway
 public class ProductController {
     
+    private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private MongoIndexes mongoIndexes;
+    
+    @Autowired
+    private QueryPlanAuditor queryPlanAuditor;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SyntheticCatalogSeeder syntheticCatalogSeeder;
+    
+    @Autowired
+    private ResponseCache responseCache;
+    
+    @Autowired
+    private PopularityScorer popularityScorer;
+    
+    @Autowired
+    private ProductStreamService productStreamService;
+    
+    @Value("${product.batch.max-ids:300}")
+    private int maxBatchIds;
+    
+    // Rails hold this many products; a larger limit is clamped to it and the cap is returned as maxLimit
+    @Value("${product.rails.capacity:50}")
+    private int railCapacity;
+    
     @GetMapping
     public ResponseEntity<?> getProducts(
+            HttpServletRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String category,
@@ -30,44 +103,138 @@ public class ProductController {
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) String rating,
             @RequestParam(required = false) String sortBy,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String stockStatus,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total,
+            @RequestParam(required = false) String fields) {
         
-        Page<Product> products = productService.getPublicProducts(
-            PageRequest.of(page, size), category, search);
+        return listingResponse(request, () -> {
+            FacetQuery filters = FacetQuery.parse(category, brand, stockStatus, minPrice, maxPrice, rating, sortBy);
+            ProductFields view = ProductFields.parse(fields);
+            // An empty cursor parameter starts cursor mode at the first page
+            if (cursor != null) {
+                return cursorBody(productService.findProducts(
+                    filters, search, cursor, size, CountMode.from(total), view), view, "products");
+            }
+            
+            FacetedPage<Product> products = productService.findProducts(filters, search, page, size, view);
+            return Map.of(
+                "success", true,
+                "products", view.render(products.getContent()),
+                "totalPages", products.getTotalPages(),
+                "totalElements", products.getTotalElements(),
+                "facets", products.getFacets()
+            );
+        });
+    }
+    
+    // Same filters and order as the cursor listing, one product per NDJSON line, read from
+    // Mongo as the client consumes it; for exports and feeds that would otherwise walk pages
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<Flux<Object>> streamProducts(
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String minPrice,
+            @RequestParam(required = false) String maxPrice,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) String rating,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String stockStatus,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields) {
         
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "products", products.getContent(),
-            "totalPages", products.getTotalPages(),
-            "totalElements", products.getTotalElements()
-        ));
+        if (!productStreamService.isEnabled()) {
+            return ResponseEntity.status(404).body(Flux.just(Map.of(
+                "success", false,
+                "message", "Product streaming is not enabled"
+            )));
+        }
+        try {
+            FacetQuery filters = FacetQuery.parse(category, brand, stockStatus, minPrice, maxPrice, rating, sortBy);
+            return ResponseEntity.ok().contentType(NDJSON)
+                .body(productStreamService.stream(filters, search, limit, ProductFields.parse(fields)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Flux.just(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            )));
+        }
     }
     
     @GetMapping("/public")
     public ResponseEntity<?> getPublicProducts(
+            HttpServletRequest request,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search) {
-        
-        Page<Product> products = productService.getPublicProducts(
-            PageRequest.of(page, size), category, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total) {
         
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "products", products.getContent(),
-            "totalPages", products.getTotalPages(),
-            "totalElements", products.getTotalElements()
-        ));
+        return listingResponse(request, () -> {
+            // Present but empty still means cursor mode, from the first page
+            if (cursor != null) {
+                return cursorBody(productService.getPublicProducts(
+                    cursor, size, CountMode.from(total), category, search), ProductFields.FULL, "products");
+            }
+            
+            Page<Product> products = productService.getPublicProducts(
+                PageRequest.of(page, size), category, search);
+            return Map.of(
+                "success", true,
+                "products", products.getContent(),
+                "totalPages", products.getTotalPages(),
+                "totalElements", products.getTotalElements()
+            );
+        });
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProduct(@PathVariable String id) {
+    public ResponseEntity<?> getProduct(@PathVariable String id, HttpServletRequest request) {
+        try {
+            return conditionalResponse(responseCache.product(id, () -> productService.getProductById(id)), request);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    // Blank fields means the full product, as GET /{id} returns
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsBatch(
+            @RequestBody Map<String, List<String>> body,
+            @RequestParam(required = false) String fields) {
         try {
-            Product product = productService.getProductById(id);
+            List<String> ids = body.get("ids");
+            if (ids == null || ids.isEmpty()) {
+                throw new IllegalArgumentException("ids must not be empty");
+            }
+            if (ids.size() > maxBatchIds) {
+                throw new IllegalArgumentException("At most " + maxBatchIds + " ids per request");
+            }
+            if (ids.stream().anyMatch(id -> id == null || id.isBlank())) {
+                throw new IllegalArgumentException("ids must not contain blanks");
+            }
+            ProductFields view = fields == null || fields.isBlank() ? ProductFields.FULL : ProductFields.parse(fields);
+            List<Product> products = productService.getProductsByIds(ids);
+            
+            // Misses stay in place as null entries so callers can zip with their ids
+            List<Object> rendered = new ArrayList<>(products.size());
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                Product product = products.get(i);
+                rendered.add(product == null ? null : view.render(product));
+                if (product == null) {
+                    missing.add(ids.get(i));
+                }
+            }
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "product", product
+                "products", rendered,
+                "missing", missing
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -78,57 +245,69 @@ public class ProductController {
     }
     
     @GetMapping("/featured")
-    public ResponseEntity<?> getFeaturedProducts(@RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getFeaturedProducts(limit);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "data", products
-        ));
+    public ResponseEntity<?> getFeaturedProducts(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
+        return railResponse(request, limit, (view, applied) -> productService.getFeaturedProducts(applied, view), fields);
     }
     
     @GetMapping("/trending")
-    public ResponseEntity<?> getTrendingProducts(@RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getTrendingProducts(limit);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "data", products
-        ));
+    public ResponseEntity<?> getTrendingProducts(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
+        return railResponse(request, limit, (view, applied) -> productService.getTrendingProducts(applied, view), fields);
     }
     
     @GetMapping("/deals")
-    public ResponseEntity<?> getDeals(@RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getDeals(limit);
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "data", products
-        ));
+    public ResponseEntity<?> getDeals(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields) {
+        return railResponse(request, limit, (view, applied) -> productService.getDeals(applied, view), fields);
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<?> getCategories() {
-        List<String> categories = productService.getAllCategories();
-        List<Map<String, String>> categoryObjects = categories.stream()
-            .map(cat -> Map.of("id", cat.toLowerCase(), "name", cat))
-            .collect(java.util.stream.Collectors.toList());
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "data", categoryObjects
-        ));
+    public ResponseEntity<?> getCategories(HttpServletRequest request) {
+        return listingResponse(request, () -> {
+            List<String> categories = productService.getAllCategories();
+            List<Map<String, String>> categoryObjects = categories.stream()
+                .map(cat -> Map.of("id", cat.toLowerCase(), "name", cat))
+                .collect(java.util.stream.Collectors.toList());
+            return Map.of(
+                "success", true,
+                "data", categoryObjects
+            );
+        });
     }
     
     @GetMapping("/search")
     public ResponseEntity<?> searchProducts(
+            HttpServletRequest request,
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String total,
+            @RequestParam(required = false) String fields) {
         
-        Page<Product> products = productService.searchProducts(query, PageRequest.of(page, size));
-        return ResponseEntity.ok(Map.of(
-            "success", true,
-            "products", products.getContent(),
-            "totalPages", products.getTotalPages(),
-            "totalElements", products.getTotalElements()
-        ));
+        return listingResponse(request, () -> {
+            ProductFields view = ProductFields.parse(fields);
+            // Present but empty still means cursor mode, from the first page
+            if (cursor != null) {
+                return cursorBody(productService.searchProducts(
+                    query, cursor, size, CountMode.from(total), view), view, "products");
+            }
+            
+            Page<Product> products = productService.searchProducts(query, PageRequest.of(page, size), view);
+            return Map.of(
+                "success", true,
+                "products", view.render(products.getContent()),
+                "totalPages", products.getTotalPages(),
+                "totalElements", products.getTotalElements()
+            );
+        });
     }
     
     @PostMapping
@@ -161,19 +340,75 @@ public class ProductController {
         }
     }
     
+    // Body is NDJSON (one product per line) or CSV with a header row; the response
+    // streams per-row errors and per-batch progress while the upload is still being read
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(
+            HttpServletRequest request,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) throws IOException {
+        
+        if (!"SELLER".equals(userRole) && !"ADMIN".equals(userRole)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Unauthorized to import products"
+            ));
+        }
+        ImportFormat format;
+        try {
+            format = ImportFormat.fromContentType(request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+        
+        InputStream body = request.getInputStream();
+        StreamingResponseBody stream = out -> {
+            NdjsonImportWriter writer = new NdjsonImportWriter(objectMapper, out);
+            try {
+                ImportSummary summary = productImportService.importProducts(body, format, userId, userRole, writer);
+                writer.summary(summary);
+            } catch (Exception e) {
+                logger.error("Product import failed for user {}", userId, e);
+                writer.failed(e.getMessage());
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(stream);
+    }
+    
+    // Full update of the client-writable fields, conditional on If-Match or a "version" body
+    // field when given and otherwise on the version current when the request is handled
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(
             @PathVariable String id,
             @RequestBody Product product,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @RequestHeader("X-User-Id") String userId,
             @RequestHeader("X-User-Role") String userRole) {
         
         try {
-            Product updatedProduct = productService.updateProduct(id, product, userId, userRole);
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Product updated successfully",
-                "product", updatedProduct
+            Long expectedVersion = expectedVersion(ifMatch, product.getVersion() > 0 ? product.getVersion() : null);
+            Product updatedProduct = productService.updateProduct(id, product, expectedVersion, userId, userRole);
+            if (updatedProduct == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Product not found"
+                ));
+            }
+            return ResponseEntity.ok()
+                .eTag(ResponseCache.etagOf(updatedProduct))
+                .body(Map.of(
+                    "success", true,
+                    "message", "Product updated successfully",
+                    "product", updatedProduct
+                ));
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage(),
+                "currentVersion", e.getCurrentVersion()
             ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -183,6 +418,61 @@ public class ProductController {
         }
     }
     
+    // Partial update. The expected version comes from If-Match or a "version" body field;
+    // without one the patch applies unconditionally but is still a single atomic write
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchProduct(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> changes,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        
+        try {
+            Map<String, Object> fields = new HashMap<>(changes);
+            Long expectedVersion = expectedVersion(ifMatch, fields.remove("version"));
+            Product product = productService.patchProduct(id, fields, expectedVersion, userId, userRole);
+            if (product == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Product not found"
+                ));
+            }
+            return ResponseEntity.ok()
+                .eTag(ResponseCache.etagOf(product))
+                .body(Map.of(
+                    "success", true,
+                    "message", "Product updated successfully",
+                    "product", product
+                ));
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage(),
+                "currentVersion", e.getCurrentVersion()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    // Accepts both the detail ETag ("<version>.<updatedAt>") and a bare version
+    private static Long expectedVersion(String ifMatch, Object bodyVersion) {
+        String raw = ifMatch != null ? ifMatch.replaceFirst("^W/", "").replace("\"", "").replaceFirst("\\..*$", "").trim()
+            : bodyVersion != null ? bodyVersion.toString() : null;
+        if (raw == null || raw.isEmpty() || "*".equals(raw)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid product version: " + raw);
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteProduct(
             @PathVariable String id,
@@ -203,6 +493,59 @@ public class ProductController {
         }
     }
     
+    private static Map<String, Object> cursorBody(CursorPage<Product> page, ProductFields view, String contentKey) {
+        return page.map(view::render).toResponse(contentKey);
+    }
+    
+    private ResponseEntity<?> railResponse(HttpServletRequest request, int limit,
+                                           BiFunction<ProductFields, Integer, List<Product>> lookup, String fields) {
+        int applied = Math.max(1, Math.min(limit, railCapacity));
+        return listingResponse(request, () -> {
+            ProductFields view = ProductFields.parse(fields);
+            return Map.of(
+                "success", true,
+                "data", view.render(lookup.apply(view, applied)),
+                "limit", applied,
+                "maxLimit", railCapacity
+            );
+        });
+    }
+    
+    // Serves the cached bytes of a read-only listing; IllegalArgumentException from the body is a 400 and is not cached
+    private ResponseEntity<?> listingResponse(HttpServletRequest request, Supplier<Object> body) {
+        try {
+            return conditionalResponse(responseCache.listing(listingKey(request), body), request);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
+    // Path plus parameters in a stable order, so equivalent query strings share an entry
+    private static String listingKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+            key.append('&').append(name).append('=').append(String.join(",", values)));
+        return key.toString();
+    }
+    
+    // no-cache: clients and the gateway may store the body but must revalidate with If-None-Match
+    private static ResponseEntity<?> conditionalResponse(CachedResponse response, HttpServletRequest request) {
+        if (response.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ResponseEntity.status(304)
+                .eTag(response.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(response.getEtag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response.getBody());
+    }
+    
     @GetMapping("/health")
     public String health() {
         return "Product Service is running";
@@ -226,6 +569,81 @@ public class ProductController {
         ));
     }
     
+    @GetMapping("/admin/cache/stats")
+    public ResponseEntity<?> getCacheStats(@RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", productCache.getStats(),
+            "responses", responseCache.getStats()
+        ));
+    }
+    
+    @GetMapping("/admin/popularity")
+    public ResponseEntity<?> getPopularityRun(@RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", popularityScorer.getLastRun()
+        ));
+    }
+    
+    // refresh=true re-explains every known shape in the background, e.g. after adding an index
+    @GetMapping("/admin/query-plans")
+    public ResponseEntity<?> getQueryPlans(
+            @RequestHeader("X-User-Role") String userRole,
+            @RequestParam(defaultValue = "false") boolean problemsOnly,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        if (refresh) {
+            queryPlanAuditor.refresh();
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "indexes", mongoIndexes.getReport(),
+            "queries", queryPlanAuditor.getReport(problemsOnly)
+        ));
+    }
+    
+    // Grows the catalog to count generated products for scale benchmarks; off unless product.synthetic.endpoint-enabled
+    @PostMapping("/admin/synthetic-catalog")
+    public ResponseEntity<?> seedSyntheticCatalog(
+            @RequestHeader("X-User-Role") String userRole,
+            @RequestParam long count) {
+        if (!"ADMIN".equals(userRole) || !syntheticCatalogSeeder.isEndpointEnabled()) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Synthetic catalog loading is not available"
+            ));
+        }
+        try {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", syntheticCatalogSeeder.seed(count)
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<?> getProductStats() {
         return ResponseEntity.ok(Map.of(
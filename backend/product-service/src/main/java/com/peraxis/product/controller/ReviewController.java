@@ -0,0 +1,120 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.entity.Review;
+import com.peraxis.product.service.ReviewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products/{productId}/reviews")
+public class ReviewController {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @GetMapping
+    public ResponseEntity<?> getReviews(
+            @PathVariable String productId,
+            @RequestParam(required = false) Integer rating,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<Review> page = reviewService.getReviews(productId, rating, cursor, size);
+            return ResponseEntity.ok(page.toResponse("reviews"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createReview(
+            @PathVariable String productId,
+            @RequestBody Review review,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader(value = "X-User-Name", required = false) String userName) {
+        try {
+            Review saved = reviewService.createReview(productId, review, userId, userName);
+            if (saved == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Product not found"
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Review added successfully",
+                "review", saved
+            ));
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", "You have already reviewed this product"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PutMapping("/{reviewId}")
+    public ResponseEntity<?> updateReview(
+            @PathVariable String productId,
+            @PathVariable String reviewId,
+            @RequestBody Review review,
+            @RequestHeader("X-User-Id") String userId) {
+        try {
+            Review updated = reviewService.updateReview(productId, reviewId, review, userId);
+            if (updated == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Review not found"
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Review updated successfully",
+                "review", updated
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @DeleteMapping("/{reviewId}")
+    public ResponseEntity<?> deleteReview(
+            @PathVariable String productId,
+            @PathVariable String reviewId,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        try {
+            if (!reviewService.deleteReview(productId, reviewId, userId, userRole)) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Review not found"
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Review deleted successfully"
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
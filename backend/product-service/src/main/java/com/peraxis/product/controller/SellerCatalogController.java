@@ -0,0 +1,96 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.seller.SellerCatalogService;
+import com.peraxis.product.service.ProductFields;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+public class SellerCatalogController {
+
+    @Autowired
+    private SellerCatalogService sellerCatalogService;
+
+    @GetMapping("/sellers/{sellerId}/products")
+    public ResponseEntity<?> getSellerProducts(
+            @PathVariable String sellerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String stockStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!canView(sellerId, userId, userRole)) {
+            return forbidden();
+        }
+        try {
+            // Sellers manage their listings, so a blank fieldset means the full product
+            ProductFields view = fields == null || fields.isBlank() ? ProductFields.FULL : ProductFields.parse(fields);
+            CursorPage<Product> page = sellerCatalogService.findProducts(sellerId, status, stockStatus, cursor, size, view);
+            Map<String, Object> body = page.map(view::render).toResponse("products");
+            if (cursor == null || cursor.isEmpty()) {
+                body.put("stats", sellerCatalogService.getStats(sellerId));
+            }
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/sellers/{sellerId}/stats")
+    public ResponseEntity<?> getSellerStats(
+            @PathVariable String sellerId,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!canView(sellerId, userId, userRole)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "stats", sellerCatalogService.getStats(sellerId)
+        ));
+    }
+
+    @PostMapping("/admin/sellers/recount")
+    public ResponseEntity<?> recountSellerStats(
+            @RequestParam(required = false) String sellerId,
+            @RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        if (sellerId == null || sellerId.isBlank()) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "sellers", sellerCatalogService.recountAll()
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "stats", sellerCatalogService.recount(sellerId)
+        ));
+    }
+
+    private static boolean canView(String sellerId, String userId, String userRole) {
+        return "ADMIN".equals(userRole) || ("SELLER".equals(userRole) && sellerId.equals(userId));
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(403).body(Map.of(
+            "success", false,
+            "message", "Access denied. Sellers can only view their own catalog."
+        ));
+    }
+}
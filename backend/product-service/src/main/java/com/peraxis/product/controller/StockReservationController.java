@@ -0,0 +1,100 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.dto.ReservationRequest;
+import com.peraxis.product.entity.StockReservation;
+import com.peraxis.product.inventory.InsufficientStockException;
+import com.peraxis.product.inventory.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/products/reservations")
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @PostMapping
+    public ResponseEntity<?> reserve(
+            @RequestBody ReservationRequest request,
+            @RequestHeader("X-User-Id") String userId) {
+
+        try {
+            StockReservation reservation = reservationService.reserve(request, userId);
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "reservation", reservation
+            ));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    @PostMapping("/{id}/commit")
+    public ResponseEntity<?> commit(
+            @PathVariable String id,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        return transitionResponse(() -> reservationService.commit(id, userId, userRole));
+    }
+
+    @PostMapping("/{id}/release")
+    public ResponseEntity<?> release(
+            @PathVariable String id,
+            @RequestHeader("X-User-Id") String userId,
+            @RequestHeader("X-User-Role") String userRole) {
+        return transitionResponse(() -> reservationService.release(id, userId, userRole));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(@RequestHeader("X-User-Role") String userRole) {
+        if (!"ADMIN".equals(userRole)) {
+            return ResponseEntity.status(403).body(Map.of(
+                "success", false,
+                "message", "Access denied. Admin role required."
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", reservationService.getStats()
+        ));
+    }
+
+    private ResponseEntity<?> transitionResponse(Supplier<StockReservation> transition) {
+        try {
+            StockReservation reservation = transition.get();
+            if (reservation == null) {
+                return ResponseEntity.status(404).body(Map.of(
+                    "success", false,
+                    "message", "Reservation not found"
+                ));
+            }
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "reservation", reservation
+            ));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
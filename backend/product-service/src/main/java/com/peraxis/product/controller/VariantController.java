@@ -0,0 +1,40 @@
+package com.peraxis.product.controller;
+
+import com.peraxis.product.service.ProductFields;
+import com.peraxis.product.variant.VariantIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products")
+public class VariantController {
+
+    @Autowired
+    private VariantIndex variantIndex;
+
+    // e.g. /variants?name=size&value=M&inStock=true&maxPrice=2000
+    @GetMapping("/variants")
+    public ResponseEntity<?> findVariants(
+            @RequestParam String name,
+            @RequestParam(required = false) String value,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(variantIndex.find(name, value, minPrice, maxPrice, inStock, category,
+                cursor, size, ProductFields.parse(fields)).toResponse("results"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.peraxis.product.dto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+    private final boolean totalExact;
+
+    public CursorPage(List<T> content, String nextCursor, Long totalElements, boolean totalExact) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+        this.totalExact = totalExact;
+    }
+
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+    public Long getTotalElements() { return totalElements; }
+    public boolean isTotalExact() { return totalExact; }
+
+    public <R> CursorPage<R> map(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(content), nextCursor, totalElements, totalExact);
+    }
+
+    // Map.of rejects nulls, and nextCursor/totalElements are optional here
+    public Map<String, Object> toResponse(String contentKey) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", true);
+        body.put(contentKey, content);
+        body.put("nextCursor", nextCursor);
+        body.put("hasNext", hasNext());
+        if (totalElements != null) {
+            body.put("totalElements", totalElements);
+            body.put("totalExact", totalExact);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,23 @@
+package com.peraxis.product.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetedPage<T> {
+    private final List<T> content;
+    private final long totalElements;
+    private final int totalPages;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public FacetedPage(List<T> content, long totalElements, int size, Map<String, Map<String, Integer>> facets) {
+        this.content = content;
+        this.totalElements = totalElements;
+        this.totalPages = size <= 0 ? 1 : (int) Math.ceil((double) totalElements / size);
+        this.facets = facets;
+    }
+
+    public List<T> getContent() { return content; }
+    public long getTotalElements() { return totalElements; }
+    public int getTotalPages() { return totalPages; }
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+}
@@ -0,0 +1,83 @@
+package com.peraxis.product.dto;
+
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.StockLevel;
+
+/**
+ * Card-sized view of a product for grid and rail endpoints. Built from a document
+ * projected down to {@link com.peraxis.product.service.ProductFields#SUMMARY}, so
+ * specifications, variants and media lists are never decoded for listings.
+ */
+public class ProductSummary {
+    private String id;
+    private String name;
+    private String category;
+    private String brand;
+    private Double price;
+    private Double originalPrice;
+    private Double discount;
+    private Double rating;
+    private Integer reviewCount;
+    private String image;
+    private StockLevel stockLevel;
+    private boolean featured;
+    private boolean trending;
+
+    public ProductSummary() {}
+
+    public ProductSummary(Product product) {
+        this.id = product.getId();
+        this.name = product.getName();
+        this.category = product.getCategory();
+        this.brand = product.getBrand();
+        this.price = product.getPrice();
+        this.originalPrice = product.getOriginalPrice();
+        this.discount = product.getDiscount();
+        this.rating = product.getRating();
+        this.reviewCount = product.getReviewCount();
+        this.image = product.getImages() == null || product.getImages().isEmpty() ? null : product.getImages().get(0);
+        this.stockLevel = StockLevel.of(product.getStock(), product.getMinStock());
+        this.featured = product.isFeatured();
+        this.trending = product.isTrending();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public Double getOriginalPrice() { return originalPrice; }
+    public void setOriginalPrice(Double originalPrice) { this.originalPrice = originalPrice; }
+
+    public Double getDiscount() { return discount; }
+    public void setDiscount(Double discount) { this.discount = discount; }
+
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public StockLevel getStockLevel() { return stockLevel; }
+    public void setStockLevel(StockLevel stockLevel) { this.stockLevel = stockLevel; }
+
+    public boolean isFeatured() { return featured; }
+    public void setFeatured(boolean featured) { this.featured = featured; }
+
+    public boolean isTrending() { return trending; }
+    public void setTrending(boolean trending) { this.trending = trending; }
+}
@@ -0,0 +1,20 @@
+package com.peraxis.product.dto;
+
+public class ReservationRequest {
+    private String productId;
+    private String variantName;
+    private String variantValue;
+    private int quantity = 1;
+    
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+    
+    public String getVariantName() { return variantName; }
+    public void setVariantName(String variantName) { this.variantName = variantName; }
+    
+    public String getVariantValue() { return variantValue; }
+    public void setVariantValue(String variantValue) { this.variantValue = variantValue; }
+    
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,67 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A node of the category hierarchy (the {@code categories} table in DATABASE_SCHEMAS.sql).
+ * Products still carry the names: {@code category} is a root and {@code subcategory}
+ * one of its descendants.
+ */
+@Document(collection = "categories")
+@CompoundIndex(name = "slug", def = "{'slug': 1}", unique = true)
+@CompoundIndex(name = "parentId", def = "{'parentId': 1}")
+public class Category {
+    @Id
+    private String id;
+
+    private String name;
+    private String slug;
+    private String description;
+    private String parentId;
+    private String imageUrl;
+    private boolean active = true;
+    private int displayOrder;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public Category() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getSlug() { return slug; }
+    public void setSlug(String slug) { this.slug = slug; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getParentId() { return parentId; }
+    public void setParentId(String parentId) { this.parentId = parentId; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+
+    public int getDisplayOrder() { return displayOrder; }
+    public void setDisplayOrder(int displayOrder) { this.displayOrder = displayOrder; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
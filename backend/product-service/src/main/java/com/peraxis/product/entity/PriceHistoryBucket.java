@@ -0,0 +1,120 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One product's price changes for one calendar month, keyed {@code productId:yyyy-MM}.
+ * The month and per-day low/high/close are maintained as points are appended, so charts
+ * read a handful of small documents instead of the raw series.
+ */
+@Document(collection = "price_history")
+@CompoundIndex(name = "productId_month", def = "{'productId': 1, 'month': -1}")
+public class PriceHistoryBucket {
+    @Id
+    private String id;
+
+    private String productId;
+    private String month;
+
+    private Double open;
+    private Double close;
+    private Double low;
+    private Double high;
+    private int count;
+    private LocalDateTime firstAt;
+    private LocalDateTime lastAt;
+
+    // Keyed by two-digit day of month
+    private Map<String, Day> days;
+    // Most recent raw points only; see product.price-history.max-points-per-bucket
+    private List<Point> points;
+
+    public static String idOf(String productId, String month) {
+        return productId + ":" + month;
+    }
+
+    public static class Day {
+        private Double low;
+        private Double high;
+        private Double close;
+
+        public Double getLow() { return low; }
+        public void setLow(Double low) { this.low = low; }
+
+        public Double getHigh() { return high; }
+        public void setHigh(Double high) { this.high = high; }
+
+        public Double getClose() { return close; }
+        public void setClose(Double close) { this.close = close; }
+    }
+
+    public static class Point {
+        @Field("t")
+        private LocalDateTime at;
+        @Field("p")
+        private Double price;
+        @Field("o")
+        private Double originalPrice;
+
+        public Point() {}
+
+        public Point(LocalDateTime at, Double price, Double originalPrice) {
+            this.at = at;
+            this.price = price;
+            this.originalPrice = originalPrice;
+        }
+
+        public LocalDateTime getAt() { return at; }
+        public void setAt(LocalDateTime at) { this.at = at; }
+
+        public Double getPrice() { return price; }
+        public void setPrice(Double price) { this.price = price; }
+
+        public Double getOriginalPrice() { return originalPrice; }
+        public void setOriginalPrice(Double originalPrice) { this.originalPrice = originalPrice; }
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getMonth() { return month; }
+    public void setMonth(String month) { this.month = month; }
+
+    public Double getOpen() { return open; }
+    public void setOpen(Double open) { this.open = open; }
+
+    public Double getClose() { return close; }
+    public void setClose(Double close) { this.close = close; }
+
+    public Double getLow() { return low; }
+    public void setLow(Double low) { this.low = low; }
+
+    public Double getHigh() { return high; }
+    public void setHigh(Double high) { this.high = high; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+
+    public LocalDateTime getFirstAt() { return firstAt; }
+    public void setFirstAt(LocalDateTime firstAt) { this.firstAt = firstAt; }
+
+    public LocalDateTime getLastAt() { return lastAt; }
+    public void setLastAt(LocalDateTime lastAt) { this.lastAt = lastAt; }
+
+    public Map<String, Day> getDays() { return days; }
+    public void setDays(Map<String, Day> days) { this.days = days; }
+
+    public List<Point> getPoints() { return points; }
+    public void setPoints(List<Point> points) { this.points = points; }
+}
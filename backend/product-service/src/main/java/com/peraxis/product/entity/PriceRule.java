@@ -0,0 +1,39 @@
+package com.peraxis.product.entity;
+
+/**
+ * One rule of a {@link PriceRuleSet}: a selector (every field optional, all given ones
+ * must match) and a discount, either {@code percentOff} or {@code amountOff}.
+ * {@code category} is a category id, slug or name and covers its whole subtree.
+ */
+public class PriceRule {
+    private String brand;
+    private String category;
+    private String sellerId;
+    private Double minPrice;
+    private Double maxPrice;
+
+    private Double percentOff;
+    private Double amountOff;
+
+    // Getters and Setters
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSellerId() { return sellerId; }
+    public void setSellerId(String sellerId) { this.sellerId = sellerId; }
+
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+
+    public Double getPercentOff() { return percentOff; }
+    public void setPercentOff(Double percentOff) { this.percentOff = percentOff; }
+
+    public Double getAmountOff() { return amountOff; }
+    public void setAmountOff(Double amountOff) { this.amountOff = amountOff; }
+}
@@ -0,0 +1,57 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A price a {@link PriceRuleSet} set on one product, with the values it replaced.
+ * {@code _id} is {@code <ruleSetId>:<productId>}. Rollback restores the previous values
+ * only while the product still carries {@code price}, so later manual edits win.
+ */
+@Document(collection = "price_rule_changes")
+@CompoundIndex(name = "ruleSetId", def = "{'ruleSetId': 1}")
+@CompoundIndex(name = "productId", def = "{'productId': 1}")
+public class PriceRuleChange {
+    @Id
+    private String id;
+
+    private String ruleSetId;
+    private String productId;
+    private Double price;
+    private Double previousPrice;
+    private Double previousOriginalPrice;
+    private Double previousDiscount;
+    private LocalDateTime appliedAt;
+
+    public static String idOf(String ruleSetId, String productId) {
+        return ruleSetId + ":" + productId;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getRuleSetId() { return ruleSetId; }
+    public void setRuleSetId(String ruleSetId) { this.ruleSetId = ruleSetId; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public Double getPreviousPrice() { return previousPrice; }
+    public void setPreviousPrice(Double previousPrice) { this.previousPrice = previousPrice; }
+
+    public Double getPreviousOriginalPrice() { return previousOriginalPrice; }
+    public void setPreviousOriginalPrice(Double previousOriginalPrice) { this.previousOriginalPrice = previousOriginalPrice; }
+
+    public Double getPreviousDiscount() { return previousDiscount; }
+    public void setPreviousDiscount(Double previousDiscount) { this.previousDiscount = previousDiscount; }
+
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+    public void setAppliedAt(LocalDateTime appliedAt) { this.appliedAt = appliedAt; }
+}
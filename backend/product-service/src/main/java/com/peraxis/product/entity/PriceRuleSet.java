@@ -0,0 +1,84 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sale event: rules evaluated together over the ACTIVE catalog, where a product
+ * matched by several rules gets the lowest price. Applying records each product's
+ * previous prices as {@link PriceRuleChange}s so the set can be rolled back.
+ */
+@Document(collection = "price_rule_sets")
+public class PriceRuleSet {
+    @Id
+    private String id;
+
+    private String name;
+    private List<PriceRule> rules = new ArrayList<>();
+    private PriceRuleSetStatus status = PriceRuleSetStatus.DRAFT;
+    private String createdBy;
+
+    // Outcome of the last apply or rollback
+    private long matched;
+    private long changed;
+    private long conflicts;
+    private long skipped;
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime appliedAt;
+    private LocalDateTime rolledBackAt;
+    private LocalDateTime updatedAt;
+
+    public PriceRuleSet() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<PriceRule> getRules() { return rules; }
+    public void setRules(List<PriceRule> rules) { this.rules = rules; }
+
+    public PriceRuleSetStatus getStatus() { return status; }
+    public void setStatus(PriceRuleSetStatus status) { this.status = status; }
+
+    public String getCreatedBy() { return createdBy; }
+    public void setCreatedBy(String createdBy) { this.createdBy = createdBy; }
+
+    public long getMatched() { return matched; }
+    public void setMatched(long matched) { this.matched = matched; }
+
+    public long getChanged() { return changed; }
+    public void setChanged(long changed) { this.changed = changed; }
+
+    public long getConflicts() { return conflicts; }
+    public void setConflicts(long conflicts) { this.conflicts = conflicts; }
+
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getAppliedAt() { return appliedAt; }
+    public void setAppliedAt(LocalDateTime appliedAt) { this.appliedAt = appliedAt; }
+
+    public LocalDateTime getRolledBackAt() { return rolledBackAt; }
+    public void setRolledBackAt(LocalDateTime rolledBackAt) { this.rolledBackAt = rolledBackAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,5 @@
+package com.peraxis.product.entity;
+
+public enum PriceRuleSetStatus {
+    DRAFT, APPLYING, APPLIED, ROLLING_BACK, ROLLED_BACK, FAILED
+}
@@ -1,15 +1,44 @@
 package com.peraxis.product.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 // Validation will be handled in service layer
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+// Every public read filters on status, so it leads each compound key. Created and
+// verified at startup by MongoIndexes.
 @Document(collection = "products")
+@CompoundIndex(name = "status_createdAt_id", def = "{'status': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "status_featured", def = "{'status': 1, 'featured': 1}")
+@CompoundIndex(name = "status_trending", def = "{'status': 1, 'trending': 1}")
+@CompoundIndex(name = "status_discount", def = "{'status': 1, 'discount': 1}")
+@CompoundIndex(name = "status_categoryKey", def = "{'status': 1, 'categoryKey': 1}")
+@CompoundIndex(name = "status_categoryKey_subcategoryKey", def = "{'status': 1, 'categoryKey': 1, 'subcategoryKey': 1}")
+@CompoundIndex(name = "status_price", def = "{'status': 1, 'price': 1}")
+@CompoundIndex(name = "status_rating", def = "{'status': 1, 'rating': -1}")
+// Keyset sorts on (field, _id) for the listing sort orders
+@CompoundIndex(name = "status_price_id", def = "{'status': 1, 'price': 1, '_id': 1}")
+@CompoundIndex(name = "status_rating_id", def = "{'status': 1, 'rating': -1, '_id': -1}")
+@CompoundIndex(name = "status_popularity_id", def = "{'status': 1, 'popularity': -1, '_id': -1}")
+@CompoundIndex(name = "category", def = "{'category': 1}")
+@CompoundIndex(name = "categoryKey", def = "{'categoryKey': 1}")
+@CompoundIndex(name = "status_brandKey", def = "{'status': 1, 'brandKey': 1}")
+// Rows changed since a facet snapshot was written
+@CompoundIndex(name = "updatedAt", def = "{'updatedAt': 1}")
+// Seller catalog listing, newest first, with and without a status filter
+@CompoundIndex(name = "sellerId_createdAt_id", def = "{'sellerId': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "sellerId_status_createdAt_id", def = "{'sellerId': 1, 'status': 1, 'createdAt': -1, '_id': -1}")
+// Stock leases of hot SKUs (maintained by StockReservationService, not mapped here), found by expiry
+@CompoundIndex(name = "stockLeases_expiresAt", def = "{'stockLeases.expiresAt': 1}", sparse = true)
+@CompoundIndex(name = "sellerId_sku", def = "{'sellerId': 1, 'sku': 1}", unique = true,
+    partialFilter = "{'sku': {'$type': 'string'}}")
 public class Product {
     @Id
     private String id;
@@ -20,6 +49,10 @@ public class Product {
     private String category;
     private String subcategory;
     private String brand;
+    // Trimmed, lower-case forms for exact filtering; derived from their fields on every write
+    private String categoryKey;
+    private String subcategoryKey;
+    private String brandKey;
     private String sku;
     
     private Double price;
@@ -38,9 +71,16 @@ public class Product {
     private Map<String, Object> specifications;
     private List<ProductVariant> variants;
     private List<String> tags;
+    // Precomputed by RelatedProducts, never written by clients
+    private List<String> relatedProductIds;
     
     private Double rating;
     private Integer reviewCount;
+    // Running review aggregates, maintained with $inc by ReviewService; rating = ratingSum / reviewCount
+    private long ratingSum;
+    private Map<String, Integer> ratingHistogram;
+    // Forward-decayed log score maintained by PopularityScorer; only comparable to other products' scores
+    private Double popularity;
     
     private String sellerId;
     private String sellerName;
@@ -51,6 +91,8 @@ public class Product {
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Incremented by every write; documents written before versioning read as 0
+    private long version;
     
     // Constructors
     public Product() {
@@ -70,13 +112,36 @@ public class Product {
     public void setDescription(String description) { this.description = description; }
     
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) {
+        this.category = category;
+        this.categoryKey = keyOf(category);
+    }
+    
+    @JsonIgnore
+    public String getCategoryKey() { return categoryKey; }
     
     public String getSubcategory() { return subcategory; }
-    public void setSubcategory(String subcategory) { this.subcategory = subcategory; }
+    public void setSubcategory(String subcategory) {
+        this.subcategory = subcategory;
+        this.subcategoryKey = keyOf(subcategory);
+    }
+    
+    @JsonIgnore
+    public String getSubcategoryKey() { return subcategoryKey; }
     
     public String getBrand() { return brand; }
-    public void setBrand(String brand) { this.brand = brand; }
+    public void setBrand(String brand) {
+        this.brand = brand;
+        this.brandKey = keyOf(brand);
+    }
+    
+    @JsonIgnore
+    public String getBrandKey() { return brandKey; }
+    
+    /** The key a category, subcategory or brand is filtered on; blank values have none. */
+    public static String keyOf(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
     
     public String getSku() { return sku; }
     public void setSku(String sku) { this.sku = sku; }
@@ -120,12 +185,24 @@ public class Product {
     public List<String> getTags() { return tags; }
     public void setTags(List<String> tags) { this.tags = tags; }
     
+    public List<String> getRelatedProductIds() { return relatedProductIds; }
+    public void setRelatedProductIds(List<String> relatedProductIds) { this.relatedProductIds = relatedProductIds; }
+    
     public Double getRating() { return rating; }
     public void setRating(Double rating) { this.rating = rating; }
     
     public Integer getReviewCount() { return reviewCount; }
     public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
     
+    public long getRatingSum() { return ratingSum; }
+    public void setRatingSum(long ratingSum) { this.ratingSum = ratingSum; }
+    
+    public Map<String, Integer> getRatingHistogram() { return ratingHistogram; }
+    public void setRatingHistogram(Map<String, Integer> ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+
+    public Double getPopularity() { return popularity; }
+    public void setPopularity(Double popularity) { this.popularity = popularity; }
+    
     public String getSellerId() { return sellerId; }
     public void setSellerId(String sellerId) { this.sellerId = sellerId; }
     
@@ -146,30 +223,7 @@ public class Product {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-}
-
-class ProductVariant {
-    private String name;
-    private String value;
-    private Double price;
-    private Integer stock;
-    private String image;
-    
-    // Getters and Setters
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
     
-    public String getValue() { return value; }
-    public void setValue(String value) { this.value = value; }
-    
-    public Double getPrice() { return price; }
-    public void setPrice(Double price) { this.price = price; }
-    
-    public Integer getStock() { return stock; }
-    public void setStock(Integer stock) { this.stock = stock; }
-    
-    public String getImage() { return image; }
-    public void setImage(String image) { this.image = image; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
-
-
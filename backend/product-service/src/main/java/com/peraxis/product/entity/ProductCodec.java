@@ -0,0 +1,404 @@
+package com.peraxis.product.entity;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Direct BSON codec for {@link Product}, reading fields straight off the wire instead
+ * of going through an intermediate {@link Document} and reflective mapping. The layout
+ * matches what Spring Data writes for the entity: string ids that are valid ObjectIds
+ * are stored as ObjectIds, enums by name, and {@link LocalDateTime} as UTC dates
+ * interpreted in the system zone. Unknown fields are skipped.
+ */
+public class ProductCodec implements Codec<Product> {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final String TYPE_HINT = Product.class.getName();
+
+    private final BsonValueCodec fallback = new BsonValueCodec();
+
+    @Override
+    public Class<Product> getEncoderClass() {
+        return Product.class;
+    }
+
+    @Override
+    public Product decode(BsonReader reader, DecoderContext context) {
+        Product product = new Product();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id": product.setId(readId(reader)); break;
+                case "name": product.setName(readString(reader)); break;
+                case "description": product.setDescription(readString(reader)); break;
+                case "category": product.setCategory(readString(reader)); break;
+                case "subcategory": product.setSubcategory(readString(reader)); break;
+                case "brand": product.setBrand(readString(reader)); break;
+                case "sku": product.setSku(readString(reader)); break;
+                case "price": product.setPrice(readDouble(reader)); break;
+                case "originalPrice": product.setOriginalPrice(readDouble(reader)); break;
+                case "discount": product.setDiscount(readDouble(reader)); break;
+                case "stock": product.setStock(readInteger(reader)); break;
+                case "minStock": product.setMinStock(readInteger(reader)); break;
+                case "stockStatus": product.setStockStatus(readString(reader)); break;
+                case "images": product.setImages(readStrings(reader)); break;
+                case "videos": product.setVideos(readStrings(reader)); break;
+                case "arModel": product.setArModel(readString(reader)); break;
+                case "vrModel": product.setVrModel(readString(reader)); break;
+                case "specifications": product.setSpecifications(readDocument(reader, context)); break;
+                case "variants": product.setVariants(readVariants(reader)); break;
+                case "tags": product.setTags(readStrings(reader)); break;
+                case "relatedProductIds": product.setRelatedProductIds(readStrings(reader)); break;
+                case "rating": product.setRating(readDouble(reader)); break;
+                case "reviewCount": product.setReviewCount(readInteger(reader)); break;
+                case "ratingSum": product.setRatingSum(readLong(reader)); break;
+                case "ratingHistogram": product.setRatingHistogram(readCounts(reader)); break;
+                case "popularity": product.setPopularity(readDouble(reader)); break;
+                case "sellerId": product.setSellerId(readString(reader)); break;
+                case "sellerName": product.setSellerName(readString(reader)); break;
+                case "status": {
+                    String status = readString(reader);
+                    product.setStatus(status == null ? null : ProductStatus.valueOf(status));
+                    break;
+                }
+                case "featured": product.setFeatured(readBoolean(reader)); break;
+                case "trending": product.setTrending(readBoolean(reader)); break;
+                case "createdAt": product.setCreatedAt(readDateTime(reader)); break;
+                case "updatedAt": product.setUpdatedAt(readDateTime(reader)); break;
+                case "version": product.setVersion(readLong(reader)); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return product;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Product product, EncoderContext context) {
+        writer.writeStartDocument();
+        if (product.getId() != null) {
+            writer.writeName("_id");
+            if (ObjectId.isValid(product.getId())) {
+                writer.writeObjectId(new ObjectId(product.getId()));
+            } else {
+                writer.writeString(product.getId());
+            }
+        }
+        writeString(writer, "name", product.getName());
+        writeString(writer, "description", product.getDescription());
+        writeString(writer, "category", product.getCategory());
+        writeString(writer, "subcategory", product.getSubcategory());
+        writeString(writer, "brand", product.getBrand());
+        writeString(writer, "sku", product.getSku());
+        writeDouble(writer, "price", product.getPrice());
+        writeDouble(writer, "originalPrice", product.getOriginalPrice());
+        writeDouble(writer, "discount", product.getDiscount());
+        writeInteger(writer, "stock", product.getStock());
+        writeInteger(writer, "minStock", product.getMinStock());
+        writeString(writer, "stockStatus", product.getStockStatus());
+        writeStrings(writer, "images", product.getImages());
+        writeStrings(writer, "videos", product.getVideos());
+        writeString(writer, "arModel", product.getArModel());
+        writeString(writer, "vrModel", product.getVrModel());
+        if (product.getSpecifications() != null) {
+            writer.writeName("specifications");
+            writeValue(writer, product.getSpecifications());
+        }
+        if (product.getVariants() != null) {
+            writer.writeStartArray("variants");
+            for (ProductVariant variant : product.getVariants()) {
+                writer.writeStartDocument();
+                writeString(writer, "name", variant.getName());
+                writeString(writer, "value", variant.getValue());
+                writeDouble(writer, "price", variant.getPrice());
+                writeInteger(writer, "stock", variant.getStock());
+                writeString(writer, "image", variant.getImage());
+                writer.writeEndDocument();
+            }
+            writer.writeEndArray();
+        }
+        writeStrings(writer, "tags", product.getTags());
+        writeStrings(writer, "relatedProductIds", product.getRelatedProductIds());
+        writeDouble(writer, "rating", product.getRating());
+        writeInteger(writer, "reviewCount", product.getReviewCount());
+        writer.writeInt64("ratingSum", product.getRatingSum());
+        if (product.getRatingHistogram() != null) {
+            writer.writeStartDocument("ratingHistogram");
+            product.getRatingHistogram().forEach((star, count) -> writeInteger(writer, star, count));
+            writer.writeEndDocument();
+        }
+        writeDouble(writer, "popularity", product.getPopularity());
+        writeString(writer, "sellerId", product.getSellerId());
+        writeString(writer, "sellerName", product.getSellerName());
+        writeString(writer, "status", product.getStatus() == null ? null : product.getStatus().name());
+        writer.writeBoolean("featured", product.isFeatured());
+        writer.writeBoolean("trending", product.isTrending());
+        writeDateTime(writer, "createdAt", product.getCreatedAt());
+        writeDateTime(writer, "updatedAt", product.getUpdatedAt());
+        writer.writeInt64("version", product.getVersion());
+        writer.writeString("_class", TYPE_HINT);
+        writer.writeEndDocument();
+    }
+
+    private static String readId(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.OBJECT_ID
+            ? reader.readObjectId().toHexString()
+            : readString(reader);
+    }
+
+    private static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.STRING) {
+            reader.skipValue();
+            return null;
+        }
+        return reader.readString();
+    }
+
+    private static boolean readBoolean(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.BOOLEAN) {
+            reader.skipValue();
+            return false;
+        }
+        return reader.readBoolean();
+    }
+
+    private static Double readDouble(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case DOUBLE: return reader.readDouble();
+            case INT32: return (double) reader.readInt32();
+            case INT64: return (double) reader.readInt64();
+            case DECIMAL128: return reader.readDecimal128().doubleValue();
+            default: reader.skipValue(); return null;
+        }
+    }
+
+    private static Integer readInteger(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32: return reader.readInt32();
+            case INT64: return (int) reader.readInt64();
+            case DOUBLE: return (int) reader.readDouble();
+            default: reader.skipValue(); return null;
+        }
+    }
+
+    private static long readLong(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT64: return reader.readInt64();
+            case INT32: return reader.readInt32();
+            case DOUBLE: return (long) reader.readDouble();
+            default: reader.skipValue(); return 0;
+        }
+    }
+
+    private static Map<String, Integer> readCounts(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            counts.put(name, readInteger(reader));
+        }
+        reader.readEndDocument();
+        return counts;
+    }
+
+    private static LocalDateTime readDateTime(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DATE_TIME) {
+            reader.skipValue();
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZONE);
+    }
+
+    private static List<String> readStrings(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    private static List<ProductVariant> readVariants(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<ProductVariant> variants = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+            ProductVariant variant = new ProductVariant();
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                if (reader.getCurrentBsonType() == BsonType.NULL) {
+                    reader.readNull();
+                    continue;
+                }
+                switch (name) {
+                    case "name": variant.setName(readString(reader)); break;
+                    case "value": variant.setValue(readString(reader)); break;
+                    case "price": variant.setPrice(readDouble(reader)); break;
+                    case "stock": variant.setStock(readInteger(reader)); break;
+                    case "image": variant.setImage(readString(reader)); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            variants.add(variant);
+        }
+        reader.readEndArray();
+        return variants;
+    }
+
+    // Free-form values decode to the same Java types the mapping converter uses for Object
+    private Document readDocument(BsonReader reader, DecoderContext context) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        Document document = new Document();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            document.put(reader.readName(), readValue(reader, context));
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    private Object readValue(BsonReader reader, DecoderContext context) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING: return reader.readString();
+            case INT32: return reader.readInt32();
+            case INT64: return reader.readInt64();
+            case DOUBLE: return reader.readDouble();
+            case BOOLEAN: return reader.readBoolean();
+            case DATE_TIME: return new Date(reader.readDateTime());
+            case OBJECT_ID: return reader.readObjectId();
+            case DECIMAL128: return reader.readDecimal128().bigDecimalValue();
+            case NULL: reader.readNull(); return null;
+            case DOCUMENT: return readDocument(reader, context);
+            case ARRAY: {
+                List<Object> values = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    values.add(readValue(reader, context));
+                }
+                reader.readEndArray();
+                return values;
+            }
+            default: return fallback.decode(reader, context);
+        }
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static void writeDouble(BsonWriter writer, String name, Double value) {
+        if (value != null) {
+            writer.writeDouble(name, value);
+        }
+    }
+
+    private static void writeInteger(BsonWriter writer, String name, Integer value) {
+        if (value != null) {
+            writer.writeInt32(name, value);
+        }
+    }
+
+    private static void writeDateTime(BsonWriter writer, String name, LocalDateTime value) {
+        if (value != null) {
+            writer.writeDateTime(name, value.atZone(ZONE).toInstant().toEpochMilli());
+        }
+    }
+
+    private static void writeStrings(BsonWriter writer, String name, List<String> values) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            for (String value : values) {
+                if (value == null) {
+                    writer.writeNull();
+                } else {
+                    writer.writeString(value);
+                }
+            }
+            writer.writeEndArray();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(BsonWriter writer, Object value) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof String) {
+            writer.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writer.writeInt32(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writer.writeInt64((Long) value);
+        } else if (value instanceof Number && !(value instanceof BigDecimal)) {
+            writer.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal) {
+            writer.writeDecimal128(new Decimal128((BigDecimal) value));
+        } else if (value instanceof Boolean) {
+            writer.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            writer.writeDateTime(((Date) value).getTime());
+        } else if (value instanceof ObjectId) {
+            writer.writeObjectId((ObjectId) value);
+        } else if (value instanceof Map) {
+            writer.writeStartDocument();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                writer.writeName(entry.getKey());
+                writeValue(writer, entry.getValue());
+            }
+            writer.writeEndDocument();
+        } else if (value instanceof Iterable) {
+            writer.writeStartArray();
+            for (Object element : (Iterable<Object>) value) {
+                writeValue(writer, element);
+            }
+            writer.writeEndArray();
+        } else {
+            writer.writeString(value.toString());
+        }
+    }
+}
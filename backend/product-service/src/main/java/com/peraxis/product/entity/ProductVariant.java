@@ -0,0 +1,25 @@
+package com.peraxis.product.entity;
+
+public class ProductVariant {
+    private String name;
+    private String value;
+    private Double price;
+    private Integer stock;
+    private String image;
+    
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+    
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+    
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+}
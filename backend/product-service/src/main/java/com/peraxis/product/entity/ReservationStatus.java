@@ -0,0 +1,5 @@
+package com.peraxis.product.entity;
+
+public enum ReservationStatus {
+    HELD, COMMITTED, RELEASED, EXPIRED
+}
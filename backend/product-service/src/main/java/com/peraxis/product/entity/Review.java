@@ -0,0 +1,63 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A customer review. The product carries the running aggregates, so reviews are only
+ * read when listed, newest first, a page at a time.
+ */
+@Document(collection = "reviews")
+@CompoundIndex(name = "productId_userId", def = "{'productId': 1, 'userId': 1}", unique = true)
+@CompoundIndex(name = "productId_createdAt_id", def = "{'productId': 1, 'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "productId_rating_createdAt_id", def = "{'productId': 1, 'rating': 1, 'createdAt': -1, '_id': -1}")
+public class Review {
+    @Id
+    private String id;
+
+    private String productId;
+    private String userId;
+    private String userName;
+    private int rating;
+    private String title;
+    private String comment;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public Review() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public int getRating() { return rating; }
+    public void setRating(int rating) { this.rating = rating; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
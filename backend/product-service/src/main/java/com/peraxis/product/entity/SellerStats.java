@@ -0,0 +1,46 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-seller product counters, keyed by seller id and kept current with {@code $inc}
+ * on every product write. {@code statuses} counts products by {@link ProductStatus};
+ * {@code stockLevels} counts ACTIVE products by {@link StockLevel}, the stock buyers see.
+ */
+@Document(collection = "seller_stats")
+public class SellerStats {
+    @Id
+    private String sellerId;
+
+    private long total;
+    private Map<String, Long> statuses = new LinkedHashMap<>();
+    private Map<String, Long> stockLevels = new LinkedHashMap<>();
+
+    private LocalDateTime updatedAt;
+    // Last full recount, null when the counters were only ever incremented
+    private LocalDateTime recountedAt;
+
+    // Getters and Setters
+    public String getSellerId() { return sellerId; }
+    public void setSellerId(String sellerId) { this.sellerId = sellerId; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public Map<String, Long> getStatuses() { return statuses; }
+    public void setStatuses(Map<String, Long> statuses) { this.statuses = statuses; }
+
+    public Map<String, Long> getStockLevels() { return stockLevels; }
+    public void setStockLevels(Map<String, Long> stockLevels) { this.stockLevels = stockLevels; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public LocalDateTime getRecountedAt() { return recountedAt; }
+    public void setRecountedAt(LocalDateTime recountedAt) { this.recountedAt = recountedAt; }
+}
@@ -0,0 +1,12 @@
+package com.peraxis.product.entity;
+
+public enum StockLevel {
+    IN_STOCK, LOW_STOCK, OUT_OF_STOCK;
+
+    // A missing stock figure is treated as nothing to sell
+    public static StockLevel of(Integer stock, Integer minStock) {
+        if (stock == null || stock <= 0) return OUT_OF_STOCK;
+        if (minStock != null && stock <= minStock) return LOW_STOCK;
+        return IN_STOCK;
+    }
+}
@@ -0,0 +1,90 @@
+package com.peraxis.product.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One {@link ProductVariant} flattened out of its product, so variant-level filters
+ * ("size M, in stock, under 2000") run on an index instead of loading products.
+ * Maintained by VariantIndex; {@code price} is the variant's own price or, when it has
+ * none, the product's. {@code nameKey}/{@code valueKey} and the category keys are the
+ * trimmed lower-case forms that queries match on.
+ */
+@Document(collection = "product_variants")
+@CompoundIndex(name = "productId_name_value", def = "{'productId': 1, 'name': 1, 'value': 1}", unique = true)
+@CompoundIndex(name = "status_nameKey_valueKey_price_id",
+    def = "{'status': 1, 'nameKey': 1, 'valueKey': 1, 'price': 1, '_id': 1}")
+// Without a value filter the cheapest-first order must come straight off the index too
+@CompoundIndex(name = "status_nameKey_price_id", def = "{'status': 1, 'nameKey': 1, 'price': 1, '_id': 1}")
+public class VariantEntry {
+    @Id
+    private String id;
+
+    private String productId;
+    private String name;
+    private String value;
+    private String nameKey;
+    private String valueKey;
+
+    private Double price;
+    private Integer stock;
+    private String image;
+
+    // Copied from the product for filtering
+    private ProductStatus status;
+    private String category;
+    private String subcategory;
+    private String categoryKey;
+    private String subcategoryKey;
+
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public String getNameKey() { return nameKey; }
+    public void setNameKey(String nameKey) { this.nameKey = nameKey; }
+
+    public String getValueKey() { return valueKey; }
+    public void setValueKey(String valueKey) { this.valueKey = valueKey; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public ProductStatus getStatus() { return status; }
+    public void setStatus(ProductStatus status) { this.status = status; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getSubcategory() { return subcategory; }
+    public void setSubcategory(String subcategory) { this.subcategory = subcategory; }
+
+    public String getCategoryKey() { return categoryKey; }
+    public void setCategoryKey(String categoryKey) { this.categoryKey = categoryKey; }
+
+    public String getSubcategoryKey() { return subcategoryKey; }
+    public void setSubcategoryKey(String subcategoryKey) { this.subcategoryKey = subcategoryKey; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
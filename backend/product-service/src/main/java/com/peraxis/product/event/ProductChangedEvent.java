@@ -0,0 +1,25 @@
+package com.peraxis.product.event;
+
+import com.peraxis.product.entity.Product;
+
+/**
+ * Published in-process after a product write. Carries both versions so listeners
+ * maintaining derived state can retract the old entry and apply the new one;
+ * {@code previous} is null on create and {@code current} is null on delete.
+ */
+public class ProductChangedEvent {
+    private final String productId;
+    private final Product previous;
+    private final Product current;
+
+    public ProductChangedEvent(String productId, Product previous, Product current) {
+        this.productId = productId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public String getProductId() { return productId; }
+    public Product getPrevious() { return previous; }
+    public Product getCurrent() { return current; }
+    public boolean isDelete() { return current == null; }
+}
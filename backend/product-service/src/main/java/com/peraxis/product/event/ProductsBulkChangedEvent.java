@@ -0,0 +1,25 @@
+package com.peraxis.product.event;
+
+import java.util.Collection;
+
+/**
+ * Published after a bulk write (e.g. a catalog import) touched many products at once.
+ * Listeners that cannot apply per-product deltas should treat it as "refresh".
+ */
+public class ProductsBulkChangedEvent {
+    private final Collection<String> productIds;
+    // The publisher already recorded the price changes in the price history
+    private final boolean priceHistoryRecorded;
+
+    public ProductsBulkChangedEvent(Collection<String> productIds) {
+        this(productIds, false);
+    }
+
+    public ProductsBulkChangedEvent(Collection<String> productIds, boolean priceHistoryRecorded) {
+        this.productIds = productIds;
+        this.priceHistoryRecorded = priceHistoryRecorded;
+    }
+
+    public Collection<String> getProductIds() { return productIds; }
+    public boolean isPriceHistoryRecorded() { return priceHistoryRecorded; }
+}
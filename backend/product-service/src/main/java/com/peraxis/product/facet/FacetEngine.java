@@ -0,0 +1,350 @@
+package com.peraxis.product.facet;
+
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.entity.StockLevel;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Owns the current {@link FacetIndex}. The index is rebuilt off the request path from a
+ * projected scan of ACTIVE products and published with a single volatile write; until
+ * the first build completes {@link #isReady()} is false and callers fall back to Mongo.
+ *
+ * A single-product write does not trigger a scan: its {@link ProductChangedEvent} is
+ * queued, and after {@code apply-delay-ms} the queued products are applied to the current
+ * index as one {@link FacetIndex#withChanges} batch. Full rebuilds run only on the
+ * periodic schedule and for bulk writes. Every index transition runs on the one scheduler
+ * thread, so a batch never races a rebuild.
+ *
+ * The index is also written to a local {@link FacetSnapshot} on a schedule and at
+ * shutdown. A restart maps that file and serves from it immediately, then reconciles in
+ * the background: rows updated since the snapshot are re-read and rows no longer ACTIVE
+ * are dropped. Changes that do not move {@code updatedAt} (ratings, popularity) wait for
+ * the next periodic rebuild, as they would without a snapshot.
+ */
+@Component
+public class FacetEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetEngine.class);
+
+    private static final String[] FACET_FIELDS = {
+        "category", "subcategory", "brand", "price", "rating", "stock", "minStock", "createdAt", "popularity", "updatedAt"
+    };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Value("${product.facets.refresh-interval-seconds:300}")
+    private long refreshIntervalSeconds;
+
+    @Value("${product.facets.rebuild-delay-ms:2000}")
+    private long rebuildDelayMs;
+
+    @Value("${product.facets.apply-delay-ms:200}")
+    private long applyDelayMs;
+
+    // Blank disables snapshots
+    @Value("${product.facets.snapshot.path:}")
+    private String snapshotPath;
+
+    @Value("${product.facets.snapshot.interval-seconds:600}")
+    private long snapshotIntervalSeconds;
+
+    // Margin for clock skew between replicas when picking rows changed since the snapshot
+    @Value("${product.facets.snapshot.reconcile-overlap-seconds:60}")
+    private long reconcileOverlapSeconds;
+
+    @Value("${product.facets.snapshot.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    // Latest change per product id, waiting for the next batch
+    private final Map<String, ProductChangedEvent> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicBoolean applyPending = new AtomicBoolean();
+    private volatile FacetIndex index;
+    private volatile FacetIndex snapshotted;
+    private volatile FacetSnapshot restored;
+    // Scheduler thread only: full rebuilds published, and the batches applied to a restored
+    // index before it is reconciled, which the reconciled index replays
+    private long rebuilds;
+    private final Map<String, Product> appliedSinceRestore = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        restoreSnapshot();
+        scheduler.scheduleWithFixedDelay(this::rebuild,
+            refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+        if (!snapshotPath.isBlank()) {
+            scheduler.scheduleWithFixedDelay(this::writeSnapshot,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        writeSnapshot();
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    public FacetResult search(FacetQuery query, int offset, int limit) {
+        FacetIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Facet index is not built yet");
+        }
+        return current.search(query, categoryService.current(), offset, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (restored != null) {
+            scheduler.execute(this::reconcile);
+        } else {
+            requestRebuild();
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isDelete() && event.getPrevious() != null
+                && signature(event.getPrevious()).equals(signature(event.getCurrent()))) {
+            return;
+        }
+        pendingChanges.merge(event.getProductId(), event, FacetEngine::later);
+        requestApply();
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        requestRebuild();
+    }
+
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::rebuild, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void requestApply() {
+        if (applyPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::applyPending, applyDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void applyPending() {
+        applyPending.set(false);
+        FacetIndex current = index;
+        if (current == null) {
+            // Left queued; the first build re-applies them when it is published
+            return;
+        }
+        Map<String, Product> changes = new HashMap<>();
+        for (String id : new ArrayList<>(pendingChanges.keySet())) {
+            ProductChangedEvent event = pendingChanges.remove(id);
+            if (event != null) {
+                Product product = event.getCurrent();
+                changes.put(id, product != null && product.getStatus() == ProductStatus.ACTIVE ? product : null);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            FacetIndex next = current.withChanges(changes);
+            // Retracted rows stay behind as dead ordinals; repack once they are a quarter of the live ones
+            if (next.rows() - next.size() > next.size() / 4) {
+                next = next.compacted();
+            }
+            index = next;
+            if (restored != null) {
+                appliedSinceRestore.putAll(changes);
+            }
+        } catch (Exception e) {
+            logger.error("Could not apply {} product changes to the facet index, rebuilding", changes.size(), e);
+            requestRebuild();
+        }
+    }
+
+    // Within a batch the newer version wins; a delete wins over anything
+    private static ProductChangedEvent later(ProductChangedEvent queued, ProductChangedEvent next) {
+        if (queued.isDelete()) {
+            return queued;
+        }
+        return next.isDelete() || next.getCurrent().getVersion() >= queued.getCurrent().getVersion() ? next : queued;
+    }
+
+    // The fields the index holds, apart from updatedAt; writes that change none of them are skipped
+    private static List<Object> signature(Product product) {
+        return Arrays.asList(product.getStatus(), product.getCategory(), product.getSubcategory(), product.getBrand(),
+            StockLevel.of(product.getStock(), product.getMinStock()), product.getPrice(), product.getRating(),
+            product.getCreatedAt(), product.getPopularity());
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        try {
+            long started = System.currentTimeMillis();
+            Query query = new Query(Criteria.where("status").is("ACTIVE"));
+            query.fields().include(FACET_FIELDS);
+            FacetIndex.Builder builder = new FacetIndex.Builder();
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                products.forEach(builder::add);
+            }
+            FacetIndex next = builder.build();
+            index = next;
+            rebuilds++;
+            // Changes queued during the scan may postdate what it read
+            if (!pendingChanges.isEmpty()) {
+                requestApply();
+            }
+            logger.info("Facet index rebuilt with {} products in {} ms", next.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Facet index rebuild failed, keeping previous index", e);
+        }
+    }
+
+    private void restoreSnapshot() {
+        if (snapshotPath.isBlank() || !Files.exists(Paths.get(snapshotPath))) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            FacetSnapshot snapshot = FacetSnapshot.read(Paths.get(snapshotPath));
+            index = snapshot.getIndex();
+            snapshotted = index;
+            restored = snapshot;
+            logger.info("Facet index restored from snapshot with {} products in {} ms (written {} s ago)",
+                index.size(), System.currentTimeMillis() - started,
+                (System.currentTimeMillis() - snapshot.getWrittenAt()) / 1000);
+        } catch (Exception e) {
+            logger.warn("Could not restore facet snapshot {}, building from Mongo", snapshotPath, e);
+        }
+    }
+
+    // Brings a restored index up to date with a scan of ACTIVE ids and a read of the rows
+    // changed since the snapshot, instead of a full projected scan
+    private void reconcile() {
+        FacetSnapshot snapshot = restored;
+        restored = null;
+        Map<String, Product> applied = new HashMap<>(appliedSinceRestore);
+        appliedSinceRestore.clear();
+        if (rebuilds > 0) {
+            // A full rebuild since the restore is already fresher than the snapshot
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            FacetIndex base = snapshot.getIndex();
+            long since = base.maxUpdatedAt() - reconcileOverlapSeconds * 1000;
+
+            Set<String> active = new HashSet<>();
+            Query activeIds = new Query(Criteria.where("status").is("ACTIVE"));
+            activeIds.fields().include("_id");
+            try (Stream<Product> products = mongoTemplate.stream(activeIds, Product.class)) {
+                products.forEach(product -> active.add(product.getId()));
+            }
+
+            Query changedQuery = new Query(Criteria.where("updatedAt")
+                .gt(LocalDateTime.ofEpochSecond(Math.floorDiv(since, 1000), 0, ZoneOffset.UTC)));
+            changedQuery.fields().include("status", "updatedAt").include(FACET_FIELDS);
+            Map<String, Product> changed = new HashMap<>();
+            try (Stream<Product> products = mongoTemplate.stream(changedQuery, Product.class)) {
+                products.forEach(product -> changed.put(product.getId(), product));
+            }
+
+            FacetIndex.Builder builder = new FacetIndex.Builder();
+            Set<String> added = new HashSet<>();
+            for (int i = 0; i < base.rows(); i++) {
+                String id = base.id(i);
+                if (base.isLive(i) && active.contains(id) && !changed.containsKey(id) && added.add(id)) {
+                    builder.copy(base, i);
+                }
+            }
+            for (Product product : changed.values()) {
+                if (product.getStatus() == ProductStatus.ACTIVE && added.add(product.getId())) {
+                    builder.add(product);
+                }
+            }
+            // ACTIVE products the snapshot missed without a newer updatedAt, e.g. rows without one
+            List<String> missing = new ArrayList<>();
+            for (String id : active) {
+                if (!added.contains(id)) missing.add(id);
+            }
+            for (int from = 0; from < missing.size(); from += reconcileBatchSize) {
+                Query query = new Query(Criteria.where("_id").in(missing.subList(from, Math.min(missing.size(), from + reconcileBatchSize)))
+                    .and("status").is("ACTIVE"));
+                query.fields().include(FACET_FIELDS);
+                mongoTemplate.find(query, Product.class).forEach(builder::add);
+            }
+
+            // Batches applied to the restored index are replayed; later writes are still queued
+            FacetIndex next = builder.build();
+            if (!applied.isEmpty()) {
+                next = next.withChanges(applied);
+            }
+            index = next;
+            logger.info("Facet index reconciled: {} changed, {} missing, {} products in {} ms",
+                changed.size(), missing.size(), next.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Facet snapshot reconcile failed, rebuilding from Mongo", e);
+            rebuild();
+        }
+    }
+
+    private void writeSnapshot() {
+        FacetIndex current = index;
+        if (snapshotPath.isBlank() || current == null || current == snapshotted) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Path file = Paths.get(snapshotPath);
+            FacetSnapshot.write(current, file);
+            snapshotted = current;
+            logger.info("Facet snapshot written with {} products ({} bytes) in {} ms",
+                current.size(), Files.size(file), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.warn("Could not write facet snapshot {}", snapshotPath, e);
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package com.peraxis.product.facet;
+
+import com.peraxis.product.category.CategoryTree;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.StockLevel;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory index over ACTIVE products. Each product gets a dense ordinal;
+ * every facet value owns a bitmap of ordinals, and price is kept as an ordinal
+ * permutation sorted by price so a range becomes two binary searches. A filter is the
+ * AND of per-dimension ORs; facet counts for a dimension are taken against the other
+ * dimensions' filters only, so multi-select facets keep showing their alternatives.
+ * Category filters select whole subtrees of the {@link CategoryTree}, the same way
+ * {@link CategoryTree#subtreeCriteria} does in Mongo, through per-subcategory postings.
+ *
+ * {@link #withChanges} derives the next index from a batch of single-product changes
+ * without a rebuild: a changed row is retracted from its postings and appended under a
+ * new ordinal, copying only the postings it touches. Retracted ordinals stay as dead
+ * rows until the next full build or {@link #compacted()}.
+ */
+final class FacetIndex {
+
+    private static final int MAX_FACET_VALUES = 50;
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+
+    private final String[] ids;
+    private final double[] prices;
+    private final double[] ratings;
+    private final long[] createdAt;
+    private final double[] popularity;
+    private final long[] updatedAt;
+    // Ordinals still in the index; retracted rows are cleared here and in every posting
+    private final BitSet live;
+    private final int liveCount;
+    // Per-ordinal facet values, so a row can be carried into the next index unchanged
+    private final String[] categoryOf;
+    private final String[] subcategoryOf;
+    private final String[] brandOf;
+    private final StockLevel[] stockOf;
+    private final Map<String, BitSet> categories;
+    private final Map<String, String> categoryLabels;
+    // Keyed by pairKey(category, subcategory), labelled with the subcategory
+    private final Map<String, BitSet> subcategories;
+    private final Map<String, String> subcategoryLabels;
+    private final Map<String, BitSet> brands;
+    private final Map<String, String> brandLabels;
+    private final Map<String, BitSet> stockStatuses;
+    // ratingBuckets[b] holds products with floor(rating) == b
+    private final BitSet[] ratingBuckets;
+    // Ordinals by ascending price; the first pricedCount entries have a price
+    private final int[] byPrice;
+    private final double[] sortedPrices;
+    private final int pricedCount;
+    private final int[] byRating;
+    private final int[] byNewest;
+    private final int[] byPopularity;
+
+    private FacetIndex(String[] ids, double[] prices, double[] ratings, long[] createdAt, double[] popularity,
+                       long[] updatedAt, BitSet live, String[] categoryOf, String[] subcategoryOf, String[] brandOf,
+                       StockLevel[] stockOf, Map<String, BitSet> categories, Map<String, String> categoryLabels,
+                       Map<String, BitSet> subcategories, Map<String, String> subcategoryLabels,
+                       Map<String, BitSet> brands, Map<String, String> brandLabels,
+                       Map<String, BitSet> stockStatuses, BitSet[] ratingBuckets,
+                       int[] byPrice, int[] byRating, int[] byNewest, int[] byPopularity) {
+        this.ids = ids;
+        this.prices = prices;
+        this.ratings = ratings;
+        this.createdAt = createdAt;
+        this.popularity = popularity;
+        this.updatedAt = updatedAt;
+        this.live = live;
+        this.liveCount = live.cardinality();
+        this.categoryOf = categoryOf;
+        this.subcategoryOf = subcategoryOf;
+        this.brandOf = brandOf;
+        this.stockOf = stockOf;
+        this.categories = categories;
+        this.categoryLabels = categoryLabels;
+        this.subcategories = subcategories;
+        this.subcategoryLabels = subcategoryLabels;
+        this.brands = brands;
+        this.brandLabels = brandLabels;
+        this.stockStatuses = stockStatuses;
+        this.ratingBuckets = ratingBuckets;
+        this.byPrice = byPrice;
+        this.byRating = byRating;
+        this.byNewest = byNewest;
+        this.byPopularity = byPopularity;
+
+        int priced = 0;
+        while (priced < byPrice.length && !Double.isNaN(prices[byPrice[priced]])) {
+            priced++;
+        }
+        this.pricedCount = priced;
+        this.sortedPrices = new double[priced];
+        for (int i = 0; i < priced; i++) {
+            sortedPrices[i] = prices[byPrice[i]];
+        }
+    }
+
+    /** Live products in the index. */
+    int size() { return liveCount; }
+
+    /** Ordinals in use, including dead rows; equals {@link #size()} for a compacted index. */
+    int rows() { return ids.length; }
+
+    boolean isLive(int ordinal) { return live.get(ordinal); }
+
+    String id(int ordinal) { return ids[ordinal]; }
+
+    /** Latest {@code updatedAt} in the index, as UTC epoch millis; 0 when empty. */
+    long maxUpdatedAt() {
+        long max = 0;
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            max = Math.max(max, updatedAt[i]);
+        }
+        return max;
+    }
+
+    /**
+     * The index with {@code changes} applied: each key is a product id and its value the
+     * product to index, or null to drop it (deleted, or no longer ACTIVE). Only the
+     * postings of the retracted and appended rows are copied; the sort orders are merged
+     * rather than re-sorted.
+     */
+    FacetIndex withChanges(Map<String, Product> changes) {
+        BitSet retracted = new BitSet(ids.length);
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            if (changes.containsKey(ids[i])) retracted.set(i);
+        }
+        // Converts the appended rows exactly as a full build would
+        Builder added = new Builder();
+        for (Product product : changes.values()) {
+            if (product != null) added.add(product);
+        }
+        if (retracted.isEmpty() && added.ids.isEmpty()) {
+            return this;
+        }
+
+        int size = ids.length + added.ids.size();
+        String[] nextIds = Arrays.copyOf(ids, size);
+        double[] nextPrices = Arrays.copyOf(prices, size);
+        double[] nextRatings = Arrays.copyOf(ratings, size);
+        long[] nextCreatedAt = Arrays.copyOf(createdAt, size);
+        double[] nextPopularity = Arrays.copyOf(popularity, size);
+        long[] nextUpdatedAt = Arrays.copyOf(updatedAt, size);
+        String[] nextCategoryOf = Arrays.copyOf(categoryOf, size);
+        String[] nextSubcategoryOf = Arrays.copyOf(subcategoryOf, size);
+        String[] nextBrandOf = Arrays.copyOf(brandOf, size);
+        StockLevel[] nextStockOf = Arrays.copyOf(stockOf, size);
+        BitSet nextLive = (BitSet) live.clone();
+        Postings nextCategories = new Postings(categories, categoryLabels);
+        Postings nextSubcategories = new Postings(subcategories, subcategoryLabels);
+        Postings nextBrands = new Postings(brands, brandLabels);
+        Postings nextStock = new Postings(stockStatuses, null);
+        BitSet[] nextBuckets = ratingBuckets.clone();
+        boolean[] bucketCopied = new boolean[nextBuckets.length];
+
+        for (int i = retracted.nextSetBit(0); i >= 0; i = retracted.nextSetBit(i + 1)) {
+            nextLive.clear(i);
+            nextCategories.remove(keyOf(categoryOf[i]), i);
+            nextSubcategories.remove(pairKey(categoryOf[i], subcategoryOf[i]), i);
+            nextBrands.remove(keyOf(brandOf[i]), i);
+            nextStock.remove(stockOf[i].name(), i);
+            if (!Double.isNaN(ratings[i])) {
+                int bucket = bucketOf(ratings[i]);
+                if (!bucketCopied[bucket]) {
+                    nextBuckets[bucket] = (BitSet) nextBuckets[bucket].clone();
+                    bucketCopied[bucket] = true;
+                }
+                nextBuckets[bucket].clear(i);
+            }
+        }
+        int[] appended = new int[added.ids.size()];
+        for (int k = 0; k < appended.length; k++) {
+            int ordinal = ids.length + k;
+            appended[k] = ordinal;
+            nextIds[ordinal] = added.ids.get(k);
+            nextPrices[ordinal] = added.prices[k];
+            nextRatings[ordinal] = added.ratings[k];
+            nextCreatedAt[ordinal] = added.createdAt[k];
+            nextPopularity[ordinal] = added.popularity[k];
+            nextUpdatedAt[ordinal] = added.updatedAt[k];
+            nextCategoryOf[ordinal] = added.categoryOf[k];
+            nextSubcategoryOf[ordinal] = added.subcategoryOf[k];
+            nextBrandOf[ordinal] = added.brandOf[k];
+            nextStockOf[ordinal] = added.stockOf[k];
+            nextLive.set(ordinal);
+            nextCategories.add(keyOf(added.categoryOf[k]), added.categoryOf[k], ordinal);
+            nextSubcategories.add(pairKey(added.categoryOf[k], added.subcategoryOf[k]), added.subcategoryOf[k], ordinal);
+            nextBrands.add(keyOf(added.brandOf[k]), added.brandOf[k], ordinal);
+            nextStock.add(added.stockOf[k].name(), null, ordinal);
+            if (!Double.isNaN(added.ratings[k])) {
+                int bucket = bucketOf(added.ratings[k]);
+                if (!bucketCopied[bucket]) {
+                    nextBuckets[bucket] = (BitSet) nextBuckets[bucket].clone();
+                    bucketCopied[bucket] = true;
+                }
+                nextBuckets[bucket].set(ordinal);
+            }
+        }
+
+        return new FacetIndex(nextIds, nextPrices, nextRatings, nextCreatedAt, nextPopularity, nextUpdatedAt,
+            nextLive, nextCategoryOf, nextSubcategoryOf, nextBrandOf, nextStockOf,
+            nextCategories.postings, nextCategories.labels, nextSubcategories.postings, nextSubcategories.labels,
+            nextBrands.postings, nextBrands.labels,
+            nextStock.postings, nextBuckets,
+            merge(byPrice, retracted, appended, priceOrder(nextPrices)),
+            merge(byRating, retracted, appended, ratingOrder(nextRatings)),
+            merge(byNewest, retracted, appended, newestOrder(nextCreatedAt)),
+            merge(byPopularity, retracted, appended, popularityOrder(nextPopularity)));
+    }
+
+    /** The live rows under dense ordinals, or this index when it has no dead rows. */
+    FacetIndex compacted() {
+        if (liveCount == ids.length) {
+            return this;
+        }
+        Builder builder = new Builder();
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            builder.copy(this, i);
+        }
+        return builder.build();
+    }
+
+    Map<String, BitSet> categoryPostings() { return categories; }
+
+    Map<String, String> categoryLabels() { return categoryLabels; }
+
+    Map<String, BitSet> subcategoryPostings() { return subcategories; }
+
+    Map<String, String> subcategoryLabels() { return subcategoryLabels; }
+
+    Map<String, BitSet> brandPostings() { return brands; }
+
+    Map<String, String> brandLabels() { return brandLabels; }
+
+    Map<String, BitSet> stockPostings() { return stockStatuses; }
+
+    double price(int ordinal) { return prices[ordinal]; }
+
+    double rating(int ordinal) { return ratings[ordinal]; }
+
+    long createdAt(int ordinal) { return createdAt[ordinal]; }
+
+    double popularity(int ordinal) { return popularity[ordinal]; }
+
+    long updatedAt(int ordinal) { return updatedAt[ordinal]; }
+
+    FacetResult search(FacetQuery query, CategoryTree tree, int offset, int limit) {
+        BitSet category = categorySubtrees(query.getCategories(), tree);
+        BitSet brand = union(brands, query.getBrands());
+        BitSet stock = union(stockStatuses, query.getStockStatuses());
+        BitSet price = priceRange(query.getMinPrice(), query.getMaxPrice());
+        BitSet rating = query.getMinRating() == null ? null : minRating(query.getMinRating());
+
+        BitSet result = intersect(category, brand, stock, price, rating);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        facets.put("category", counts(categories, categoryLabels, intersect(brand, stock, price, rating)));
+        facets.put("brand", counts(brands, brandLabels, intersect(category, stock, price, rating)));
+        facets.put("stockStatus", counts(stockStatuses, null, intersect(category, brand, price, rating)));
+        BitSet ratingBase = intersect(category, brand, stock, price);
+        Map<String, Integer> ratingCounts = new LinkedHashMap<>();
+        for (int threshold : RATING_THRESHOLDS) {
+            BitSet matches = minRating(threshold);
+            matches.and(ratingBase);
+            ratingCounts.put(threshold + "+", matches.cardinality());
+        }
+        facets.put("rating", ratingCounts);
+
+        return new FacetResult(page(result, query.getSortBy(), offset, limit), result.cardinality(), facets);
+    }
+
+    private List<String> page(BitSet result, String sortBy, int offset, int limit) {
+        List<String> page = new ArrayList<>(Math.min(limit, 256));
+        int skipped = 0;
+        if (FacetQuery.SORT_RELEVANCE.equals(sortBy)) {
+            for (int i = result.nextSetBit(0); i >= 0 && page.size() < limit; i = result.nextSetBit(i + 1)) {
+                if (skipped++ >= offset) page.add(ids[i]);
+            }
+            return page;
+        }
+        for (int position = 0; position < byPrice.length && page.size() < limit; position++) {
+            int ordinal = ordinalAt(sortBy, position);
+            if (result.get(ordinal) && skipped++ >= offset) {
+                page.add(ids[ordinal]);
+            }
+        }
+        return page;
+    }
+
+    private int ordinalAt(String sortBy, int position) {
+        switch (sortBy) {
+            case FacetQuery.SORT_PRICE_LOW: return byPrice[position];
+            // Descending over priced entries, unpriced ones still last
+            case FacetQuery.SORT_PRICE_HIGH: return position < pricedCount ? byPrice[pricedCount - 1 - position] : byPrice[position];
+            case FacetQuery.SORT_RATING: return byRating[position];
+            case FacetQuery.SORT_POPULARITY: return byPopularity[position];
+            default: return byNewest[position];
+        }
+    }
+
+    // Mirrors CategoryTree.subtreeCriteria: a root selects its category, a deeper node its
+    // root's category with the subtree's names as subcategory, and a value the tree does
+    // not know selects that category
+    private BitSet categorySubtrees(Set<String> values, CategoryTree tree) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        Set<String> wholeCategories = new HashSet<>();
+        Set<String> pairs = new HashSet<>();
+        for (String value : values) {
+            List<CategoryTree.Node> nodes = tree.find(value);
+            if (nodes.isEmpty()) {
+                wholeCategories.add(keyOf(value));
+            }
+            for (CategoryTree.Node node : nodes) {
+                if (node.getDepth() == 0) {
+                    wholeCategories.add(keyOf(node.getName()));
+                } else {
+                    node.getSubtreeNames().forEach(name -> pairs.add(pairKey(node.getRootName(), name)));
+                }
+            }
+        }
+        BitSet matches = union(categories, wholeCategories);
+        BitSet branches = union(subcategories, pairs);
+        if (matches == null) {
+            return branches;
+        }
+        if (branches != null) {
+            matches.or(branches);
+        }
+        return matches;
+    }
+
+    private BitSet priceRange(Double min, Double max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        int from = min == null ? 0 : lowerBound(sortedPrices, min);
+        int to = max == null ? pricedCount : upperBound(sortedPrices, max);
+        BitSet matches = new BitSet(ids.length);
+        for (int i = from; i < to; i++) {
+            matches.set(byPrice[i]);
+        }
+        return matches;
+    }
+
+    private BitSet minRating(double min) {
+        BitSet matches = new BitSet(ids.length);
+        int whole = (int) Math.ceil(min);
+        for (int bucket = Math.max(0, whole); bucket < ratingBuckets.length; bucket++) {
+            matches.or(ratingBuckets[bucket]);
+        }
+        // A fractional threshold splits one bucket; check that bucket row by row
+        int partial = (int) Math.floor(min);
+        if (partial != whole && partial >= 0 && partial < ratingBuckets.length) {
+            BitSet bucket = ratingBuckets[partial];
+            for (int i = bucket.nextSetBit(0); i >= 0; i = bucket.nextSetBit(i + 1)) {
+                if (ratings[i] >= min) matches.set(i);
+            }
+        }
+        return matches;
+    }
+
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) result.and(filter);
+        }
+        return result;
+    }
+
+    private static BitSet union(Map<String, BitSet> postings, Set<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        BitSet matches = new BitSet();
+        for (String value : values) {
+            BitSet posting = postings.get(value);
+            if (posting != null) matches.or(posting);
+        }
+        return matches;
+    }
+
+    private static Map<String, Integer> counts(Map<String, BitSet> postings, Map<String, String> labels, BitSet base) {
+        List<Map.Entry<String, Integer>> counted = new ArrayList<>();
+        BitSet scratch = new BitSet();
+        for (Map.Entry<String, BitSet> posting : postings.entrySet()) {
+            scratch.clear();
+            scratch.or(posting.getValue());
+            scratch.and(base);
+            int count = scratch.cardinality();
+            if (count > 0) {
+                String label = labels == null ? posting.getKey() : labels.get(posting.getKey());
+                counted.add(Map.entry(label, count));
+            }
+        }
+        counted.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counted.subList(0, Math.min(MAX_FACET_VALUES, counted.size()))) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, double key) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= key) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    private static int bucketOf(double rating) {
+        return Math.max(0, Math.min(5, (int) Math.floor(rating)));
+    }
+
+    private static String keyOf(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String pairKey(String category, String subcategory) {
+        String categoryKey = keyOf(category);
+        String subcategoryKey = keyOf(subcategory);
+        return categoryKey == null || subcategoryKey == null ? null : categoryKey + '\u0000' + subcategoryKey;
+    }
+
+    private static Comparator<Integer> priceOrder(double[] prices) {
+        return Comparator.comparing((Integer i) -> Double.isNaN(prices[i])).thenComparingDouble(i -> prices[i]);
+    }
+
+    private static Comparator<Integer> ratingOrder(double[] ratings) {
+        return Comparator.comparing((Integer i) -> Double.isNaN(ratings[i]))
+            .thenComparing(i -> ratings[i], Comparator.reverseOrder());
+    }
+
+    private static Comparator<Integer> newestOrder(long[] createdAt) {
+        return Comparator.comparingLong((Integer i) -> createdAt[i]).reversed();
+    }
+
+    private static Comparator<Integer> popularityOrder(double[] popularity) {
+        return Comparator.comparing((Integer i) -> Double.isNaN(popularity[i]))
+            .thenComparing(i -> popularity[i], Comparator.reverseOrder());
+    }
+
+    // Drops retracted ordinals from a sort order and merges in the appended ones. Appended
+    // ordinals go after equal existing ones, as the stable sort of a full build puts them.
+    private static int[] merge(int[] order, BitSet retracted, int[] appended, Comparator<Integer> comparator) {
+        Integer[] fresh = new Integer[appended.length];
+        for (int k = 0; k < appended.length; k++) fresh[k] = appended[k];
+        Arrays.sort(fresh, comparator);
+        int[] merged = new int[order.length + fresh.length];
+        int n = 0, next = 0;
+        for (int ordinal : order) {
+            if (retracted.get(ordinal)) continue;
+            while (next < fresh.length && comparator.compare(fresh[next], ordinal) < 0) {
+                merged[n++] = fresh[next++];
+            }
+            merged[n++] = ordinal;
+        }
+        while (next < fresh.length) {
+            merged[n++] = fresh[next++];
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    private static int[] sortedOrdinals(int size, Comparator<Integer> order) {
+        Integer[] ordinals = new Integer[size];
+        for (int i = 0; i < size; i++) ordinals[i] = i;
+        Arrays.sort(ordinals, order);
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) result[i] = ordinals[i];
+        return result;
+    }
+
+    // Copy-on-write view of one dimension's postings while a change batch is applied
+    private static final class Postings {
+        final Map<String, BitSet> postings;
+        final Map<String, String> labels;
+        private final Set<String> copied = new HashSet<>();
+
+        Postings(Map<String, BitSet> postings, Map<String, String> labels) {
+            this.postings = new HashMap<>(postings);
+            this.labels = labels == null ? null : new HashMap<>(labels);
+        }
+
+        void add(String key, String label, int ordinal) {
+            if (key == null) {
+                return;
+            }
+            if (labels != null) {
+                labels.putIfAbsent(key, label.trim());
+            }
+            posting(key).set(ordinal);
+        }
+
+        void remove(String key, int ordinal) {
+            if (key == null || !postings.containsKey(key)) {
+                return;
+            }
+            BitSet posting = posting(key);
+            posting.clear(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+                if (labels != null) labels.remove(key);
+            }
+        }
+
+        // Clones a shared posting the first time this batch touches it
+        private BitSet posting(String key) {
+            BitSet posting = postings.get(key);
+            if (posting == null || copied.add(key)) {
+                posting = posting == null ? new BitSet() : (BitSet) posting.clone();
+                postings.put(key, posting);
+                copied.add(key);
+            }
+            return posting;
+        }
+    }
+
+    static final class Builder {
+        private final List<String> ids = new ArrayList<>();
+        private double[] prices = new double[1024];
+        private double[] ratings = new double[1024];
+        private long[] createdAt = new long[1024];
+        private double[] popularity = new double[1024];
+        private long[] updatedAt = new long[1024];
+        private String[] categoryOf = new String[1024];
+        private String[] subcategoryOf = new String[1024];
+        private String[] brandOf = new String[1024];
+        private StockLevel[] stockOf = new StockLevel[1024];
+        private final Map<String, BitSet> categories = new HashMap<>();
+        private final Map<String, String> categoryLabels = new HashMap<>();
+        private final Map<String, BitSet> subcategories = new HashMap<>();
+        private final Map<String, String> subcategoryLabels = new HashMap<>();
+        private final Map<String, BitSet> brands = new HashMap<>();
+        private final Map<String, String> brandLabels = new HashMap<>();
+        private final Map<String, BitSet> stockStatuses = new HashMap<>();
+        private final BitSet[] ratingBuckets = new BitSet[6];
+
+        Builder() {
+            for (int i = 0; i < ratingBuckets.length; i++) ratingBuckets[i] = new BitSet();
+        }
+
+        void add(Product product) {
+            add(product.getId(), product.getCategory(), product.getSubcategory(), product.getBrand(),
+                StockLevel.of(product.getStock(), product.getMinStock()),
+                product.getPrice() == null ? Double.NaN : product.getPrice(),
+                product.getRating() == null ? Double.NaN : product.getRating(),
+                product.getCreatedAt() == null ? Long.MIN_VALUE : product.getCreatedAt().toEpochSecond(ZoneOffset.UTC),
+                product.getPopularity() == null ? Double.NaN : product.getPopularity(),
+                product.getUpdatedAt() == null ? 0 : product.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+
+        /** Carries a row of an existing index over unchanged. */
+        void copy(FacetIndex from, int ordinal) {
+            add(from.ids[ordinal], from.categoryOf[ordinal], from.subcategoryOf[ordinal], from.brandOf[ordinal],
+                from.stockOf[ordinal],
+                from.prices[ordinal], from.ratings[ordinal], from.createdAt[ordinal],
+                from.popularity[ordinal], from.updatedAt[ordinal]);
+        }
+
+        // Missing numbers are NaN, a missing createdAt is Long.MIN_VALUE
+        void add(String id, String category, String subcategory, String brand, StockLevel stock, double price, double rating,
+                 long created, double score, long updated) {
+            int ordinal = ids.size();
+            if (ordinal == prices.length) {
+                prices = Arrays.copyOf(prices, ordinal * 2);
+                ratings = Arrays.copyOf(ratings, ordinal * 2);
+                createdAt = Arrays.copyOf(createdAt, ordinal * 2);
+                popularity = Arrays.copyOf(popularity, ordinal * 2);
+                updatedAt = Arrays.copyOf(updatedAt, ordinal * 2);
+                categoryOf = Arrays.copyOf(categoryOf, ordinal * 2);
+                subcategoryOf = Arrays.copyOf(subcategoryOf, ordinal * 2);
+                brandOf = Arrays.copyOf(brandOf, ordinal * 2);
+                stockOf = Arrays.copyOf(stockOf, ordinal * 2);
+            }
+            ids.add(id);
+            prices[ordinal] = price;
+            ratings[ordinal] = rating;
+            createdAt[ordinal] = created;
+            popularity[ordinal] = score;
+            updatedAt[ordinal] = updated;
+            categoryOf[ordinal] = category;
+            subcategoryOf[ordinal] = subcategory;
+            brandOf[ordinal] = brand;
+            stockOf[ordinal] = stock;
+
+            post(categories, categoryLabels, keyOf(category), category, ordinal);
+            post(subcategories, subcategoryLabels, pairKey(category, subcategory), subcategory, ordinal);
+            post(brands, brandLabels, keyOf(brand), brand, ordinal);
+            stockStatuses.computeIfAbsent(stock.name(), key -> new BitSet()).set(ordinal);
+            if (!Double.isNaN(rating)) {
+                ratingBuckets[bucketOf(rating)].set(ordinal);
+            }
+        }
+
+        FacetIndex build() {
+            int size = ids.size();
+            double[] builtPrices = Arrays.copyOf(prices, size);
+            double[] builtRatings = Arrays.copyOf(ratings, size);
+            long[] builtCreatedAt = Arrays.copyOf(createdAt, size);
+            double[] builtPopularity = Arrays.copyOf(popularity, size);
+            BitSet live = new BitSet(size);
+            live.set(0, size);
+            return new FacetIndex(ids.toArray(new String[0]), builtPrices, builtRatings, builtCreatedAt,
+                builtPopularity, Arrays.copyOf(updatedAt, size), live,
+                Arrays.copyOf(categoryOf, size), Arrays.copyOf(subcategoryOf, size), Arrays.copyOf(brandOf, size),
+                Arrays.copyOf(stockOf, size), categories, categoryLabels, subcategories, subcategoryLabels,
+                brands, brandLabels, stockStatuses, ratingBuckets,
+                sortedOrdinals(size, priceOrder(builtPrices)),
+                sortedOrdinals(size, ratingOrder(builtRatings)),
+                sortedOrdinals(size, newestOrder(builtCreatedAt)),
+                sortedOrdinals(size, popularityOrder(builtPopularity)));
+        }
+
+        private static void post(Map<String, BitSet> postings, Map<String, String> labels, String key, String label,
+                                 int ordinal) {
+            if (key == null) {
+                return;
+            }
+            labels.putIfAbsent(key, label.trim());
+            postings.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.peraxis.product.facet;
+
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.StockLevel;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parsed catalog filter: multi-valued category/brand/stock-status selections (OR within
+ * a dimension, AND across dimensions), an inclusive price range, a minimum rating and
+ * a sort order. A category selects its whole subtree, resolved through the category
+ * tree by id, slug or name; brand matches the trimmed, case-folded value.
+ */
+public class FacetQuery {
+
+    public static final String SORT_RELEVANCE = "relevance";
+    public static final String SORT_PRICE_LOW = "price_low";
+    public static final String SORT_PRICE_HIGH = "price_high";
+    public static final String SORT_RATING = "rating";
+    public static final String SORT_NEWEST = "newest";
+    public static final String SORT_POPULARITY = "popularity";
+
+    private static final Set<String> SORTS = Set.of(SORT_RELEVANCE, SORT_PRICE_LOW, SORT_PRICE_HIGH, SORT_RATING,
+        SORT_NEWEST, SORT_POPULARITY);
+
+    private final Set<String> categories;
+    private final Set<String> brands;
+    private final Set<String> stockStatuses;
+    private final Double minPrice;
+    private final Double maxPrice;
+    private final Double minRating;
+    private final String sortBy;
+
+    public FacetQuery(Set<String> categories, Set<String> brands, Set<String> stockStatuses,
+                      Double minPrice, Double maxPrice, Double minRating, String sortBy) {
+        this.categories = categories;
+        this.brands = brands;
+        this.stockStatuses = stockStatuses;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.minRating = minRating;
+        this.sortBy = sortBy;
+    }
+
+    public static FacetQuery parse(String category, String brand, String stockStatus, String minPrice,
+                                   String maxPrice, String rating, String sortBy) {
+        String sort = sortBy == null || sortBy.isEmpty() ? SORT_RELEVANCE : sortBy.trim().toLowerCase(Locale.ROOT);
+        // Plain "price" is ascending
+        if ("price".equals(sort)) {
+            sort = SORT_PRICE_LOW;
+        }
+        if (!SORTS.contains(sort)) {
+            throw new IllegalArgumentException("Unsupported sortBy: " + sortBy);
+        }
+        Set<String> stock = values(stockStatus).stream()
+            .map(value -> value.toUpperCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+        for (String status : stock) {
+            try {
+                StockLevel.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported stockStatus: " + status);
+            }
+        }
+        Set<String> brands = values(brand).stream()
+            .map(Product::keyOf)
+            .collect(Collectors.toUnmodifiableSet());
+        return new FacetQuery(values(category), brands, stock,
+            number("minPrice", minPrice), number("maxPrice", maxPrice), number("rating", rating), sort);
+    }
+
+    public Set<String> getCategories() { return categories; }
+    public Set<String> getBrands() { return brands; }
+    public Set<String> getStockStatuses() { return stockStatuses; }
+    public Double getMinPrice() { return minPrice; }
+    public Double getMaxPrice() { return maxPrice; }
+    public Double getMinRating() { return minRating; }
+    public String getSortBy() { return sortBy; }
+
+    /**
+     * The same filter as Mongo criteria, for when the in-memory index cannot serve the
+     * request (not built yet, or combined with free-text search). Category and brand are
+     * equality or {@code $in} on indexed keys, price and rating are ranges, and the
+     * IN_STOCK and LOW_STOCK statuses compare stock with minStock through {@code $expr}.
+     */
+    public List<Criteria> toCriteria(CategoryService categoryService) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (!categories.isEmpty()) {
+            List<Criteria> subtrees = categories.stream().map(categoryService::subtreeCriteria).toList();
+            criteria.add(subtrees.size() == 1 ? subtrees.get(0) : new Criteria().orOperator(subtrees));
+        }
+        if (!brands.isEmpty()) {
+            criteria.add(Criteria.where("brandKey").in(brands));
+        }
+        if (!stockStatuses.isEmpty()) {
+            criteria.add(new Criteria().orOperator(stockStatuses.stream().map(FacetQuery::stockCriteria).toList()));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) price = price.gte(minPrice);
+            if (maxPrice != null) price = price.lte(maxPrice);
+            criteria.add(price);
+        }
+        if (minRating != null) {
+            criteria.add(Criteria.where("rating").gte(minRating));
+        }
+        return criteria;
+    }
+
+    public Sort toSort() {
+        switch (sortBy) {
+            case SORT_PRICE_LOW: return Sort.by(Sort.Direction.ASC, "price");
+            case SORT_PRICE_HIGH: return Sort.by(Sort.Direction.DESC, "price");
+            case SORT_RATING: return Sort.by(Sort.Direction.DESC, "rating");
+            case SORT_NEWEST: return Sort.by(Sort.Direction.DESC, "createdAt");
+            case SORT_POPULARITY: return Sort.by(Sort.Direction.DESC, "popularity");
+            default: return Sort.unsorted();
+        }
+    }
+
+    /** The keyset field for cursor paging; relevance has no stored order and pages newest first. */
+    public String cursorSortField() {
+        switch (sortBy) {
+            case SORT_PRICE_LOW:
+            case SORT_PRICE_HIGH: return "price";
+            case SORT_RATING: return "rating";
+            case SORT_POPULARITY: return "popularity";
+            default: return "createdAt";
+        }
+    }
+
+    public Sort.Direction cursorSortDirection() {
+        return SORT_PRICE_LOW.equals(sortBy) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+
+    // Mirrors StockLevel.of
+    private static Criteria stockCriteria(String status) {
+        switch (StockLevel.valueOf(status)) {
+            case OUT_OF_STOCK:
+                return new Criteria().orOperator(Criteria.where("stock").is(null), Criteria.where("stock").lte(0));
+            case LOW_STOCK:
+                return new Criteria().andOperator(
+                    Criteria.where("stock").gt(0).and("minStock").ne(null),
+                    Criteria.expr(ComparisonOperators.valueOf("stock").lessThanEqualTo("minStock")));
+            default:
+                return new Criteria().andOperator(
+                    Criteria.where("stock").gt(0),
+                    new Criteria().orOperator(
+                        Criteria.where("minStock").is(null),
+                        Criteria.expr(ComparisonOperators.valueOf("stock").greaterThan("minStock"))));
+        }
+    }
+
+    private static Set<String> values(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(raw.split(","))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static Double number(String name, String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + raw);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.peraxis.product.facet;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetResult {
+    private final List<String> productIds;
+    private final int total;
+    private final Map<String, Map<String, Integer>> facets;
+
+    public FacetResult(List<String> productIds, int total, Map<String, Map<String, Integer>> facets) {
+        this.productIds = productIds;
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public List<String> getProductIds() { return productIds; }
+    public int getTotal() { return total; }
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+}
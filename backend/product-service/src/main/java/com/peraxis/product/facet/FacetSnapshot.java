@@ -0,0 +1,178 @@
+package com.peraxis.product.facet;
+
+import com.peraxis.product.entity.StockLevel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary copy of a {@link FacetIndex} on local disk, so a restarted replica can serve
+ * facets before it has scanned Mongo. Only the facet index is kept: product summaries are
+ * not, so the product and listing response caches still start cold and fill from Mongo.
+ *
+ * Layout (big-endian): magic, version, written-at millis, row count; the ids; the price,
+ * rating, createdAt, popularity and updatedAt columns; the category, subcategory, brand
+ * and stock postings as (label, bitmap words) pairs; a CRC32 of everything before it. Files are
+ * written to a temporary sibling and moved into place, and read through a memory map.
+ */
+final class FacetSnapshot {
+
+    private static final int MAGIC = 0x50584653; // "PXFS"
+    private static final int VERSION = 2;
+
+    private final FacetIndex index;
+    private final long writtenAt;
+
+    private FacetSnapshot(FacetIndex index, long writtenAt) {
+        this.index = index;
+        this.writtenAt = writtenAt;
+    }
+
+    FacetIndex getIndex() { return index; }
+
+    long getWrittenAt() { return writtenAt; }
+
+    static void write(FacetIndex index, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        // Dead rows left by incremental changes are not written
+        index = index.compacted();
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), crc))) {
+            int size = index.size();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) writeString(out, index.id(i));
+            for (int i = 0; i < size; i++) out.writeDouble(index.price(i));
+            for (int i = 0; i < size; i++) out.writeDouble(index.rating(i));
+            for (int i = 0; i < size; i++) out.writeLong(index.createdAt(i));
+            for (int i = 0; i < size; i++) out.writeDouble(index.popularity(i));
+            for (int i = 0; i < size; i++) out.writeLong(index.updatedAt(i));
+            writePostings(out, index.categoryPostings(), index.categoryLabels());
+            writePostings(out, index.subcategoryPostings(), index.subcategoryLabels());
+            writePostings(out, index.brandPostings(), index.brandLabels());
+            writePostings(out, index.stockPostings(), null);
+            out.flush();
+            // Written outside the checked stream so it is not part of its own checksum
+            DataOutputStream trailer = new DataOutputStream(raw);
+            trailer.writeInt((int) crc.getValue());
+            trailer.flush();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Maps and decodes {@code file}; throws if it is truncated, corrupt or from another version. */
+    static FacetSnapshot read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < 24) {
+            throw new IOException("Snapshot is truncated");
+        }
+        int end = buffer.capacity() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if ((int) crc.getValue() != buffer.getInt(end)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        ByteBuffer in = buffer.duplicate().limit(end);
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a facet snapshot, or written by another version");
+        }
+        long writtenAt = in.getLong();
+        int size = in.getInt();
+
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) ids[i] = readString(in);
+        double[] prices = readDoubles(in, size);
+        double[] ratings = readDoubles(in, size);
+        long[] created = readLongs(in, size);
+        double[] popularity = readDoubles(in, size);
+        long[] updated = readLongs(in, size);
+        String[] categories = readPostings(in, size);
+        String[] subcategories = readPostings(in, size);
+        String[] brands = readPostings(in, size);
+        String[] stock = readPostings(in, size);
+
+        FacetIndex.Builder builder = new FacetIndex.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(ids[i], categories[i], subcategories[i], brands[i],
+                stock[i] == null ? StockLevel.OUT_OF_STOCK : StockLevel.valueOf(stock[i]),
+                prices[i], ratings[i], created[i], popularity[i], updated[i]);
+        }
+        return new FacetSnapshot(builder.build(), writtenAt);
+    }
+
+    private static void writePostings(DataOutputStream out, Map<String, BitSet> postings,
+                                      Map<String, String> labels) throws IOException {
+        out.writeInt(postings.size());
+        for (Map.Entry<String, BitSet> posting : postings.entrySet()) {
+            writeString(out, labels == null ? posting.getKey() : labels.get(posting.getKey()));
+            long[] words = posting.getValue().toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) out.writeLong(word);
+        }
+    }
+
+    // Turns postings back into the value of each row
+    private static String[] readPostings(ByteBuffer in, int size) {
+        String[] values = new String[size];
+        int count = in.getInt();
+        for (int p = 0; p < count; p++) {
+            String label = readString(in);
+            long[] words = readLongs(in, in.getInt());
+            BitSet rows = BitSet.valueOf(words);
+            for (int i = rows.nextSetBit(0); i >= 0 && i < size; i = rows.nextSetBit(i + 1)) {
+                values[i] = label;
+            }
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static double[] readDoubles(ByteBuffer in, int size) {
+        double[] values = new double[size];
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + size * Double.BYTES);
+        return values;
+    }
+
+    private static long[] readLongs(ByteBuffer in, int size) {
+        long[] values = new long[size];
+        in.asLongBuffer().get(values);
+        in.position(in.position() + size * Long.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,7 @@
+package com.peraxis.product.inventory;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,662 @@
+package com.peraxis.product.inventory;
+
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.dto.ReservationRequest;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ReservationStatus;
+import com.peraxis.product.entity.StockReservation;
+import com.peraxis.product.popularity.PopularitySignals;
+import com.peraxis.product.seller.SellerCatalogService;
+import com.peraxis.product.variant.VariantIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stock reservations for products and product variants.
+ *
+ * The durable path is a conditional {@code $inc} whose filter requires enough stock,
+ * so Mongo never lets stock go negative. A SKU whose reservation rate crosses
+ * {@code product.reservations.hot-threshold-per-second} is promoted to a per-replica
+ * pool: the replica leases a chunk of units from Mongo with that same conditional
+ * decrement and hands them out from a {@link StripedStockCounter}, so a flash sale
+ * costs one Mongo write per lease rather than one contended write per buyer. Pooled
+ * units have already left Mongo, so replicas cannot oversell each other. A lease takes
+ * at most {@code lease-fraction} of the stock still in Mongo, so one replica cannot
+ * hold a sale's whole stock while the others report it sold out.
+ *
+ * Each lease is recorded on the product ({@code stockLeases}) by the same update that
+ * takes its units, and holds served from it carry its id. The owner renews it every
+ * second while the SKU is hot and returns the unused units when the SKU cools down or
+ * the replica shuts down. If the replica dies instead, any replica's sweep finds the
+ * lease expired and returns the units that never became holds. An owner that has not
+ * renewed for half the lease TTL stops serving from the pool, so a lease is never
+ * reclaimed while its units are still being handed out.
+ *
+ * Every reservation is a hold document with an expiry. Holds live in Mongo rather than
+ * in the pool, so commit and release work on any replica. Releasing or expiring a hold
+ * returns its units to the product. Stock set directly through PUT or PATCH while a
+ * SKU is hot is in addition to the units this replica has already leased.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+    private static final String PRODUCTS = "products";
+    private static final String LEASES = "stockLeases";
+    // How long a drained pool answers "sold out" before asking Mongo again
+    private static final long SOLD_OUT_RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int LEASE_ATTEMPTS = 5;
+
+    private enum PoolResult { ACQUIRED, EXHAUSTED, RETIRED }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PopularitySignals popularitySignals;
+
+    @Autowired
+    private SellerCatalogService sellerCatalog;
+
+    @Autowired
+    private VariantIndex variantIndex;
+
+    @Value("${product.reservations.hold-ttl-seconds:600}")
+    private long holdTtlSeconds;
+
+    @Value("${product.reservations.max-quantity:10}")
+    private int maxQuantity;
+
+    @Value("${product.reservations.hot-threshold-per-second:200}")
+    private long hotThresholdPerSecond;
+
+    @Value("${product.reservations.cool-down-seconds:30}")
+    private int coolDownSeconds;
+
+    @Value("${product.reservations.lease-size:100}")
+    private int leaseSize;
+
+    // Share of the stock still in Mongo that one lease may take
+    @Value("${product.reservations.lease-fraction:0.25}")
+    private double leaseFraction;
+
+    @Value("${product.reservations.lease-ttl-seconds:60}")
+    private long leaseTtlSeconds;
+
+    // 0 sizes the counters from the CPU count
+    @Value("${product.reservations.stripes:0}")
+    private int stripes;
+
+    @Value("${product.reservations.sweep-interval-seconds:5}")
+    private long sweepIntervalSeconds;
+
+    @Value("${product.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private final String replicaId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<Sku, LongAdder> demand = new ConcurrentHashMap<>();
+    private final Map<Sku, HotSku> hotSkus = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (stripes <= 0) {
+            stripes = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        scheduler.scheduleWithFixedDelay(this::updateHotSkus, 1, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::expireHolds, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::reclaimLeases, sweepIntervalSeconds, sweepIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        hotSkus.forEach(this::retire);
+        hotSkus.clear();
+    }
+
+    public StockReservation reserve(ReservationRequest request, String userId) {
+        int quantity = request.getQuantity();
+        if (request.getProductId() == null || request.getProductId().isBlank()) {
+            throw new IllegalArgumentException("productId is required");
+        }
+        if (quantity < 1 || quantity > maxQuantity) {
+            throw new IllegalArgumentException("quantity must be between 1 and " + maxQuantity);
+        }
+        if ((request.getVariantName() == null) != (request.getVariantValue() == null)) {
+            throw new IllegalArgumentException("variantName and variantValue must be given together");
+        }
+        Sku sku = new Sku(request.getProductId(), request.getVariantName(), request.getVariantValue());
+        demand.computeIfAbsent(sku, key -> new LongAdder()).increment();
+
+        HotSku hot = hotSkus.get(sku);
+        PoolResult pooled = hot == null ? PoolResult.RETIRED : takeFromPool(sku, hot, quantity);
+        if (pooled == PoolResult.EXHAUSTED || (pooled == PoolResult.RETIRED && !takeFromStore(sku, quantity))) {
+            throw new InsufficientStockException("Insufficient stock for " + sku);
+        }
+
+        StockReservation hold = new StockReservation();
+        hold.setProductId(sku.productId);
+        hold.setVariantName(sku.variantName);
+        hold.setVariantValue(sku.variantValue);
+        hold.setQuantity(quantity);
+        hold.setUserId(userId);
+        hold.setExpiresAt(hold.getCreatedAt().plusSeconds(holdTtlSeconds));
+        if (pooled == PoolResult.ACQUIRED) {
+            hold.setLeaseId(hot.leaseId);
+        }
+        StockReservation saved;
+        try {
+            saved = mongoTemplate.insert(hold);
+        } catch (RuntimeException e) {
+            if (pooled == PoolResult.ACQUIRED) {
+                giveBack(sku, hot, quantity);
+            } else {
+                returnToStore(sku, quantity);
+            }
+            throw e;
+        }
+        popularitySignals.cartAdded(sku.productId, quantity);
+        return saved;
+    }
+
+    /** Makes the hold permanent. Returns null when no such reservation exists. */
+    public StockReservation commit(String id, String userId, String userRole) {
+        StockReservation committed = transition(id, userId, userRole, ReservationStatus.COMMITTED);
+        if (committed != null) {
+            popularitySignals.purchased(committed.getProductId(), committed.getQuantity());
+        }
+        return committed;
+    }
+
+    /** Cancels the hold and returns its units. Returns null when no such reservation exists. */
+    public StockReservation release(String id, String userId, String userRole) {
+        StockReservation released = transition(id, userId, userRole, ReservationStatus.RELEASED);
+        if (released != null) {
+            returnToStore(skuOf(released), released.getQuantity());
+        }
+        return released;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> pools = new LinkedHashMap<>();
+        hotSkus.forEach((sku, hot) -> pools.put(sku.toString(), hot.counter.available()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedSkus", demand.size());
+        stats.put("hotSkus", pools);
+        return stats;
+    }
+
+    // The filter is the whole state machine: only a HELD hold moves, and only once
+    private StockReservation transition(String id, String userId, String userRole, ReservationStatus target) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(ReservationStatus.HELD);
+        if (!"ADMIN".equals(userRole)) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (target == ReservationStatus.COMMITTED) {
+            criteria = criteria.and("expiresAt").gt(now);
+        }
+        StockReservation updated = mongoTemplate.findAndModify(new Query(criteria),
+            new Update().set("status", target).set("updatedAt", now),
+            FindAndModifyOptions.options().returnNew(true), StockReservation.class);
+        if (updated != null) {
+            return updated;
+        }
+
+        StockReservation existing = mongoTemplate.findById(id, StockReservation.class);
+        if (existing == null) {
+            return null;
+        }
+        if (!"ADMIN".equals(userRole) && !Objects.equals(existing.getUserId(), userId)) {
+            throw new RuntimeException("Unauthorized");
+        }
+        if (existing.getStatus() == ReservationStatus.HELD) {
+            throw new IllegalStateException("Reservation has expired");
+        }
+        throw new IllegalStateException("Reservation is already " + existing.getStatus());
+    }
+
+    private PoolResult takeFromPool(Sku sku, HotSku hot, int quantity) {
+        if (hot.isLive() && hot.counter.tryAcquire(quantity)) {
+            return PoolResult.ACQUIRED;
+        }
+        if (hot.soldOutUntil - System.nanoTime() > 0) {
+            return PoolResult.EXHAUSTED;
+        }
+        hot.lock.lock();
+        try {
+            if (hot.retired || !hot.isLive()) {
+                return PoolResult.RETIRED;
+            }
+            while (true) {
+                if (hot.counter.tryAcquire(quantity)) {
+                    return PoolResult.ACQUIRED;
+                }
+                // The pool may hold enough units in total, just spread thinner than this
+                // request; gather them before leasing more from Mongo
+                if (hot.counter.available() >= quantity) {
+                    hot.counter.consolidate();
+                    if (hot.counter.tryAcquire(quantity)) {
+                        return PoolResult.ACQUIRED;
+                    }
+                }
+                int leased = lease(sku, hot, quantity);
+                if (leased < 0) {
+                    lose(sku, hot);
+                    return PoolResult.RETIRED;
+                }
+                if (leased == 0) {
+                    hot.soldOutUntil = System.nanoTime() + SOLD_OUT_RECHECK_NANOS;
+                    return PoolResult.EXHAUSTED;
+                }
+                hot.counter.add(leased);
+            }
+        } finally {
+            hot.lock.unlock();
+        }
+    }
+
+    // Units added to the pool, 0 when Mongo has none left, -1 when the pool's lease was reclaimed
+    private int lease(Sku sku, HotSku hot, int quantity) {
+        for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+            Document product = stockDocument(sku, hot.leaseId);
+            if (product == null) {
+                return 0;
+            }
+            if (hot.leaseId != null && product.getList(LEASES, Document.class, List.of()).isEmpty()) {
+                return -1;
+            }
+            int available = stockOf(sku, product);
+            if (available <= 0) {
+                return 0;
+            }
+            int share = Math.max(quantity, (int) (available * leaseFraction));
+            int units = Math.min(available, Math.min(Math.max(leaseSize, quantity), share));
+            if (takeLease(sku, hot, units)) {
+                return units;
+            }
+        }
+        return 0;
+    }
+
+    // Takes the units and records them on the pool's lease (creating it on first use) in one update
+    private boolean takeLease(Sku sku, HotSku hot, int units) {
+        String leaseId = hot.leaseId != null ? hot.leaseId : new ObjectId().toHexString();
+        Date expiresAt = leaseExpiry();
+        Criteria criteria = stockCriteria(sku, units);
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        if (hot.leaseId == null) {
+            update.push(LEASES, new Document("id", leaseId)
+                .append("replica", replicaId)
+                .append("variantName", sku.variantName)
+                .append("variantValue", sku.variantValue)
+                .append("units", units)
+                .append("expiresAt", expiresAt));
+        } else {
+            criteria = criteria.and(LEASES + ".id").is(leaseId);
+            update.inc(LEASES + ".$[lease].units", units)
+                .set(LEASES + ".$[lease].expiresAt", expiresAt)
+                .filterArray(Criteria.where("lease.id").is(leaseId));
+        }
+        long renewed = System.nanoTime();
+        if (!moveStock(sku, -units, criteria, update)) {
+            return false;
+        }
+        hot.leaseId = leaseId;
+        hot.liveUntil = renewed + fenceNanos();
+        return true;
+    }
+
+    private boolean takeFromStore(Sku sku, int quantity) {
+        return moveStock(sku, -quantity, stockCriteria(sku, quantity), new Update().set("updatedAt", LocalDateTime.now()));
+    }
+
+    private void returnToStore(Sku sku, int quantity) {
+        Criteria criteria = Criteria.where("_id").is(sku.productId);
+        if (sku.isVariant()) {
+            criteria = criteria.and("variants").elemMatch(
+                Criteria.where("name").is(sku.variantName).and("value").is(sku.variantValue));
+        }
+        moveStock(sku, quantity, criteria, new Update().set("updatedAt", LocalDateTime.now()));
+    }
+
+    // An ACTIVE product with at least `quantity` units of the SKU
+    private static Criteria stockCriteria(Sku sku, int quantity) {
+        Criteria criteria = Criteria.where("_id").is(sku.productId).and("status").is("ACTIVE");
+        if (sku.isVariant()) {
+            return criteria.and("variants").elemMatch(
+                Criteria.where("name").is(sku.variantName).and("value").is(sku.variantValue).and("stock").gte(quantity));
+        }
+        return criteria.and("stock").gte(quantity);
+    }
+
+    // Adds `delta` to the SKU's stock in `update` and applies it to the product matching `criteria`.
+    // updatedAt moves with stock so the product's ETag changes with its body.
+    private boolean moveStock(Sku sku, int delta, Criteria criteria, Update update) {
+        if (sku.isVariant()) {
+            update.inc("variants.$[variant].stock", delta)
+                .filterArray(Criteria.where("variant.name").is(sku.variantName).and("variant.value").is(sku.variantValue));
+            if (mongoTemplate.updateFirst(new Query(criteria), update, Product.class).getModifiedCount() == 0) {
+                return false;
+            }
+            variantIndex.stockMoved(sku.productId, sku.variantName, sku.variantValue, delta);
+        } else {
+            update.inc("stock", delta);
+            Product after = mongoTemplate.findAndModify(stockQuery(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+            if (after == null) {
+                return false;
+            }
+            sellerCatalog.stockMoved(after, delta);
+        }
+        productCache.invalidate(sku.productId);
+        return true;
+    }
+
+    // What SellerCatalogService needs to tell whether the product changed stock level
+    private static Query stockQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("sellerId", "status", "stock", "minStock");
+        return query;
+    }
+
+    // The SKU's stock, and the given lease when there is one
+    private Document stockDocument(Sku sku, String leaseId) {
+        Query query = new Query(Criteria.where("_id").is(sku.productId).and("status").is("ACTIVE"));
+        if (sku.isVariant()) {
+            query.fields().elemMatch("variants",
+                Criteria.where("name").is(sku.variantName).and("value").is(sku.variantValue));
+        } else {
+            query.fields().include("stock");
+        }
+        if (leaseId != null) {
+            query.fields().elemMatch(LEASES, Criteria.where("id").is(leaseId));
+        }
+        return mongoTemplate.findOne(query, Document.class, PRODUCTS);
+    }
+
+    private static int stockOf(Sku sku, Document product) {
+        Object stock;
+        if (sku.isVariant()) {
+            List<Document> variants = product.getList("variants", Document.class);
+            stock = variants == null || variants.isEmpty() ? null : variants.get(0).get("stock");
+        } else {
+            stock = product.get("stock");
+        }
+        return stock instanceof Number ? ((Number) stock).intValue() : 0;
+    }
+
+    private void updateHotSkus() {
+        try {
+            for (Map.Entry<Sku, LongAdder> entry : demand.entrySet()) {
+                Sku sku = entry.getKey();
+                long rate = entry.getValue().sumThenReset();
+                HotSku hot = hotSkus.get(sku);
+                if (hot != null && hot.leaseId != null && !renew(sku, hot)) {
+                    continue;
+                }
+                if (hot == null) {
+                    if (rate >= hotThresholdPerSecond) {
+                        hotSkus.put(sku, new HotSku(new StripedStockCounter(stripes)));
+                        logger.info("Serving {} from a local stock pool at {} reservations/s", sku, rate);
+                    } else if (rate == 0) {
+                        demand.remove(sku, entry.getValue());
+                    }
+                } else if (rate < hotThresholdPerSecond / 4) {
+                    if (++hot.idleSeconds >= coolDownSeconds) {
+                        hotSkus.remove(sku);
+                        retire(sku, hot);
+                        logger.info("Returned {} to the durable stock path", sku);
+                    }
+                } else {
+                    hot.idleSeconds = 0;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Hot SKU update failed", e);
+        }
+    }
+
+    private void retire(Sku sku, HotSku hot) {
+        hot.lock.lock();
+        try {
+            hot.retired = true;
+            int units = hot.counter.drain();
+            if (hot.leaseId == null) {
+                return;
+            }
+            // Returns the unused units and closes the lease together; no match means the lease was reclaimed
+            Criteria criteria = Criteria.where("_id").is(sku.productId).and(LEASES + ".id").is(hot.leaseId);
+            Update update = new Update().set("updatedAt", LocalDateTime.now()).pull(LEASES, new Document("id", hot.leaseId));
+            if (!moveStock(sku, units, criteria, update)) {
+                logger.warn("Lease on {} was reclaimed before it could be returned", sku);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to return pooled stock for {}", sku, e);
+        } finally {
+            hot.lock.unlock();
+        }
+    }
+
+    // Extends the pool's lease; false when it was reclaimed, after which the pool is dropped
+    private boolean renew(Sku sku, HotSku hot) {
+        long renewed = System.nanoTime();
+        boolean held = mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(sku.productId).and(LEASES + ".id").is(hot.leaseId)),
+            new Update().set(LEASES + ".$.expiresAt", leaseExpiry()),
+            Product.class).getMatchedCount() > 0;
+        if (held) {
+            hot.liveUntil = renewed + fenceNanos();
+            return true;
+        }
+        hot.lock.lock();
+        try {
+            lose(sku, hot);
+        } finally {
+            hot.lock.unlock();
+        }
+        return false;
+    }
+
+    // The lease was reclaimed and its unclaimed units already returned, so the pool's count is dropped
+    private void lose(Sku sku, HotSku hot) {
+        hot.retired = true;
+        hot.leaseLost = true;
+        int units = hot.counter.drain();
+        hotSkus.remove(sku, hot);
+        logger.warn("Lease on {} was reclaimed; dropped {} pooled units", sku, units);
+    }
+
+    // A pooled take whose hold could not be written goes back where it came from
+    private void giveBack(Sku sku, HotSku hot, int quantity) {
+        hot.lock.lock();
+        try {
+            if (!hot.retired) {
+                hot.counter.add(quantity);
+            } else if (!hot.leaseLost) {
+                returnToStore(sku, quantity);
+            }
+            // A lost lease was settled by reclaimLeases, which counted these units as unclaimed
+        } finally {
+            hot.lock.unlock();
+        }
+    }
+
+    /**
+     * Leases whose replica stopped renewing them. Units handed out from a lease are in
+     * holds, which return their own units, so the lease gives back what is left.
+     */
+    private void reclaimLeases() {
+        try {
+            Date now = new Date();
+            Query due = new Query(Criteria.where(LEASES + ".expiresAt").lt(now)).limit(sweepBatchSize);
+            due.fields().include(LEASES);
+            int reclaimed = 0;
+            for (Document product : mongoTemplate.find(due, Document.class, PRODUCTS)) {
+                for (Document lease : product.getList(LEASES, Document.class, List.of())) {
+                    Date expiresAt = lease.getDate("expiresAt");
+                    if (expiresAt != null && expiresAt.before(now) && reclaim(product.get("_id").toString(), lease)) {
+                        reclaimed++;
+                    }
+                }
+            }
+            if (reclaimed > 0) {
+                logger.info("Reclaimed {} expired stock leases", reclaimed);
+            }
+        } catch (Exception e) {
+            logger.error("Stock lease sweep failed", e);
+        }
+    }
+
+    private boolean reclaim(String productId, Document lease) {
+        String leaseId = lease.getString("id");
+        int units = ((Number) lease.get("units")).intValue();
+        Document claimed = mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("leaseId").is(leaseId)),
+                Aggregation.group().sum("quantity").as("units")),
+            StockReservation.class, Document.class).getUniqueMappedResult();
+        int unclaimed = Math.max(0, units - (claimed == null ? 0 : ((Number) claimed.get("units")).intValue()));
+
+        Sku sku = new Sku(productId, lease.getString("variantName"), lease.getString("variantValue"));
+        // Matches only if the owner has not renewed or topped up the lease since it was read
+        Criteria criteria = Criteria.where("_id").is(productId).and(LEASES).elemMatch(
+            Criteria.where("id").is(leaseId).and("units").is(units).and("expiresAt").is(lease.getDate("expiresAt")));
+        Update update = new Update().set("updatedAt", LocalDateTime.now()).pull(LEASES, new Document("id", leaseId));
+        boolean returned = moveStock(sku, unclaimed, criteria, update);
+        if (returned) {
+            logger.warn("Reclaimed expired lease {} on {} from replica {}: {} units returned",
+                leaseId, sku, lease.getString("replica"), unclaimed);
+        }
+        return returned;
+    }
+
+    private Date leaseExpiry() {
+        return new Date(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(leaseTtlSeconds));
+    }
+
+    // The owner stops serving a lease half a TTL after its last renewal, well before others may reclaim it
+    private long fenceNanos() {
+        return TimeUnit.SECONDS.toNanos(leaseTtlSeconds) / 2;
+    }
+
+    private void expireHolds() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Query due = new Query(Criteria.where("status").is(ReservationStatus.HELD).and("expiresAt").lt(now))
+                .limit(sweepBatchSize);
+            due.fields().include("_id");
+            List<String> ids = new ArrayList<>();
+            mongoTemplate.find(due, StockReservation.class).forEach(hold -> ids.add(hold.getId()));
+
+            int expired = 0;
+            for (String id : ids) {
+                // Replicas sweep concurrently; only the one that flips the status returns the units
+                StockReservation hold = mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(id).and("status").is(ReservationStatus.HELD)),
+                    new Update().set("status", ReservationStatus.EXPIRED).set("updatedAt", now),
+                    StockReservation.class);
+                if (hold != null) {
+                    returnToStore(skuOf(hold), hold.getQuantity());
+                    expired++;
+                }
+            }
+            if (expired > 0) {
+                logger.info("Expired {} stock reservations", expired);
+            }
+        } catch (Exception e) {
+            logger.error("Reservation expiry sweep failed", e);
+        }
+    }
+
+    private static Sku skuOf(StockReservation reservation) {
+        return new Sku(reservation.getProductId(), reservation.getVariantName(), reservation.getVariantValue());
+    }
+
+    private static final class HotSku {
+        final StripedStockCounter counter;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean retired;
+        volatile boolean leaseLost;
+        // Set by the first lease, then kept for the pool's lifetime
+        volatile String leaseId;
+        volatile long liveUntil;
+        volatile long soldOutUntil = System.nanoTime();
+        // Only touched by the scheduler thread
+        int idleSeconds;
+
+        HotSku(StripedStockCounter counter) {
+            this.counter = counter;
+        }
+
+        boolean isLive() {
+            return leaseId == null || liveUntil - System.nanoTime() > 0;
+        }
+    }
+
+    private static final class Sku {
+        final String productId;
+        final String variantName;
+        final String variantValue;
+
+        Sku(String productId, String variantName, String variantValue) {
+            this.productId = productId;
+            this.variantName = variantName;
+            this.variantValue = variantValue;
+        }
+
+        boolean isVariant() {
+            return variantName != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Sku)) return false;
+            Sku other = (Sku) o;
+            return productId.equals(other.productId)
+                && Objects.equals(variantName, other.variantName)
+                && Objects.equals(variantValue, other.variantValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productId, variantName, variantValue);
+        }
+
+        @Override
+        public String toString() {
+            return isVariant() ? productId + "[" + variantName + "=" + variantValue + "]" : productId;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.peraxis.product.inventory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Units of one SKU already taken out of Mongo and held by this replica, spread over
+ * independent stripes so concurrent buyers CAS different cache lines instead of one
+ * contended counter. A stripe never goes negative, so the counter can never hand out
+ * more than was added to it.
+ */
+final class StripedStockCounter {
+
+    private final AtomicInteger[] stripes;
+    private final int mask;
+
+    StripedStockCounter(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new AtomicInteger[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicInteger();
+        }
+        mask = size - 1;
+    }
+
+    /** Takes {@code quantity} units from a single stripe, starting at this thread's home stripe. */
+    boolean tryAcquire(int quantity) {
+        int start = (int) Thread.currentThread().getId();
+        for (int i = 0; i < stripes.length; i++) {
+            AtomicInteger stripe = stripes[(start + i) & mask];
+            int current;
+            while ((current = stripe.get()) >= quantity) {
+                if (stripe.compareAndSet(current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    void add(int units) {
+        int share = units / stripes.length;
+        int remainder = units % stripes.length;
+        for (int i = 0; i < stripes.length; i++) {
+            int amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                stripes[i].addAndGet(amount);
+            }
+        }
+    }
+
+    /**
+     * Moves every unit onto one stripe, for a request larger than any single stripe
+     * holds. Concurrent acquires may still race it; they can only take units, never add.
+     */
+    void consolidate() {
+        int total = drain();
+        if (total > 0) {
+            stripes[0].addAndGet(total);
+        }
+    }
+
+    int drain() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.getAndSet(0);
+        }
+        return total;
+    }
+
+    int available() {
+        int total = 0;
+        for (AtomicInteger stripe : stripes) {
+            total += stripe.get();
+        }
+        return total;
+    }
+}
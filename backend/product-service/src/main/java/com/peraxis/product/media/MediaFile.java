@@ -0,0 +1,29 @@
+package com.peraxis.product.media;
+
+import java.nio.file.Path;
+
+/**
+ * A stored file ready to be sent. Immutable files never change under their ETag and
+ * may be cached by clients indefinitely.
+ */
+public class MediaFile {
+    private final Path path;
+    private final long length;
+    private final String contentType;
+    private final String etag;
+    private final boolean immutable;
+
+    public MediaFile(Path path, long length, String contentType, String etag, boolean immutable) {
+        this.path = path;
+        this.length = length;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.immutable = immutable;
+    }
+
+    public Path getPath() { return path; }
+    public long getLength() { return length; }
+    public String getContentType() { return contentType; }
+    public String getEtag() { return etag; }
+    public boolean isImmutable() { return immutable; }
+}
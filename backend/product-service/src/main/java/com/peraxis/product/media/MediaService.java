@@ -0,0 +1,327 @@
+package com.peraxis.product.media;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image store on local disk. An upload is kept as-is under the
+ * SHA-256 of its bytes, so re-uploading the same image is free and a media id never
+ * changes meaning. {@link MediaVariant} derivatives are rendered once on a bounded
+ * worker pool and written next to the original; until they exist, reads fall back to
+ * the original and re-queue the work, which also covers restarts and a full queue.
+ *
+ * Files are published with an atomic rename, so a reader never sees a partial file.
+ */
+@Service
+public class MediaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaService.class);
+    private static final Pattern MEDIA_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final Map<String, String> FORMATS = Map.of(
+        "jpeg", "image/jpeg", "png", "image/png", "gif", "image/gif", "bmp", "image/bmp");
+
+    @Value("${product.media.root-dir:./data/media}")
+    private String rootDir;
+
+    @Value("${product.media.workers:2}")
+    private int workerCount;
+
+    @Value("${product.media.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Decoded size guard; a small compressed file can declare an enormous canvas
+    @Value("${product.media.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${product.media.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    @Value("${product.media.max-placeholder-edge:2000}")
+    private int maxPlaceholderEdge;
+
+    private final Map<String, Future<?>> inFlight = new ConcurrentHashMap<>();
+
+    private Path root;
+    private Path tmp;
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        tmp = Files.createDirectories(root.resolve("tmp"));
+        Files.createDirectories(root.resolve("placeholders"));
+        ImageIO.setUseCache(false);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "media-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /** Stores an uploaded image and queues its derivatives; returns the media id. */
+    public String store(InputStream content) throws IOException {
+        Path upload = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String format = checkImage(upload);
+            String id = HexFormat.of().formatHex(digest.digest());
+            Path directory = Files.createDirectories(directory(id));
+            if (findOriginal(id) == null) {
+                Files.move(upload, directory.resolve("original." + format), StandardCopyOption.ATOMIC_MOVE);
+            }
+            scheduleDerivatives(id);
+            return id;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /** The derivative if rendered, else the original (not immutable); null for unknown ids. */
+    public MediaFile resolve(String id, MediaVariant variant) throws IOException {
+        if (!MEDIA_ID.matcher(id).matches()) {
+            return null;
+        }
+        Path derivative = directory(id).resolve(variant.fileName());
+        if (Files.isRegularFile(derivative)) {
+            return new MediaFile(derivative, Files.size(derivative), "image/jpeg",
+                id.substring(0, 32) + "-" + variant.name().toLowerCase(Locale.ROOT), true);
+        }
+        Path original = findOriginal(id);
+        if (original == null) {
+            return null;
+        }
+        scheduleDerivatives(id);
+        String format = original.getFileName().toString().substring("original.".length());
+        return new MediaFile(original, Files.size(original), FORMATS.get(format), id.substring(0, 32) + "-original", false);
+    }
+
+    /** A neutral placeholder of the requested size, rendered on first use and then served from disk. */
+    public MediaFile placeholder(int width, int height) throws IOException {
+        if (width < 1 || height < 1 || width > maxPlaceholderEdge || height > maxPlaceholderEdge) {
+            throw new IllegalArgumentException("Placeholder size must be between 1 and " + maxPlaceholderEdge);
+        }
+        Path path = root.resolve("placeholders").resolve(width + "x" + height + ".png");
+        if (!Files.isRegularFile(path)) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                graphics.setColor(new Color(0xE5E7EB));
+                graphics.fillRect(0, 0, width, height);
+                graphics.setColor(new Color(0xC4C8CF));
+                graphics.setStroke(new BasicStroke(Math.max(1, Math.min(width, height) / 100f)));
+                graphics.drawLine(0, 0, width - 1, height - 1);
+                graphics.drawLine(0, height - 1, width - 1, 0);
+            } finally {
+                graphics.dispose();
+            }
+            Path part = Files.createTempFile(tmp, "placeholder-", ".part");
+            try {
+                ImageIO.write(image, "png", part.toFile());
+                Files.move(part, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+        }
+        return new MediaFile(path, Files.size(path), "image/png", "placeholder-" + width + "x" + height, true);
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "activeWorkers", workers.getActiveCount(),
+            "queued", workers.getQueue().size(),
+            "completed", workers.getCompletedTaskCount(),
+            "inFlight", inFlight.size()
+        );
+    }
+
+    private void scheduleDerivatives(String id) {
+        Path directory = directory(id);
+        boolean complete = true;
+        for (MediaVariant variant : MediaVariant.values()) {
+            complete &= Files.isRegularFile(directory.resolve(variant.fileName()));
+        }
+        if (complete) {
+            return;
+        }
+        inFlight.computeIfAbsent(id, key -> {
+            try {
+                return workers.submit(() -> render(key));
+            } catch (RejectedExecutionException e) {
+                // Queue is full; the next read of this image asks again
+                logger.debug("Derivative queue full, deferring {}", key);
+                return null;
+            }
+        });
+    }
+
+    private void render(String id) {
+        try {
+            Path original = findOriginal(id);
+            if (original == null) {
+                return;
+            }
+            BufferedImage source = ImageIO.read(original.toFile());
+            if (source == null) {
+                logger.warn("Stored media {} can no longer be decoded", id);
+                return;
+            }
+            for (MediaVariant variant : MediaVariant.values()) {
+                Path target = directory(id).resolve(variant.fileName());
+                if (!Files.isRegularFile(target)) {
+                    writeJpeg(scale(source, variant.getMaxEdge()), target);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to render derivatives for media {}", id, e);
+        } finally {
+            inFlight.remove(id);
+        }
+    }
+
+    // Halves repeatedly before the final bilinear step; one large bilinear step aliases badly
+    private static BufferedImage scale(BufferedImage source, int maxEdge) {
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            if (current != source || width != targetWidth || height != targetHeight || source.getType() != BufferedImage.TYPE_INT_RGB) {
+                BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = next.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    // JPEG has no alpha; transparent areas become white
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                    graphics.drawImage(current, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+                current = next;
+            }
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path part = Files.createTempFile(tmp, "derivative-", ".part");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(part.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    // Reads only the header: format and declared dimensions
+    private String checkImage(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Upload is not a supported image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (!FORMATS.containsKey(format)) {
+                    throw new IllegalArgumentException("Unsupported image format: " + format);
+                }
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image dimensions are too large");
+                }
+                return format;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Path findOriginal(String id) {
+        Path directory = directory(id);
+        for (String format : FORMATS.keySet()) {
+            Path candidate = directory.resolve("original." + format);
+            if (Files.isRegularFile(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Two-character fan-out keeps directories small at millions of images
+    private Path directory(String id) {
+        return root.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.peraxis.product.media;
+
+import java.util.Locale;
+
+/**
+ * Resized derivatives generated for every uploaded product image. Sizes bound the
+ * longer edge; images are never upscaled.
+ */
+public enum MediaVariant {
+    THUMBNAIL(150),
+    CARD(400),
+    ZOOM(1200);
+
+    private final int maxEdge;
+
+    MediaVariant(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge() { return maxEdge; }
+
+    public String fileName() {
+        return name().toLowerCase(Locale.ROOT) + ".jpg";
+    }
+
+    public static MediaVariant from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image variant: " + value);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.peraxis.product.popularity;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains {@code Product.popularity} from views, cart adds and purchases.
+ *
+ * The score uses forward decay: an event of weight w at time t adds
+ * {@code w * exp(lambda * (t - EPOCH))} to a product's sum, and the field stores the log
+ * of that sum. Ordering by it is the same as ordering by exponentially decayed counts,
+ * but a product without new events keeps its stored value, so each run only rewrites
+ * the products that had activity since the last one.
+ *
+ * Views come from the {@code product:views} hash kept by websocket-service. It is
+ * cumulative, so the totals already scored are kept in {@code product:popularity:views-seen}.
+ * Cart adds and purchases come from {@link PopularitySignals}. One replica scores at a
+ * time, guarded by a Redis lock.
+ */
+@Component
+public class PopularityScorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularityScorer.class);
+
+    private static final String VIEWS = "product:views";
+    private static final String VIEWS_SEEN = "product:popularity:views-seen";
+    private static final String LOCK = "product:popularity:lock";
+    private static final String PROCESSING = ":processing";
+    private static final long EPOCH_SECONDS = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond();
+    // Stands in for log(0) when a product has no score yet
+    private static final double NO_SCORE = -1e300;
+    private static final JdkSerializationRedisSerializer JDK = new JdkSerializationRedisSerializer();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${product.popularity.interval-seconds:300}")
+    private long intervalSeconds;
+
+    @Value("${product.popularity.half-life-hours:168}")
+    private double halfLifeHours;
+
+    @Value("${product.popularity.view-weight:1}")
+    private double viewWeight;
+
+    @Value("${product.popularity.cart-weight:5}")
+    private double cartWeight;
+
+    @Value("${product.popularity.purchase-weight:20}")
+    private double purchaseWeight;
+
+    @Value("${product.popularity.batch-size:1000}")
+    private int batchSize;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::runQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (Exception e) {
+            logger.error("Popularity scoring failed", e);
+        }
+    }
+
+    void run() {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK, instanceId, Duration.ofSeconds(intervalSeconds));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            double offset = Math.log(2) / (halfLifeHours * 3600) * (Instant.now().getEpochSecond() - EPOCH_SECONDS);
+
+            Map<String, Double> weights = new HashMap<>();
+            take(PopularitySignals.PENDING_CARTS).forEach((id, count) -> weights.merge(id, cartWeight * count, Double::sum));
+            take(PopularitySignals.PENDING_PURCHASES).forEach((id, count) -> weights.merge(id, purchaseWeight * count, Double::sum));
+
+            long[] totals = new long[2];
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                scoreViews(connection, weights, offset, totals);
+                return null;
+            });
+            totals[1] += apply(weights, offset);
+            redisTemplate.delete(List.of(PopularitySignals.PENDING_CARTS + PROCESSING,
+                PopularitySignals.PENDING_PURCHASES + PROCESSING));
+
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("finishedAt", LocalDateTime.now());
+            run.put("viewedProducts", totals[0]);
+            run.put("updatedProducts", totals[1]);
+            run.put("tookMs", System.currentTimeMillis() - started);
+            lastRun = run;
+        } finally {
+            if (instanceId.equals(redisTemplate.opsForValue().get(LOCK))) {
+                redisTemplate.delete(LOCK);
+            }
+        }
+    }
+
+    // Diffs the cumulative view counts against what was already scored, a chunk at a time;
+    // the seen totals move only after the chunk's scores are written
+    private void scoreViews(RedisConnection connection, Map<String, Double> otherWeights, double offset, long[] totals) {
+        List<Map.Entry<byte[], byte[]>> chunk = new ArrayList<>(batchSize);
+        try (Cursor<Map.Entry<byte[], byte[]>> cursor = connection.hashCommands()
+                .hScan(bytes(VIEWS), ScanOptions.scanOptions().count(batchSize).build())) {
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() == batchSize || !cursor.hasNext()) {
+                    totals[1] += scoreViewChunk(connection, chunk, otherWeights, offset, totals);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    private int scoreViewChunk(RedisConnection connection, List<Map.Entry<byte[], byte[]>> chunk,
+                               Map<String, Double> otherWeights, double offset, long[] totals) {
+        byte[][] fields = chunk.stream().map(Map.Entry::getKey).toArray(byte[][]::new);
+        List<byte[]> seen = connection.hashCommands().hMGet(bytes(VIEWS_SEEN), fields);
+
+        Map<String, Double> weights = new HashMap<>();
+        Map<byte[], byte[]> nowSeen = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            String productId = productIdOf(fields[i]);
+            long total = countOf(chunk.get(i).getValue());
+            long previous = seen == null || seen.get(i) == null ? 0 : countOf(seen.get(i));
+            // A total below what was seen means the counter was reset
+            long views = total >= previous ? total - previous : total;
+            if (productId == null || views <= 0) {
+                continue;
+            }
+            totals[0]++;
+            Double other = otherWeights.remove(productId);
+            weights.put(productId, viewWeight * views + (other == null ? 0 : other));
+            nowSeen.put(fields[i], Long.toString(total).getBytes(StandardCharsets.UTF_8));
+        }
+        int updated = apply(weights, offset);
+        if (!nowSeen.isEmpty()) {
+            connection.hashCommands().hMSet(bytes(VIEWS_SEEN), nowSeen);
+        }
+        return updated;
+    }
+
+    // log(exp(popularity) + exp(x)) evaluated server-side, so concurrent runs cannot lose an increment
+    private int apply(Map<String, Double> weights, double offset) {
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        weights.forEach((productId, weight) -> {
+            if (weight <= 0) {
+                return;
+            }
+            Document score = new Document("$let", new Document("vars", new Document("a",
+                    new Document("$ifNull", List.of("$popularity", NO_SCORE)))
+                    .append("b", Math.log(weight) + offset))
+                .append("in", new Document("$add", List.of(
+                    new Document("$max", List.of("$$a", "$$b")),
+                    new Document("$ln", new Document("$add", List.of(1, new Document("$exp",
+                        new Document("$subtract", List.of(
+                            new Document("$min", List.of("$$a", "$$b")),
+                            new Document("$max", List.of("$$a", "$$b"))))))))))));
+            Object id = ObjectId.isValid(productId) ? new ObjectId(productId) : productId;
+            updates.add(new UpdateOneModel<>(Filters.eq("_id", id), List.of(new Document("$set", new Document("popularity", score)))));
+            ids.add(productId);
+        });
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int updated = 0;
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            int to = Math.min(updates.size(), from + batchSize);
+            updated += mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .bulkWrite(updates.subList(from, to), new BulkWriteOptions().ordered(false))
+                .getModifiedCount();
+        }
+        productCache.invalidate(ids);
+        return updated;
+    }
+
+    // Moves the pending hash aside so increments arriving meanwhile go to a fresh one;
+    // a processing hash left by a failed run is scored first
+    private Map<String, Long> take(String pending) {
+        String processing = pending + PROCESSING;
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(processing))) {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(pending))) {
+                return Map.of();
+            }
+            redisTemplate.rename(pending, processing);
+        }
+        Map<String, Long> counts = new HashMap<>();
+        redisTemplate.<String, String>opsForHash().entries(processing)
+            .forEach((productId, count) -> counts.put(productId, Long.parseLong(count)));
+        return counts;
+    }
+
+    // websocket-service writes hash fields with the template's default JDK serializer
+    private static String productIdOf(byte[] field) {
+        if (field.length > 1 && field[0] == (byte) 0xAC && field[1] == (byte) 0xED) {
+            try {
+                Object value = JDK.deserialize(field);
+                return value instanceof String ? (String) value : null;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        return new String(field, StandardCharsets.UTF_8);
+    }
+
+    private static long countOf(byte[] value) {
+        try {
+            return Long.parseLong(new String(value, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package com.peraxis.product.popularity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts cart adds and purchases per product in memory and periodically folds them into
+ * shared Redis hashes with pipelined {@code HINCRBY}, so the request path never waits on
+ * Redis and every replica's counts reach the {@link PopularityScorer}.
+ */
+@Component
+public class PopularitySignals {
+
+    private static final Logger logger = LoggerFactory.getLogger(PopularitySignals.class);
+
+    static final String PENDING_CARTS = "product:popularity:pending:carts";
+    static final String PENDING_PURCHASES = "product:popularity:pending:purchases";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${product.popularity.flush-interval-seconds:10}")
+    private long flushIntervalSeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Map<String, LongAdder> carts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> purchases = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    public void cartAdded(String productId, int quantity) {
+        carts.computeIfAbsent(productId, key -> new LongAdder()).add(quantity);
+    }
+
+    public void purchased(String productId, int quantity) {
+        purchases.computeIfAbsent(productId, key -> new LongAdder()).add(quantity);
+    }
+
+    void flush() {
+        flush(carts, PENDING_CARTS);
+        flush(purchases, PENDING_PURCHASES);
+    }
+
+    private void flush(Map<String, LongAdder> counters, String key) {
+        Map<String, Long> drained = new HashMap<>();
+        counters.forEach((productId, counter) -> {
+            long count = counter.sumThenReset();
+            if (count > 0) {
+                drained.put(productId, count);
+            }
+        });
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection strings = (StringRedisConnection) connection;
+                drained.forEach((productId, count) -> strings.hIncrBy(key, productId, count));
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Could not flush {} popularity counters, keeping them for the next flush", drained.size(), e);
+            drained.forEach((productId, count) -> counters.computeIfAbsent(productId, k -> new LongAdder()).add(count));
+        }
+    }
+}
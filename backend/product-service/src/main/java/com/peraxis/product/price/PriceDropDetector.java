@@ -0,0 +1,90 @@
+package com.peraxis.product.price;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Looks at each recorded price change as it streams past and publishes a
+ * {@code price-drop} event on the realtime channel when the drop clears both the
+ * percentage and the absolute threshold. Only active products alert.
+ */
+@Component
+public class PriceDropDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceDropDetector.class);
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${product.price-history.realtime-channel:realtime-events}")
+    private String channel;
+
+    @Value("${product.price-history.drop.min-percent:5}")
+    private double minPercent;
+
+    @Value("${product.price-history.drop.min-amount:1.0}")
+    private double minAmount;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public boolean accept(PricePoint point) {
+        Double previous = point.getPreviousPrice();
+        Double price = point.getPrice();
+        if (!point.isActive() || previous == null || price == null || previous <= 0 || price >= previous) {
+            return false;
+        }
+        double amount = previous - price;
+        double percent = amount / previous * 100;
+        if (percent < minPercent || amount < minAmount) {
+            return false;
+        }
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "price-drop");
+        event.put("productId", point.getProductId());
+        event.put("name", point.getName());
+        event.put("price", price);
+        event.put("previousPrice", previous);
+        event.put("originalPrice", point.getOriginalPrice() != null ? point.getOriginalPrice() : 0.0);
+        event.put("dropPercent", Math.round(percent * 10) / 10.0);
+        event.put("discount", discount(price, point.getOriginalPrice()));
+        event.put("timestamp", point.getAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+            published.increment();
+            return true;
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("Could not publish price drop for product {}", point.getProductId(), e);
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "published", published.sum(),
+            "failed", failed.sum(),
+            "minPercent", minPercent,
+            "minAmount", minAmount
+        );
+    }
+
+    private static double discount(Double price, Double originalPrice) {
+        if (originalPrice == null || originalPrice == 0) return 0;
+        return ((originalPrice - price) / originalPrice) * 100;
+    }
+}
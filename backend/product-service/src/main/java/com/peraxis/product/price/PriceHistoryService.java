@@ -0,0 +1,321 @@
+package com.peraxis.product.price;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.peraxis.product.entity.PriceHistoryBucket;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Appends every price change to per-product monthly buckets in {@code price_history}.
+ * Product writes only enqueue a point; a single writer drains the queue in ordered bulk
+ * upserts, so one product's points land in the order they were made, and hands each
+ * written point to the {@link PriceDropDetector}. When the queue is full the caller
+ * writes its point itself rather than lose it.
+ *
+ * A rejected point does not cost the rest of its batch: the points before it were
+ * written, a point that lost an upsert race is retried, and the writer carries on from
+ * the next point. Only points that still fail are counted as failed.
+ */
+@Component
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+    private static final int MAX_CHART_MONTHS = 36;
+    private static final int RECONCILE_CHUNK = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PriceDropDetector dropDetector;
+
+    @Value("${product.price-history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${product.price-history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.price-history.max-points-per-bucket:1000}")
+    private int maxPointsPerBucket;
+
+    // For a point whose upsert raced another writer creating the same bucket
+    @Value("${product.price-history.max-attempts:3}")
+    private int maxAttempts;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    // Bulk imports are diffed against the buckets off the importing thread
+    private final ExecutorService reconciler = Executors.newSingleThreadExecutor();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder writtenInline = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private BlockingQueue<PricePoint> pending;
+
+    @PostConstruct
+    public void init() {
+        pending = new LinkedBlockingQueue<>(queueCapacity);
+        writer.submit(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+        writer.shutdownNow();
+        List<PricePoint> remaining = new ArrayList<>();
+        pending.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Product previous = event.getPrevious();
+        Product current = event.getCurrent();
+        if (current == null || current.getPrice() == null) {
+            return;
+        }
+        if (previous != null && Objects.equals(previous.getPrice(), current.getPrice())
+                && Objects.equals(previous.getOriginalPrice(), current.getOriginalPrice())) {
+            return;
+        }
+        record(new PricePoint(event.getProductId(), current.getName(), current.getPrice(), current.getOriginalPrice(),
+            previous == null ? null : previous.getPrice(), current.getStatus() == ProductStatus.ACTIVE,
+            LocalDateTime.now()));
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (event.getProductIds() == null || event.getProductIds().isEmpty() || event.isPriceHistoryRecorded()) {
+            return;
+        }
+        List<String> ids = List.copyOf(event.getProductIds());
+        reconciler.submit(() -> {
+            try {
+                reconcile(ids);
+            } catch (Exception e) {
+                logger.error("Price history reconcile of {} products failed", ids.size(), e);
+            }
+        });
+    }
+
+    public void record(PricePoint point) {
+        if (!pending.offer(point)) {
+            writtenInline.increment();
+            write(List.of(point));
+        }
+    }
+
+    /**
+     * The last {@code months} monthly buckets without their raw points, plus a flattened
+     * daily low/high/close series for charting. Days without a change are absent.
+     */
+    public Map<String, Object> getHistory(String productId, int months) {
+        if (months < 1 || months > MAX_CHART_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_CHART_MONTHS);
+        }
+        String from = YearMonth.now().minusMonths(months - 1).toString();
+        Query query = new Query(Criteria.where("productId").is(productId).and("month").gte(from))
+            .with(Sort.by(Sort.Direction.ASC, "month"));
+        query.fields().exclude("points");
+        List<PriceHistoryBucket> buckets = mongoTemplate.find(query, PriceHistoryBucket.class);
+
+        List<Map<String, Object>> monthly = new ArrayList<>();
+        List<Map<String, Object>> daily = new ArrayList<>();
+        for (PriceHistoryBucket bucket : buckets) {
+            Map<String, Object> month = new LinkedHashMap<>();
+            month.put("month", bucket.getMonth());
+            month.put("open", bucket.getOpen());
+            month.put("low", bucket.getLow());
+            month.put("high", bucket.getHigh());
+            month.put("close", bucket.getClose());
+            month.put("changes", bucket.getCount());
+            monthly.add(month);
+            if (bucket.getDays() != null) {
+                new TreeMap<>(bucket.getDays()).forEach((day, range) -> {
+                    Map<String, Object> point = new LinkedHashMap<>();
+                    point.put("date", bucket.getMonth() + "-" + day);
+                    point.put("low", range.getLow());
+                    point.put("high", range.getHigh());
+                    point.put("close", range.getClose());
+                    daily.add(point);
+                });
+            }
+        }
+        Map<String, Object> history = new LinkedHashMap<>();
+        history.put("productId", productId);
+        history.put("monthly", monthly);
+        history.put("daily", daily);
+        return history;
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+            "recorded", recorded.sum(),
+            "writtenInline", writtenInline.sum(),
+            "failed", failed.sum(),
+            "queued", pending.size(),
+            "drops", dropDetector.getStats()
+        );
+    }
+
+    private void drainLoop() {
+        List<PricePoint> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Price history writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PricePoint> points) {
+        int from = 0;
+        int attempts = 0;
+        while (from < points.size()) {
+            List<PricePoint> rest = points.subList(from, points.size());
+            try {
+                execute(rest);
+                written(rest);
+                return;
+            } catch (BulkOperationException e) {
+                // Ordered: the points before the first error were written, the ones after it were not tried
+                BulkWriteError error = e.getErrors().isEmpty() ? null : e.getErrors().get(0);
+                int failedAt = error == null ? rest.size() : error.getIndex();
+                written(rest.subList(0, failedAt));
+                if (error == null) {
+                    logger.warn("Price points were written but not acknowledged as requested: {}", e.getMessage());
+                    return;
+                }
+                PricePoint point = rest.get(failedAt);
+                from += failedAt;
+                attempts = failedAt == 0 ? attempts + 1 : 1;
+                if (error.getCode() == DUPLICATE_KEY && attempts < maxAttempts) {
+                    continue;
+                }
+                failed.increment();
+                logger.error("Could not record price point of product {} after {} attempts: {}",
+                    point.getProductId(), attempts, error.getMessage());
+                from++;
+                attempts = 0;
+            } catch (Exception e) {
+                // How much was applied is unknown, and retrying would count points twice
+                failed.add(rest.size());
+                logger.error("Could not record {} price points", rest.size(), e);
+                return;
+            }
+        }
+    }
+
+    private void execute(List<PricePoint> points) {
+        // Ordered, so several points for one product apply in sequence
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, PriceHistoryBucket.class);
+        for (PricePoint point : points) {
+            String month = YearMonth.from(point.getAt()).toString();
+            String day = String.format("days.%02d.", point.getAt().getDayOfMonth());
+            Double price = point.getPrice();
+            Update update = new Update()
+                .setOnInsert("productId", point.getProductId())
+                .setOnInsert("month", month)
+                .setOnInsert("open", price)
+                .setOnInsert("firstAt", point.getAt())
+                .set("close", price)
+                .set("lastAt", point.getAt())
+                .inc("count", 1)
+                .min("low", price)
+                .max("high", price)
+                .min(day + "low", price)
+                .max(day + "high", price)
+                .set(day + "close", price);
+            update.push("points").slice(-maxPointsPerBucket)
+                .each(new PriceHistoryBucket.Point(point.getAt(), price, point.getOriginalPrice()));
+            operations.upsert(new Query(Criteria.where("_id").is(PriceHistoryBucket.idOf(point.getProductId(), month))), update);
+        }
+        operations.execute();
+    }
+
+    private void written(List<PricePoint> points) {
+        recorded.add(points.size());
+        for (PricePoint point : points) {
+            if (point.isAlert()) {
+                dropDetector.accept(point);
+            }
+        }
+    }
+
+    // Imports do not say what a row's price was, so compare with this month's close
+    private void reconcile(Collection<String> ids) {
+        String month = YearMonth.now().toString();
+        List<String> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += RECONCILE_CHUNK) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + RECONCILE_CHUNK));
+
+            Query products = new Query(Criteria.where("_id").in(chunk));
+            products.fields().include("name", "price", "originalPrice", "status");
+            List<String> bucketIds = chunk.stream().map(id -> PriceHistoryBucket.idOf(id, month)).toList();
+            Query buckets = new Query(Criteria.where("_id").in(bucketIds));
+            buckets.fields().include("productId", "close");
+            Map<String, Double> closes = new HashMap<>();
+            for (PriceHistoryBucket bucket : mongoTemplate.find(buckets, PriceHistoryBucket.class)) {
+                closes.put(bucket.getProductId(), bucket.getClose());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (Product product : mongoTemplate.find(products, Product.class)) {
+                Double close = closes.get(product.getId());
+                if (product.getPrice() == null || product.getPrice().equals(close)) {
+                    continue;
+                }
+                PricePoint point = new PricePoint(product.getId(), product.getName(), product.getPrice(),
+                    product.getOriginalPrice(), close, product.getStatus() == ProductStatus.ACTIVE, now);
+                try {
+                    pending.put(point);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
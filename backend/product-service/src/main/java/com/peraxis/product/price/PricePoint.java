@@ -0,0 +1,42 @@
+package com.peraxis.product.price;
+
+import java.time.LocalDateTime;
+
+/** A price observed for a product, with the price it replaced when known. */
+public class PricePoint {
+    private final String productId;
+    private final String name;
+    private final Double price;
+    private final Double originalPrice;
+    private final Double previousPrice;
+    private final boolean active;
+    private final LocalDateTime at;
+    // False when the writer announces the change itself, e.g. a price-rule batch
+    private final boolean alert;
+
+    public PricePoint(String productId, String name, Double price, Double originalPrice,
+                      Double previousPrice, boolean active, LocalDateTime at) {
+        this(productId, name, price, originalPrice, previousPrice, active, at, true);
+    }
+
+    public PricePoint(String productId, String name, Double price, Double originalPrice,
+                      Double previousPrice, boolean active, LocalDateTime at, boolean alert) {
+        this.productId = productId;
+        this.name = name;
+        this.price = price;
+        this.originalPrice = originalPrice;
+        this.previousPrice = previousPrice;
+        this.active = active;
+        this.at = at;
+        this.alert = alert;
+    }
+
+    public String getProductId() { return productId; }
+    public String getName() { return name; }
+    public Double getPrice() { return price; }
+    public Double getOriginalPrice() { return originalPrice; }
+    public Double getPreviousPrice() { return previousPrice; }
+    public boolean isActive() { return active; }
+    public LocalDateTime getAt() { return at; }
+    public boolean isAlert() { return alert; }
+}
@@ -0,0 +1,623 @@
+package com.peraxis.product.pricing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.category.CategoryTree;
+import com.peraxis.product.entity.PriceRule;
+import com.peraxis.product.entity.PriceRuleChange;
+import com.peraxis.product.entity.PriceRuleSet;
+import com.peraxis.product.entity.PriceRuleSetStatus;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import com.peraxis.product.price.PriceHistoryService;
+import com.peraxis.product.price.PricePoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Applies and rolls back {@link PriceRuleSet}s over the catalog.
+ *
+ * A run streams the candidate products (the union of the rules' selectors) and hands
+ * them to a worker pool in chunks, with a bounded number of chunks in flight. Each
+ * chunk evaluates its products in memory, keeps only the prices that change, records
+ * the values they replace as {@link PriceRuleChange}s, then writes the new prices in one
+ * unordered bulk update. Every update is conditional on the price the chunk read, so a
+ * concurrent edit wins and is counted as a conflict.
+ *
+ * Each chunk's changes go out as one {@code price-changes} message per
+ * {@code publish-batch-size} products on the realtime channel, instead of a
+ * {@code price-drop} alert per product. A product with an outstanding change from
+ * another set is skipped, so rollbacks never stack.
+ */
+@Component
+public class PriceRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceRuleEngine.class);
+
+    private static final String[] PRODUCT_FIELDS = {
+        "name", "price", "originalPrice", "discount", "brand", "category", "subcategory", "sellerId"
+    };
+    private static final int PREVIEW_SAMPLE = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.price-history.realtime-channel:realtime-events}")
+    private String channel;
+
+    @Value("${product.pricing.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.pricing.parallelism:4}")
+    private int parallelism;
+
+    @Value("${product.pricing.publish-batch-size:200}")
+    private int publishBatchSize;
+
+    @Value("${product.pricing.max-rules:50}")
+    private int maxRules;
+
+    // A run whose set has not moved for this long is taken to have died with its replica
+    @Value("${product.pricing.stale-run-minutes:30}")
+    private long staleRunMinutes;
+
+    // One run at a time; its chunks fan out to the workers
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void init() {
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        long stale = mongoTemplate.updateMulti(
+            new Query(Criteria.where("status").in(PriceRuleSetStatus.APPLYING, PriceRuleSetStatus.ROLLING_BACK)
+                .and("updatedAt").lt(LocalDateTime.now().minusMinutes(staleRunMinutes))),
+            new Update().set("status", PriceRuleSetStatus.FAILED).set("lastError", "Run was interrupted")
+                .set("updatedAt", LocalDateTime.now()),
+            PriceRuleSet.class).getModifiedCount();
+        if (stale > 0) {
+            logger.warn("Marked {} interrupted price rule runs as FAILED; roll them back before re-applying", stale);
+        }
+    }
+
+    public PriceRuleSet create(PriceRuleSet set, String userId) {
+        validate(set);
+        set.setId(null);
+        set.setName(set.getName().trim());
+        set.setStatus(PriceRuleSetStatus.DRAFT);
+        set.setCreatedBy(userId);
+        set.setCreatedAt(LocalDateTime.now());
+        set.setUpdatedAt(set.getCreatedAt());
+        return mongoTemplate.insert(set);
+    }
+
+    public PriceRuleSet get(String id) {
+        return mongoTemplate.findById(id, PriceRuleSet.class);
+    }
+
+    public List<PriceRuleSet> list(int limit) {
+        return mongoTemplate.find(new Query().with(Sort.by(Sort.Direction.DESC, "createdAt")).limit(limit),
+            PriceRuleSet.class);
+    }
+
+    /** Evaluates the set without writing: how many products match, how many would change, and a sample. */
+    public Map<String, Object> preview(String id) {
+        PriceRuleSet set = get(id);
+        if (set == null) {
+            return null;
+        }
+        List<CompiledRule> rules = compile(set.getRules());
+        long matched = 0;
+        long changed = 0;
+        List<Map<String, Object>> sample = new ArrayList<>();
+        try (Stream<Product> products = mongoTemplate.stream(candidates(rules), Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                Double price = evaluate(rules, product);
+                if (price == null) {
+                    continue;
+                }
+                matched++;
+                if (!price.equals(product.getPrice())) {
+                    changed++;
+                    if (sample.size() < PREVIEW_SAMPLE) {
+                        sample.add(saleMove(product, price).toMap());
+                    }
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("matched", matched);
+        result.put("changed", changed);
+        result.put("sample", sample);
+        return result;
+    }
+
+    /** Starts applying the set in the background. Returns null when there is no such set. */
+    public PriceRuleSet apply(String id) {
+        PriceRuleSet set = transition(id, PriceRuleSetStatus.APPLYING, PriceRuleSetStatus.DRAFT, PriceRuleSetStatus.ROLLED_BACK);
+        if (set != null) {
+            List<CompiledRule> rules = compile(set.getRules());
+            coordinator.execute(() -> run(set, "apply", PriceRuleSetStatus.APPLIED, () ->
+                inParallel(candidates(rules), Product.class, chunk -> applyChunk(set.getId(), rules, chunk))));
+        }
+        return set;
+    }
+
+    /** Starts restoring the prices the set replaced. Returns null when there is no such set. */
+    public PriceRuleSet rollback(String id) {
+        PriceRuleSet set = transition(id, PriceRuleSetStatus.ROLLING_BACK, PriceRuleSetStatus.APPLIED, PriceRuleSetStatus.FAILED);
+        if (set != null) {
+            coordinator.execute(() -> run(set, "rollback", PriceRuleSetStatus.ROLLED_BACK, () ->
+                inParallel(new Query(Criteria.where("ruleSetId").is(set.getId())), PriceRuleChange.class,
+                    chunk -> rollbackChunk(set.getId(), chunk))));
+        }
+        return set;
+    }
+
+    private interface Run {
+        void execute() throws Exception;
+    }
+
+    private void run(PriceRuleSet set, String action, PriceRuleSetStatus done, Run work) {
+        long started = System.currentTimeMillis();
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        try {
+            work.execute();
+            update.set("status", done).set(done == PriceRuleSetStatus.APPLIED ? "appliedAt" : "rolledBackAt", LocalDateTime.now());
+            logger.info("Price rule set {} {} finished in {} ms", set.getId(), action, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            update.set("status", PriceRuleSetStatus.FAILED).set("lastError", String.valueOf(cause.getMessage()));
+            logger.error("Price rule set {} {} failed", set.getId(), action, cause);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(set.getId())), update, PriceRuleSet.class);
+    }
+
+    // Streams the query on this thread and runs `work` on the workers a chunk at a time. A
+    // failure stops further chunks, but returns only once every submitted chunk has finished,
+    // so a run marked FAILED (which allows a rollback) has no writes still in flight
+    private <T> void inParallel(Query query, Class<T> type, Consumer<List<T>> work) throws Exception {
+        Semaphore slots = new Semaphore(Math.max(1, parallelism) * 2);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        Exception failure = null;
+        try (Stream<T> stream = mongoTemplate.stream(query, type)) {
+            Iterator<T> iterator = stream.iterator();
+            while (iterator.hasNext() && !failed.get()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    List<T> batch = chunk;
+                    chunk = new ArrayList<>(chunkSize);
+                    slots.acquire();
+                    futures.add(workers.submit(() -> {
+                        try {
+                            work.accept(batch);
+                        } catch (RuntimeException | Error e) {
+                            failed.set(true);
+                            throw e;
+                        } finally {
+                            slots.release();
+                        }
+                    }));
+                }
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void applyChunk(String ruleSetId, List<CompiledRule> rules, List<Product> products) {
+        long matched = 0;
+        Map<String, PriceMove> moves = new LinkedHashMap<>();
+        for (Product product : products) {
+            Double price = evaluate(rules, product);
+            if (price == null) {
+                continue;
+            }
+            matched++;
+            if (!price.equals(product.getPrice())) {
+                moves.put(product.getId(), saleMove(product, price));
+            }
+        }
+        long skipped = 0;
+        if (!moves.isEmpty()) {
+            Query held = new Query(Criteria.where("productId").in(moves.keySet()).and("ruleSetId").ne(ruleSetId));
+            held.fields().include("productId");
+            for (PriceRuleChange other : mongoTemplate.find(held, PriceRuleChange.class)) {
+                if (moves.remove(other.getProductId()) != null) skipped++;
+            }
+        }
+        if (moves.isEmpty()) {
+            progress(ruleSetId, matched, 0, 0, skipped);
+            return;
+        }
+
+        // Recorded before the prices move, so every written price can be rolled back
+        LocalDateTime now = LocalDateTime.now();
+        List<PriceRuleChange> records = new ArrayList<>(moves.size());
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (PriceMove move : moves.values()) {
+            PriceRuleChange record = new PriceRuleChange();
+            record.setId(PriceRuleChange.idOf(ruleSetId, move.productId));
+            record.setRuleSetId(ruleSetId);
+            record.setProductId(move.productId);
+            record.setPrice(move.price);
+            record.setPreviousPrice(move.previousPrice);
+            record.setPreviousOriginalPrice(move.previousOriginalPrice);
+            record.setPreviousDiscount(move.previousDiscount);
+            record.setAppliedAt(now);
+            records.add(record);
+            updates.updateOne(
+                new Query(Criteria.where("_id").is(move.productId).and("price").is(move.previousPrice)),
+                new Update().set("price", move.price).set("originalPrice", move.originalPrice)
+                    .set("discount", move.discount).set("updatedAt", now).inc("version", 1L));
+        }
+        insertRecords(records);
+        long modified = updates.execute().getModifiedCount();
+        List<PriceMove> written = modified == moves.size() ? new ArrayList<>(moves.values()) : stillAt(moves.values());
+        announce(ruleSetId, "apply", written);
+        progress(ruleSetId, matched, written.size(), moves.size() - written.size(), skipped);
+    }
+
+    private void rollbackChunk(String ruleSetId, List<PriceRuleChange> records) {
+        Map<String, PriceMove> moves = new LinkedHashMap<>();
+        BulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (PriceRuleChange record : records) {
+            Double discount = record.getPreviousDiscount();
+            moves.put(record.getProductId(), new PriceMove(record.getProductId(), null, record.getPreviousPrice(),
+                record.getPrice(), record.getPreviousOriginalPrice(), discount == null ? 0.0 : discount, null, null));
+            Update update = new Update().set("price", record.getPreviousPrice()).set("updatedAt", now).inc("version", 1L);
+            if (record.getPreviousOriginalPrice() == null) update.unset("originalPrice");
+            else update.set("originalPrice", record.getPreviousOriginalPrice());
+            if (discount == null) update.unset("discount");
+            else update.set("discount", discount);
+            updates.updateOne(new Query(Criteria.where("_id").is(record.getProductId()).and("price").is(record.getPrice())), update);
+        }
+        long modified = updates.execute().getModifiedCount();
+        List<PriceMove> restored = stillAt(moves.values());
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(records.stream().map(PriceRuleChange::getId).toList())),
+            PriceRuleChange.class);
+        announce(ruleSetId, "rollback", restored);
+        progress(ruleSetId, records.size(), modified, records.size() - modified, 0);
+    }
+
+    // The moves whose product now carries the move's price, with the product names filled in
+    private List<PriceMove> stillAt(Iterable<PriceMove> moves) {
+        Map<String, PriceMove> byId = new LinkedHashMap<>();
+        moves.forEach(move -> byId.put(move.productId, move));
+        Query query = new Query(Criteria.where("_id").in(byId.keySet()));
+        query.fields().include("name", "price");
+        List<PriceMove> landed = new ArrayList<>();
+        for (Product product : mongoTemplate.find(query, Product.class)) {
+            PriceMove move = byId.get(product.getId());
+            if (move != null && move.price.equals(product.getPrice())) {
+                landed.add(move.name != null ? move : move.withName(product.getName()));
+            }
+        }
+        return landed;
+    }
+
+    private void insertRecords(List<PriceRuleChange> records) {
+        BulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceRuleChange.class);
+        inserts.insert(records);
+        try {
+            inserts.execute();
+        } catch (BulkOperationException e) {
+            // A record left by an earlier, interrupted run of this set still describes the original prices
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != 11000)) {
+                throw e;
+            }
+        }
+    }
+
+    // Cache, price history and listeners first, then the realtime batches
+    private void announce(String ruleSetId, String action, List<PriceMove> moves) {
+        if (moves.isEmpty()) {
+            return;
+        }
+        List<String> ids = moves.stream().map(move -> move.productId).toList();
+        productCache.invalidate(ids);
+        LocalDateTime now = LocalDateTime.now();
+        for (PriceMove move : moves) {
+            priceHistoryService.record(new PricePoint(move.productId, move.name, move.price, move.originalPrice,
+                move.previousPrice, true, now, false));
+        }
+        eventPublisher.publishEvent(new ProductsBulkChangedEvent(ids, true));
+
+        long timestamp = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (int from = 0; from < moves.size(); from += publishBatchSize) {
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (PriceMove move : moves.subList(from, Math.min(moves.size(), from + publishBatchSize))) {
+                changes.add(move.toMap());
+            }
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", "price-changes");
+            event.put("ruleSetId", ruleSetId);
+            event.put("action", action);
+            event.put("changes", changes);
+            event.put("timestamp", timestamp);
+            try {
+                redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+            } catch (Exception e) {
+                logger.warn("Could not publish {} price changes of rule set {}", changes.size(), ruleSetId, e);
+            }
+        }
+    }
+
+    private void progress(String ruleSetId, long matched, long changed, long conflicts, long skipped) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(ruleSetId)),
+            new Update().inc("matched", matched).inc("changed", changed).inc("conflicts", conflicts)
+                .inc("skipped", skipped).set("updatedAt", LocalDateTime.now()),
+            PriceRuleSet.class);
+    }
+
+    private PriceRuleSet transition(String id, PriceRuleSetStatus to, PriceRuleSetStatus... from) {
+        PriceRuleSet set = mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(id).and("status").in((Object[]) from)),
+            new Update().set("status", to).set("matched", 0L).set("changed", 0L).set("conflicts", 0L)
+                .set("skipped", 0L).unset("lastError").set("updatedAt", LocalDateTime.now()),
+            FindAndModifyOptions.options().returnNew(true),
+            PriceRuleSet.class);
+        if (set == null) {
+            PriceRuleSet existing = get(id);
+            if (existing != null) {
+                throw new IllegalStateException("Price rule set is " + existing.getStatus());
+            }
+        }
+        return set;
+    }
+
+    private Query candidates(List<CompiledRule> rules) {
+        Query query = new Query(new Criteria().andOperator(
+            Criteria.where("status").is(ProductStatus.ACTIVE).and("price").gt(0),
+            new Criteria().orOperator(rules.stream().map(rule -> rule.criteria).toList())));
+        query.fields().include(PRODUCT_FIELDS);
+        return query;
+    }
+
+    // The lowest price any matching rule gives, or null when no rule matches
+    private static Double evaluate(List<CompiledRule> rules, Product product) {
+        if (product.getPrice() == null || product.getPrice() <= 0) {
+            return null;
+        }
+        Double best = null;
+        for (CompiledRule rule : rules) {
+            if (rule.matches(product)) {
+                double price = rule.apply(product.getPrice());
+                if (best == null || price < best) best = price;
+            }
+        }
+        return best;
+    }
+
+    // The struck-through price stays the list price when the product already had one
+    private static PriceMove saleMove(Product product, double price) {
+        Double current = product.getPrice();
+        double original = product.getOriginalPrice() != null && product.getOriginalPrice() > current
+            ? product.getOriginalPrice() : current;
+        double discount = original > price ? (original - price) / original * 100 : 0.0;
+        return new PriceMove(product.getId(), product.getName(), price, current, original, discount,
+            product.getOriginalPrice(), product.getDiscount());
+    }
+
+    private void validate(PriceRuleSet set) {
+        if (set.getName() == null || set.getName().isBlank()) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        if (set.getRules() == null || set.getRules().isEmpty() || set.getRules().size() > maxRules) {
+            throw new IllegalArgumentException("A rule set needs between 1 and " + maxRules + " rules");
+        }
+        for (PriceRule rule : set.getRules()) {
+            if ((rule.getPercentOff() == null) == (rule.getAmountOff() == null)) {
+                throw new IllegalArgumentException("Each rule needs exactly one of percentOff and amountOff");
+            }
+            if (rule.getPercentOff() != null && (rule.getPercentOff() <= 0 || rule.getPercentOff() >= 100)) {
+                throw new IllegalArgumentException("percentOff must be between 0 and 100");
+            }
+            if (rule.getAmountOff() != null && rule.getAmountOff() <= 0) {
+                throw new IllegalArgumentException("amountOff must be positive");
+            }
+            if (rule.getMinPrice() != null && rule.getMaxPrice() != null && rule.getMinPrice() > rule.getMaxPrice()) {
+                throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+            }
+        }
+    }
+
+    private List<CompiledRule> compile(List<PriceRule> rules) {
+        CategoryTree tree = categoryService.current();
+        List<CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (PriceRule rule : rules) {
+            compiled.add(new CompiledRule(rule, tree));
+        }
+        return compiled;
+    }
+
+    /** A rule as a Mongo selector for the candidate scan plus the same test in memory. */
+    private final class CompiledRule {
+        final PriceRule rule;
+        final Criteria criteria;
+        final Predicate<Product> inCategory;
+
+        CompiledRule(PriceRule rule, CategoryTree tree) {
+            this.rule = rule;
+            List<Criteria> parts = new ArrayList<>();
+            if (rule.getBrand() != null && !rule.getBrand().isBlank()) {
+                parts.add(Criteria.where("brandKey").is(Product.keyOf(rule.getBrand())));
+            }
+            if (rule.getSellerId() != null) {
+                parts.add(Criteria.where("sellerId").is(rule.getSellerId()));
+            }
+            if (rule.getMinPrice() != null) {
+                parts.add(Criteria.where("price").gte(rule.getMinPrice()));
+            }
+            if (rule.getMaxPrice() != null) {
+                parts.add(Criteria.where("price").lte(rule.getMaxPrice()));
+            }
+            if (rule.getCategory() != null && !rule.getCategory().isBlank()) {
+                parts.add(categoryService.subtreeCriteria(rule.getCategory()));
+                inCategory = categoryPredicate(tree, rule.getCategory());
+            } else {
+                inCategory = product -> true;
+            }
+            this.criteria = parts.isEmpty() ? new Criteria() : new Criteria().andOperator(parts);
+        }
+
+        boolean matches(Product product) {
+            double price = product.getPrice();
+            return (rule.getBrand() == null || rule.getBrand().isBlank()
+                    || Product.keyOf(rule.getBrand()).equals(Product.keyOf(product.getBrand())))
+                && (rule.getSellerId() == null || rule.getSellerId().equals(product.getSellerId()))
+                && (rule.getMinPrice() == null || price >= rule.getMinPrice())
+                && (rule.getMaxPrice() == null || price <= rule.getMaxPrice())
+                && inCategory.test(product);
+        }
+
+        // Rounded to paise, and never free
+        double apply(double price) {
+            double discounted = rule.getPercentOff() != null
+                ? price * (1 - rule.getPercentOff() / 100)
+                : price - rule.getAmountOff();
+            return Math.max(0.01, Math.round(discounted * 100) / 100.0);
+        }
+    }
+
+    // Mirrors CategoryTree.subtreeCriteria, with CategoryService's fallback, on the same keys
+    private static Predicate<Product> categoryPredicate(CategoryTree tree, String key) {
+        List<CategoryTree.Node> nodes = tree.find(key);
+        if (nodes.isEmpty()) {
+            String category = Product.keyOf(key);
+            return product -> category.equals(Product.keyOf(product.getCategory()));
+        }
+        return product -> {
+            String category = Product.keyOf(product.getCategory());
+            String subcategory = Product.keyOf(product.getSubcategory());
+            for (CategoryTree.Node node : nodes) {
+                if (node.getDepth() == 0 ? Product.keyOf(node.getName()).equals(category)
+                        : Product.keyOf(node.getRootName()).equals(category) && subcategory != null
+                          && node.getSubtreeNames().stream().anyMatch(name -> Product.keyOf(name).equals(subcategory))) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static final class PriceMove {
+        final String productId;
+        final String name;
+        final Double price;
+        final Double previousPrice;
+        final Double originalPrice;
+        final Double discount;
+        // What a rollback restores
+        final Double previousOriginalPrice;
+        final Double previousDiscount;
+
+        PriceMove(String productId, String name, Double price, Double previousPrice, Double originalPrice,
+                  Double discount, Double previousOriginalPrice, Double previousDiscount) {
+            this.productId = productId;
+            this.name = name;
+            this.price = price;
+            this.previousPrice = previousPrice;
+            this.originalPrice = originalPrice;
+            this.discount = discount;
+            this.previousOriginalPrice = previousOriginalPrice;
+            this.previousDiscount = previousDiscount;
+        }
+
+        PriceMove withName(String name) {
+            return new PriceMove(productId, name, price, previousPrice, originalPrice, discount,
+                previousOriginalPrice, previousDiscount);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> change = new LinkedHashMap<>();
+            change.put("productId", productId);
+            change.put("name", name);
+            change.put("price", price);
+            change.put("previousPrice", previousPrice);
+            change.put("originalPrice", originalPrice);
+            change.put("discount", discount == null ? 0.0 : Math.round(discount * 10) / 10.0);
+            return change;
+        }
+    }
+}
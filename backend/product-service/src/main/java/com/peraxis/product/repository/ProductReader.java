@@ -0,0 +1,122 @@
+package com.peraxis.product.repository;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductCodec;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Product list reads decoded by {@link ProductCodec} instead of the reflective mapping
+ * converter. Filters, projections and sorts still go through Spring Data's
+ * {@link QueryMapper}, so ids, enums and field names are translated exactly as
+ * {@code mongoTemplate.find} would; only the decoding of results differs.
+ * {@code product.codec.enabled=false} falls back to the template.
+ *
+ * {@link #browse} runs the same read with the browse read preference, for catalog
+ * pages that tolerate replica lag; {@link #find} always reads the primary.
+ * {@link #browseStream} is the lazy form of {@link #browse} for streamed listings.
+ */
+@Component
+public class ProductReader {
+
+    private static final CodecRegistry CODECS = CodecRegistries.fromRegistries(
+        CodecRegistries.fromCodecs(new ProductCodec()),
+        MongoClientSettings.getDefaultCodecRegistry());
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    @Qualifier("browseMongoTemplate")
+    private MongoTemplate browseMongoTemplate;
+
+    @Autowired
+    private ReadPreference browseReadPreference;
+
+    @Value("${product.codec.enabled:true}")
+    private boolean enabled;
+
+    private QueryMapper queryMapper;
+    private MongoPersistentEntity<?> entity;
+
+    @PostConstruct
+    public void init() {
+        queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+    }
+
+    public List<Product> find(Query query) {
+        return find(query, mongoTemplate, ReadPreference.primary());
+    }
+
+    public List<Product> browse(Query query) {
+        return find(query, browseMongoTemplate, browseReadPreference);
+    }
+
+    /**
+     * Browse read as a lazy stream over an open cursor that fetches {@code batchSize}
+     * documents per round trip. The caller must close the stream.
+     */
+    public Stream<Product> browseStream(Query query, int batchSize) {
+        if (!enabled) {
+            return browseMongoTemplate.stream(Query.of(query).cursorBatchSize(batchSize), Product.class);
+        }
+        MongoCursor<Product> cursor = iterable(query, browseReadPreference).batchSize(batchSize).cursor();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+            .onClose(cursor::close);
+    }
+
+    private List<Product> find(Query query, MongoTemplate template, ReadPreference readPreference) {
+        if (!enabled) {
+            return template.find(query, Product.class);
+        }
+        return iterable(query, readPreference).into(new ArrayList<>());
+    }
+
+    private FindIterable<Product> iterable(Query query, ReadPreference readPreference) {
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document fields = queryMapper.getMappedFields(query.getFieldsObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        return mongoTemplate.execute(Product.class, collection -> {
+            FindIterable<Product> cursor = collection.withCodecRegistry(CODECS)
+                .withReadPreference(readPreference)
+                .withDocumentClass(Product.class)
+                .find(filter);
+            if (!fields.isEmpty()) {
+                cursor.projection(fields);
+            }
+            if (!sort.isEmpty()) {
+                cursor.sort(sort);
+            }
+            if (query.getSkip() > 0) {
+                cursor.skip((int) query.getSkip());
+            }
+            if (query.isLimited()) {
+                cursor.limit(query.getLimit());
+            }
+            return cursor;
+        });
+    }
+}
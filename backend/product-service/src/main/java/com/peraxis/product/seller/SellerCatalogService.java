@@ -0,0 +1,328 @@
+package com.peraxis.product.seller;
+
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.entity.SellerStats;
+import com.peraxis.product.entity.StockLevel;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import com.peraxis.product.facet.FacetQuery;
+import com.peraxis.product.repository.ProductReader;
+import com.peraxis.product.service.ProductCursor;
+import com.peraxis.product.service.ProductFields;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A seller's own catalog: a keyset-paged listing on the {@code sellerId_*} indexes and
+ * the {@link SellerStats} counters behind the dashboard.
+ *
+ * Counters move by {@code $inc} deltas: each product write retracts the keys its
+ * previous version counted under and adds the current version's, and stock moves from
+ * reservations shift a product between stock levels. Bulk imports, a missing counter
+ * document and a failed increment fall back to recounting that seller from its products;
+ * a periodic full recount repairs drift from writes that raced on the same product.
+ */
+@Component
+public class SellerCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerCatalogService.class);
+
+    private static final String SORT_FIELD = "createdAt";
+    private static final String UNKNOWN_STATUS = "UNKNOWN";
+    private static final String ALL_SELLERS = "";
+
+    // StockLevel.of as an aggregation expression, for ACTIVE products only
+    private static final Document STOCK_LEVEL = new Document("$cond", Arrays.asList(
+        new Document("$eq", List.of("$status", ProductStatus.ACTIVE.name())),
+        new Document("$switch", new Document("branches", List.of(
+            new Document("case", new Document("$not", List.of(
+                new Document("$gt", List.of(new Document("$ifNull", List.of("$stock", 0)), 0)))))
+                .append("then", StockLevel.OUT_OF_STOCK.name()),
+            new Document("case", new Document("$lte", List.of("$stock", new Document("$ifNull", List.of("$minStock", -1)))))
+                .append("then", StockLevel.LOW_STOCK.name())))
+            .append("default", StockLevel.IN_STOCK.name())),
+        null));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductReader productReader;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Value("${product.sellers.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${product.sellers.recount-interval-minutes:1440}")
+    private long recountIntervalMinutes;
+
+    @Value("${product.sellers.recount-delay-ms:2000}")
+    private long recountDelayMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Set<String> pendingRecounts = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(() -> requestRecount(ALL_SELLERS),
+            recountIntervalMinutes, recountIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * One page of the seller's products, newest first. {@code status} and
+     * {@code stockStatus} are optional comma-separated filters.
+     */
+    public CursorPage<Product> findProducts(String sellerId, String status, String stockStatus,
+                                            String cursor, int size, ProductFields fields) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("sellerId").is(sellerId));
+        Set<String> statuses = statusesOf(status);
+        if (!statuses.isEmpty()) {
+            criteria.add(Criteria.where("status").in(statuses));
+        }
+        criteria.addAll(FacetQuery.parse(null, null, stockStatus, null, null, null, null).toCriteria(categoryService));
+        if (cursor != null && !cursor.isEmpty()) {
+            ProductCursor after = ProductCursor.decode(cursor);
+            if (!SORT_FIELD.equals(after.getSortField())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            criteria.add(after.toCriteria(Sort.Direction.DESC));
+        }
+
+        Query query = new Query(new Criteria().andOperator(criteria));
+        query.with(Sort.by(Sort.Direction.DESC, SORT_FIELD, "_id"));
+        query.limit(pageSize + 1);
+        fields.project(query, SORT_FIELD);
+        // Sellers read their own writes, so this stays on the primary
+        List<Product> products = productReader.find(query);
+
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            nextCursor = ProductCursor.after(products.get(pageSize - 1), SORT_FIELD).encode();
+        }
+        return new CursorPage<>(products, nextCursor, null, false);
+    }
+
+    /** The seller's counters; the first read for a seller without any counts them. */
+    public SellerStats getStats(String sellerId) {
+        SellerStats stats = mongoTemplate.findById(sellerId, SellerStats.class);
+        return stats != null ? stats : recount(sellerId);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        count(deltas, event.getPrevious(), -1);
+        count(deltas, event.getCurrent(), 1);
+        deltas.forEach(this::apply);
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (event.getProductIds().isEmpty()) {
+            requestRecount(ALL_SELLERS);
+            return;
+        }
+        List<String> ids = List.copyOf(event.getProductIds());
+        scheduler.execute(() -> {
+            try {
+                mongoTemplate.findDistinct(new Query(Criteria.where("_id").in(ids)), "sellerId", Product.class, String.class)
+                    .forEach(this::requestRecount);
+            } catch (Exception e) {
+                logger.error("Could not find sellers of {} imported products", ids.size(), e);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (mongoTemplate.count(new Query(), SellerStats.class) == 0) {
+            requestRecount(ALL_SELLERS);
+        }
+    }
+
+    /**
+     * A reservation or its release moved {@code delta} units; {@code after} carries the
+     * product's sellerId, status, stock and minStock once the move is applied.
+     */
+    public void stockMoved(Product after, int delta) {
+        if (after == null || after.getSellerId() == null || after.getStock() == null
+                || after.getStatus() != ProductStatus.ACTIVE) {
+            return;
+        }
+        StockLevel before = StockLevel.of(after.getStock() - delta, after.getMinStock());
+        StockLevel now = StockLevel.of(after.getStock(), after.getMinStock());
+        if (before != now) {
+            Map<String, Long> moved = new HashMap<>();
+            moved.put("stockLevels." + before.name(), -1L);
+            moved.put("stockLevels." + now.name(), 1L);
+            apply(after.getSellerId(), moved);
+        }
+    }
+
+    /** Schedules a recount of one seller, or of every seller when {@code sellerId} is blank. */
+    public void requestRecount(String sellerId) {
+        String key = sellerId == null ? ALL_SELLERS : sellerId;
+        if (pendingRecounts.add(key)) {
+            scheduler.schedule(() -> {
+                pendingRecounts.remove(key);
+                try {
+                    if (key.isEmpty()) {
+                        recountAll();
+                    } else {
+                        recount(key);
+                    }
+                } catch (Exception e) {
+                    logger.error("Seller stats recount failed for {}", key.isEmpty() ? "all sellers" : key, e);
+                }
+            }, recountDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Replaces the seller's counters with a count of its products. */
+    public SellerStats recount(String sellerId) {
+        SellerStats stats = aggregate(Criteria.where("sellerId").is(sellerId)).get(sellerId);
+        if (stats == null) {
+            stats = new SellerStats();
+            stats.setSellerId(sellerId);
+        }
+        stamp(stats);
+        return mongoTemplate.save(stats);
+    }
+
+    public int recountAll() {
+        long started = System.currentTimeMillis();
+        Map<String, SellerStats> all = aggregate(Criteria.where("sellerId").type(2));
+        for (SellerStats stats : all.values()) {
+            stamp(stats);
+            mongoTemplate.save(stats);
+        }
+        logger.info("Recounted stats for {} sellers in {} ms", all.size(), System.currentTimeMillis() - started);
+        return all.size();
+    }
+
+    // Groups by (seller, status, stock level) in one pass over the matched products
+    private Map<String, SellerStats> aggregate(Criteria match) {
+        List<Document> pipeline = List.of(
+            new Document("$match", match.getCriteriaObject()),
+            new Document("$group", new Document("_id", new Document("seller", "$sellerId")
+                    .append("status", "$status").append("level", STOCK_LEVEL))
+                .append("count", new Document("$sum", 1L))));
+        Map<String, SellerStats> bySeller = new LinkedHashMap<>();
+        for (Document group : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class)).aggregate(pipeline)) {
+            Document key = group.get("_id", Document.class);
+            String sellerId = key.getString("seller");
+            long count = ((Number) group.get("count")).longValue();
+            SellerStats stats = bySeller.computeIfAbsent(sellerId, id -> {
+                SellerStats created = new SellerStats();
+                created.setSellerId(id);
+                return created;
+            });
+            stats.setTotal(stats.getTotal() + count);
+            Object status = key.get("status");
+            stats.getStatuses().merge(status instanceof String ? (String) status : UNKNOWN_STATUS, count, Long::sum);
+            Object level = key.get("level");
+            if (level instanceof String) {
+                stats.getStockLevels().merge((String) level, count, Long::sum);
+            }
+        }
+        return bySeller;
+    }
+
+    private void apply(String sellerId, Map<String, Long> delta) {
+        delta.values().removeIf(value -> value == 0);
+        if (delta.isEmpty()) {
+            return;
+        }
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        delta.forEach(update::inc);
+        try {
+            // A delta alone is not a count; a seller without counters yet is recounted instead
+            if (mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(sellerId)), update, SellerStats.class)
+                    .getMatchedCount() == 0) {
+                requestRecount(sellerId);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not update stats for seller {}, recounting", sellerId, e);
+            requestRecount(sellerId);
+        }
+    }
+
+    private static void count(Map<String, Map<String, Long>> deltas, Product product, long sign) {
+        if (product == null || product.getSellerId() == null) {
+            return;
+        }
+        Map<String, Long> delta = deltas.computeIfAbsent(product.getSellerId(), id -> new HashMap<>());
+        String status = product.getStatus() == null ? UNKNOWN_STATUS : product.getStatus().name();
+        delta.merge("total", sign, Long::sum);
+        delta.merge("statuses." + status, sign, Long::sum);
+        if (ProductStatus.ACTIVE.name().equals(status)) {
+            delta.merge("stockLevels." + StockLevel.of(product.getStock(), product.getMinStock()).name(), sign, Long::sum);
+        }
+    }
+
+    private static void stamp(SellerStats stats) {
+        LocalDateTime now = LocalDateTime.now();
+        stats.setUpdatedAt(now);
+        stats.setRecountedAt(now);
+    }
+
+    private static Set<String> statusesOf(String raw) {
+        Set<String> statuses = new LinkedHashSet<>();
+        if (raw == null || raw.isBlank()) {
+            return statuses;
+        }
+        for (String value : raw.split(",")) {
+            String status = value.trim().toUpperCase(Locale.ROOT);
+            if (status.isEmpty()) {
+                continue;
+            }
+            try {
+                statuses.add(ProductStatus.valueOf(status).name());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported status: " + value.trim());
+            }
+        }
+        return statuses;
+    }
+}
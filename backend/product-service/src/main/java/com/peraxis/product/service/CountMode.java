@@ -0,0 +1,16 @@
+package com.peraxis.product.service;
+
+public enum CountMode {
+    NONE, ESTIMATED, EXACT;
+
+    public static CountMode from(String value) {
+        if (value == null || value.isEmpty()) {
+            return NONE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported total mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.peraxis.product.service;
+
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import com.peraxis.product.repository.ProductReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precomputed homepage rails (featured, trending, deals, categories) of summary-projected
+ * products. Readers get an immutable snapshot that is replaced wholesale after each
+ * rebuild, so serving a rail is a memory read. Local writes trigger a debounced rebuild;
+ * the periodic refresh picks up writes made on other replicas.
+ */
+@Component
+public class HomepageRails {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomepageRails.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ProductReader productReader;
+
+    @Value("${product.rails.capacity:50}")
+    private int capacity;
+
+    @Value("${product.rails.refresh-interval-seconds:300}")
+    private long refreshIntervalSeconds;
+
+    @Value("${product.rails.rebuild-delay-ms:2000}")
+    private long rebuildDelayMs;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly,
+            refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // First request raced startup; build inline once rather than serve empty rails
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        requestRebuild();
+    }
+
+    // Bursts of writes collapse into a single rebuild
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::rebuildQuietly, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Homepage rail rebuild failed, keeping previous snapshot", e);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        Snapshot next = new Snapshot(
+            findActive(Criteria.where("featured").is(true)),
+            findActive(Criteria.where("trending").is(true)),
+            findActive(Criteria.where("discount").gt(0)),
+            mongoTemplate.findDistinct("category", Product.class, String.class).stream()
+                .filter(Objects::nonNull)
+                .toList(),
+            LocalDateTime.now()
+        );
+        snapshot = next;
+    }
+
+    private List<Product> findActive(Criteria criteria) {
+        Query query = new Query(criteria.and("status").is("ACTIVE"));
+        query.limit(capacity);
+        ProductFields.SUMMARY.project(query);
+        return List.copyOf(productReader.find(query));
+    }
+
+    public static final class Snapshot {
+        private final List<Product> featured;
+        private final List<Product> trending;
+        private final List<Product> deals;
+        private final List<String> categories;
+        private final LocalDateTime builtAt;
+
+        Snapshot(List<Product> featured, List<Product> trending, List<Product> deals,
+                 List<String> categories, LocalDateTime builtAt) {
+            this.featured = featured;
+            this.trending = trending;
+            this.deals = deals;
+            this.categories = categories;
+            this.builtAt = builtAt;
+        }
+
+        public List<Product> featured(int limit) { return head(featured, limit); }
+        public List<Product> trending(int limit) { return head(trending, limit); }
+        public List<Product> deals(int limit) { return head(deals, limit); }
+        public List<String> getCategories() { return categories; }
+        public LocalDateTime getBuiltAt() { return builtAt; }
+
+        private static List<Product> head(List<Product> rail, int limit) {
+            return limit >= rail.size() ? rail : rail.subList(0, Math.max(0, limit));
+        }
+    }
+}
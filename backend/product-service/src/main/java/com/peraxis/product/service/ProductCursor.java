@@ -0,0 +1,109 @@
+package com.peraxis.product.service;
+
+import com.peraxis.product.entity.Product;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset-paging token: the sort value and id of the last product on a page.
+ * The next page starts strictly after that (sortValue, _id) pair, so deep pages
+ * cost the same as the first one instead of skipping over everything before them.
+ */
+public final class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortField;
+    private final Object sortValue;
+    private final String lastId;
+
+    private ProductCursor(String sortField, Object sortValue, String lastId) {
+        this.sortField = sortField;
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    public static ProductCursor after(Product last, String sortField) {
+        return new ProductCursor(sortField, sortValueOf(last, sortField), last.getId());
+    }
+
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // field|type|id|value - value last so string sort keys may contain the separator
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ProductCursor(parts[0], parseValue(parts[1], parts[3]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sortField + SEPARATOR + typeOf(sortValue) + SEPARATOR + lastId + SEPARATOR
+                + (sortValue == null ? "" : sortValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortField() { return sortField; }
+
+    /**
+     * Criteria selecting rows after this cursor for a (sortField, _id) ordering in the
+     * given direction. Mongo orders missing/null values lowest, so they are handled
+     * explicitly instead of being silently dropped by the range comparison.
+     */
+    public Criteria toCriteria(Sort.Direction direction) {
+        boolean desc = direction == Sort.Direction.DESC;
+        // The query mapper converts _id only for equality, so range bounds need the ObjectId here
+        Object lastId = ObjectId.isValid(this.lastId) ? new ObjectId(this.lastId) : this.lastId;
+        if (sortValue == null) {
+            Criteria sameValue = Criteria.where(sortField).is(null);
+            sameValue = desc ? sameValue.and("_id").lt(lastId) : sameValue.and("_id").gt(lastId);
+            return desc ? sameValue : new Criteria().orOperator(sameValue, Criteria.where(sortField).ne(null));
+        }
+        Criteria beyond = desc ? Criteria.where(sortField).lt(sortValue) : Criteria.where(sortField).gt(sortValue);
+        Criteria tie = desc
+                ? Criteria.where(sortField).is(sortValue).and("_id").lt(lastId)
+                : Criteria.where(sortField).is(sortValue).and("_id").gt(lastId);
+        return desc
+                ? new Criteria().orOperator(beyond, tie, Criteria.where(sortField).is(null))
+                : new Criteria().orOperator(beyond, tie);
+    }
+
+    static Object sortValueOf(Product product, String sortField) {
+        switch (sortField) {
+            case "createdAt": return product.getCreatedAt();
+            case "updatedAt": return product.getUpdatedAt();
+            case "price": return product.getPrice();
+            case "rating": return product.getRating();
+            case "popularity": return product.getPopularity();
+            case "name": return product.getName();
+            default: throw new IllegalArgumentException("Unsupported sort field: " + sortField);
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value == null) return "n";
+        if (value instanceof LocalDateTime) return "t";
+        if (value instanceof Number) return "d";
+        return "s";
+    }
+
+    private static Object parseValue(String type, String value) {
+        switch (type) {
+            case "n": return null;
+            case "t": return LocalDateTime.parse(value);
+            case "d": return Double.valueOf(value);
+            case "s": return value;
+            default: throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
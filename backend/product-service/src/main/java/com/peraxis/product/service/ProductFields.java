@@ -0,0 +1,180 @@
+package com.peraxis.product.service;
+
+import com.peraxis.product.dto.ProductSummary;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.StockLevel;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which parts of a product a read returns: the full document, the card-sized
+ * {@link ProductSummary}, or a client-chosen sparse fieldset ({@code fields=id,name,price}).
+ * The same instance drives both the Mongo projection and the rendering, so fields that
+ * are not returned are never decoded either.
+ */
+public final class ProductFields {
+
+    private enum Kind { FULL, SUMMARY, SPARSE }
+
+    private static final Set<String> SELECTABLE = Set.of(
+        "id", "name", "description", "category", "subcategory", "brand", "sku",
+        "price", "originalPrice", "discount", "stock", "minStock", "stockStatus", "stockLevel",
+        "image", "images", "videos", "arModel", "vrModel", "specifications", "variants", "tags",
+        "relatedProductIds", "rating", "ratingHistogram", "reviewCount", "popularity", "sellerId", "sellerName", "status", "featured", "trending",
+        "createdAt", "updatedAt", "version"
+    );
+    private static final List<String> SUMMARY_FIELDS = List.of(
+        "name", "category", "brand", "price", "originalPrice", "discount", "rating", "reviewCount",
+        "stock", "minStock", "featured", "trending"
+    );
+    // Everything a summary-projected document can answer, including derived fields
+    private static final Set<String> SUMMARY_COVERED = Set.of(
+        "id", "name", "category", "brand", "price", "originalPrice", "discount", "rating", "reviewCount",
+        "stock", "minStock", "stockLevel", "image", "featured", "trending"
+    );
+
+    public static final ProductFields FULL = new ProductFields(Kind.FULL, List.of());
+    public static final ProductFields SUMMARY = new ProductFields(Kind.SUMMARY, List.of());
+
+    private final Kind kind;
+    private final List<String> selected;
+
+    private ProductFields(Kind kind, List<String> selected) {
+        this.kind = kind;
+        this.selected = selected;
+    }
+
+    /** Blank means the summary view; otherwise a comma-separated list of product fields. */
+    public static ProductFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return SUMMARY;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SELECTABLE.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return new ProductFields(Kind.SPARSE, List.copyOf(selected));
+    }
+
+    public boolean isFull() {
+        return kind == Kind.FULL;
+    }
+
+    /** True when a document projected to the summary fields can be rendered with this fieldset. */
+    public boolean isCoveredBySummary() {
+        return kind == Kind.SUMMARY || (kind == Kind.SPARSE && SUMMARY_COVERED.containsAll(selected));
+    }
+
+    /**
+     * Restricts the query to the fields this view needs. {@code alwaysInclude} names
+     * fields the caller reads itself, such as a keyset sort key.
+     */
+    public void project(Query query, String... alwaysInclude) {
+        if (kind == Kind.FULL) {
+            return;
+        }
+        Set<String> include = new LinkedHashSet<>();
+        boolean firstImageOnly = kind == Kind.SUMMARY;
+        if (kind == Kind.SUMMARY) {
+            include.addAll(SUMMARY_FIELDS);
+        } else {
+            for (String field : selected) {
+                switch (field) {
+                    case "id": break;
+                    case "image": firstImageOnly = true; break;
+                    case "stockLevel": include.add("stock"); include.add("minStock"); break;
+                    default: include.add(field);
+                }
+            }
+        }
+        if (include.contains("images")) {
+            firstImageOnly = false;
+        }
+        include.addAll(List.of(alwaysInclude));
+
+        Field projection = query.fields().include("_id");
+        for (String field : include) {
+            projection.include(field);
+        }
+        if (firstImageOnly) {
+            projection.slice("images", 1);
+        }
+    }
+
+    public Object render(Product product) {
+        switch (kind) {
+            case FULL: return product;
+            case SUMMARY: return new ProductSummary(product);
+            default:
+                Map<String, Object> view = new LinkedHashMap<>();
+                for (String field : selected) {
+                    view.put(field, valueOf(product, field));
+                }
+                return view;
+        }
+    }
+
+    public List<Object> render(List<Product> products) {
+        List<Object> rendered = new ArrayList<>(products.size());
+        for (Product product : products) {
+            rendered.add(render(product));
+        }
+        return rendered;
+    }
+
+    private static Object valueOf(Product product, String field) {
+        switch (field) {
+            case "id": return product.getId();
+            case "name": return product.getName();
+            case "description": return product.getDescription();
+            case "category": return product.getCategory();
+            case "subcategory": return product.getSubcategory();
+            case "brand": return product.getBrand();
+            case "sku": return product.getSku();
+            case "price": return product.getPrice();
+            case "originalPrice": return product.getOriginalPrice();
+            case "discount": return product.getDiscount();
+            case "stock": return product.getStock();
+            case "minStock": return product.getMinStock();
+            case "stockStatus": return product.getStockStatus();
+            case "stockLevel": return StockLevel.of(product.getStock(), product.getMinStock());
+            case "image": return product.getImages() == null || product.getImages().isEmpty() ? null : product.getImages().get(0);
+            case "images": return product.getImages();
+            case "videos": return product.getVideos();
+            case "arModel": return product.getArModel();
+            case "vrModel": return product.getVrModel();
+            case "specifications": return product.getSpecifications();
+            case "variants": return product.getVariants();
+            case "tags": return product.getTags();
+            case "relatedProductIds": return product.getRelatedProductIds();
+            case "rating": return product.getRating();
+            case "reviewCount": return product.getReviewCount();
+            case "ratingHistogram": return product.getRatingHistogram();
+            case "popularity": return product.getPopularity();
+            case "sellerId": return product.getSellerId();
+            case "sellerName": return product.getSellerName();
+            case "status": return product.getStatus();
+            case "featured": return product.isFeatured();
+            case "trending": return product.isTrending();
+            case "createdAt": return product.getCreatedAt();
+            case "updatedAt": return product.getUpdatedAt();
+            case "version": return product.getVersion();
+            default: throw new IllegalArgumentException("Unknown field: " + field);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.peraxis.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.entity.Product;
+import org.bson.Document;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A validated set of field changes to one product. Values are converted through the
+ * {@link Product} mapping, so a patch accepts exactly what the entity would, and the
+ * whole patch becomes a single pipeline update. {@code discount} and the category, subcategory
+ * and brand keys are not writable; the update derives them from the values the product ends
+ * up with.
+ */
+public final class ProductPatch {
+
+    /** Fields clients may write directly; identity, audit, rating and version fields are server-owned. */
+    public static final List<String> FIELDS = List.of(
+        "name", "description", "category", "subcategory", "brand", "price", "originalPrice",
+        "stock", "minStock", "stockStatus", "images", "videos", "arModel", "vrModel",
+        "specifications", "variants", "tags", "status", "featured", "trending", "sellerName"
+    );
+
+    // (originalPrice - price) / originalPrice * 100 when there is a markdown, else 0
+    private static final Document DISCOUNT = new Document("$cond", List.of(
+        new Document("$and", List.of(
+            new Document("$isNumber", "$price"),
+            new Document("$isNumber", "$originalPrice"),
+            new Document("$gt", List.of("$originalPrice", "$price")))),
+        new Document("$multiply", List.of(
+            new Document("$divide", List.of(new Document("$subtract", List.of("$originalPrice", "$price")), "$originalPrice")),
+            100)),
+        0.0));
+
+    private static final Document CATEGORY_KEY = keyExpression("category");
+    private static final Document SUBCATEGORY_KEY = keyExpression("subcategory");
+    private static final Document BRAND_KEY = keyExpression("brand");
+
+    private final Map<String, Object> values;
+
+    private ProductPatch(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    public static ProductPatch of(Map<String, Object> changes, ObjectMapper objectMapper) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("No fields to update");
+        }
+        for (String field : changes.keySet()) {
+            if (!FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be updated: " + field);
+            }
+        }
+        Product parsed = objectMapper.convertValue(changes, Product.class);
+        BeanWrapperImpl bean = new BeanWrapperImpl(parsed);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            if (changes.containsKey(field)) {
+                values.put(field, bean.getPropertyValue(field));
+            }
+        }
+        validate(values);
+        return new ProductPatch(values);
+    }
+
+    /**
+     * A full replace (PUT) of every client-writable field except {@code stock}, which
+     * reservations move concurrently and which is set through PATCH.
+     */
+    public static ProductPatch replacing(Product product) {
+        BeanWrapperImpl bean = new BeanWrapperImpl(product);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            if (!"stock".equals(field)) {
+                values.put(field, bean.getPropertyValue(field));
+            }
+        }
+        validate(values);
+        return new ProductPatch(values);
+    }
+
+    /** The row's values for each client-writable field in {@code fields}, for an import upsert. */
+    public static ProductPatch importing(Product product, Collection<String> fields) {
+        BeanWrapperImpl bean = new BeanWrapperImpl(product);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : FIELDS) {
+            if (fields.contains(field)) {
+                values.put(field, bean.getPropertyValue(field));
+            }
+        }
+        validate(values);
+        return new ProductPatch(values);
+    }
+
+    private static void validate(Map<String, Object> values) {
+        if (values.containsKey("name") && (values.get("name") == null || ((String) values.get("name")).isBlank())) {
+            throw new IllegalArgumentException("name must not be blank");
+        }
+        if (values.containsKey("price") && (values.get("price") == null || (Double) values.get("price") < 0)) {
+            throw new IllegalArgumentException("price must not be negative");
+        }
+        if (values.get("originalPrice") != null && (Double) values.get("originalPrice") < 0) {
+            throw new IllegalArgumentException("originalPrice must not be negative");
+        }
+        for (String field : List.of("stock", "minStock")) {
+            Object value = values.get(field);
+            if (value != null && (Integer) value < 0) {
+                throw new IllegalArgumentException(field + " must not be negative");
+            }
+        }
+    }
+
+    public boolean contains(String field) {
+        return values.containsKey(field);
+    }
+
+    public Object get(String field) {
+        return values.get(field);
+    }
+
+    /**
+     * The patch as one pipeline update: the values, mapped as a plain {@code $set} would map
+     * them and written as literals, plus {@code updatedAt} and the version bump, then
+     * {@code discount} and the filter keys re-derived from the resulting document.
+     */
+    public AggregationUpdate toUpdate(UpdateMapper mapper, MongoPersistentEntity<?> entity, LocalDateTime now) {
+        return pipeline(literals(mapper, entity, now), new Document());
+    }
+
+    /**
+     * {@link #toUpdate} for an upsert. Pipeline updates have no {@code $setOnInsert}, so each
+     * of {@code defaults}, and {@code createdAt}, is written only where the document has no
+     * value yet.
+     */
+    public AggregationUpdate toUpsert(UpdateMapper mapper, MongoPersistentEntity<?> entity, LocalDateTime now,
+                                      Map<String, Object> defaults) {
+        Update update = new Update();
+        defaults.forEach(update::set);
+        update.set("createdAt", now);
+        Document unset = new Document();
+        mapper.getMappedObject(update.getUpdateObject(), entity).get("$set", Document.class)
+            .forEach((field, value) -> unset.put(field,
+                new Document("$ifNull", List.of("$" + field, new Document("$literal", value)))));
+        return pipeline(literals(mapper, entity, now), unset);
+    }
+
+    private Document literals(UpdateMapper mapper, MongoPersistentEntity<?> entity, LocalDateTime now) {
+        Update update = new Update();
+        values.forEach(update::set);
+        update.set("updatedAt", now);
+        Document set = new Document();
+        mapper.getMappedObject(update.getUpdateObject(), entity).get("$set", Document.class)
+            .forEach((field, value) -> set.put(field, new Document("$literal", value)));
+        set.put("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)));
+        return set;
+    }
+
+    private static AggregationUpdate pipeline(Document set, Document defaults) {
+        set.putAll(defaults);
+        return AggregationUpdate.from(List.of(
+            context -> new Document("$set", set),
+            context -> new Document("$set", new Document("discount", DISCOUNT)
+                .append("categoryKey", CATEGORY_KEY)
+                .append("subcategoryKey", SUBCATEGORY_KEY)
+                .append("brandKey", BRAND_KEY))));
+    }
+
+    /** The document {@link #toUpdate} produces when applied to {@code previous}, except for updatedAt and version. */
+    public Product applyTo(Product previous, ObjectMapper objectMapper) {
+        Product current = objectMapper.convertValue(previous, Product.class);
+        BeanWrapperImpl bean = new BeanWrapperImpl(current);
+        values.forEach(bean::setPropertyValue);
+        current.setDiscount(discountOf(current.getPrice(), current.getOriginalPrice()));
+        return current;
+    }
+
+    /** The pipeline expression for {@link Product#keyOf} of {@code field}; blank values have no key. */
+    public static Document keyExpression(String field) {
+        return new Document("$let", new Document()
+            .append("vars", new Document("value", new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", "$" + field), "string")),
+                new Document("$toLower", new Document("$trim", new Document("input", "$" + field))),
+                ""))))
+            .append("in", new Document("$cond", Arrays.asList(new Document("$eq", List.of("$$value", "")), null, "$$value"))));
+    }
+
+    public static double discountOf(Double price, Double original) {
+        return price != null && original != null && original > price ? ((original - price) / original) * 100 : 0.0;
+    }
+}
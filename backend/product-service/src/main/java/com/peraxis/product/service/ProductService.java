@@ -1,118 +1,418 @@
 package com.peraxis.product.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.dto.FacetedPage;
 import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.facet.FacetEngine;
+import com.peraxis.product.facet.FacetQuery;
+import com.peraxis.product.facet.FacetResult;
+import com.peraxis.product.repository.ProductReader;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
     
+    private static final String CURSOR_SORT_FIELD = "createdAt";
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // Estimated totals stop counting here; beyond it clients only need "more than N"
+    private static final int ESTIMATED_COUNT_CAP = 1000;
+    
     @Autowired
     private MongoTemplate mongoTemplate;
     
+    // Anonymous catalog reads; see MongoConfig
+    @Autowired
+    @Qualifier("browseMongoTemplate")
+    private MongoTemplate browseMongoTemplate;
+    
+    @Autowired
+    private ProductReader productReader;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private HomepageRails homepageRails;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    @Autowired
+    private FacetEngine facetEngine;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private UpdateMapper updateMapper;
+    private MongoPersistentEntity<?> productEntity;
+    
+    @PostConstruct
+    public void init() {
+        updateMapper = new UpdateMapper(mongoTemplate.getConverter());
+        productEntity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Product.class);
+    }
+    
     public Page<Product> getPublicProducts(Pageable pageable, String category, String search) {
-        Query query = new Query();
-        
-        if (category != null && !category.isEmpty()) {
-            query.addCriteria(Criteria.where("category").regex(category, "i"));
-        }
-        
-        if (search != null && !search.isEmpty()) {
-            query.addCriteria(Criteria.where("name").regex(search, "i"));
-        }
+        Query query = queryOf(publicCriteria(category, search));
         
-        query.addCriteria(Criteria.where("status").is("ACTIVE"));
-        
-        long total = mongoTemplate.count(query, Product.class);
+        long total = browseMongoTemplate.count(query, Product.class);
         
         query.with(pageable);
-        List<Product> products = mongoTemplate.find(query, Product.class);
+        List<Product> products = productReader.browse(query);
         
         return new PageImpl<>(products, pageable, total);
     }
     
+    public CursorPage<Product> getPublicProducts(String cursor, int size, CountMode countMode, String category, String search) {
+        return findAfterCursor(publicCriteria(category, search), cursor, size, countMode, ProductFields.FULL);
+    }
+    
+    /**
+     * Filtered catalog listing. Served from the in-memory facet index, with Mongo only
+     * hydrating the requested page; free-text search (or a cold index) falls back to
+     * an equivalent Mongo query without facet counts.
+     */
+    public FacetedPage<Product> findProducts(FacetQuery filters, String search, int page, int size, ProductFields fields) {
+        if ((search == null || search.isEmpty()) && facetEngine.isReady()) {
+            FacetResult result = facetEngine.search(filters, page * size, size);
+            return new FacetedPage<>(findActiveByIds(result.getProductIds(), fields), result.getTotal(), size, result.getFacets());
+        }
+        
+        List<Criteria> criteria = publicCriteria(null, search);
+        criteria.addAll(filters.toCriteria(categoryService));
+        Query query = queryOf(criteria);
+        long total = browseMongoTemplate.count(query, Product.class);
+        query.with(PageRequest.of(page, size, filters.toSort()));
+        fields.project(query);
+        return new FacetedPage<>(productReader.browse(query), total, size, Collections.emptyMap());
+    }
+    
+    public CursorPage<Product> findProducts(FacetQuery filters, String search, String cursor, int size,
+                                            CountMode countMode, ProductFields fields) {
+        List<Criteria> criteria = publicCriteria(null, search);
+        criteria.addAll(filters.toCriteria(categoryService));
+        return findAfterCursor(criteria, cursor, size, countMode, fields,
+            filters.cursorSortField(), filters.cursorSortDirection());
+    }
+    
+    /** The filtered listing as one query in cursor-page order, for streamed reads. */
+    public Query listingQuery(FacetQuery filters, String search, ProductFields fields) {
+        List<Criteria> criteria = publicCriteria(null, search);
+        criteria.addAll(filters.toCriteria(categoryService));
+        Query query = queryOf(criteria);
+        String sortField = filters.cursorSortField();
+        query.with(Sort.by(filters.cursorSortDirection(), sortField, "_id"));
+        fields.project(query, sortField);
+        return query;
+    }
+    
     public Product getProductById(String id) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("Product ID cannot be null or empty");
         }
-        Product product = mongoTemplate.findById(id, Product.class);
+        Product product = productCache.get(id, key -> mongoTemplate.findById(key, Product.class));
         if (product == null) {
             throw new RuntimeException("Product not found with ID: " + id);
         }
         return product;
     }
     
-    public List<Product> getFeaturedProducts(int limit) {
-        Query query = new Query(Criteria.where("featured").is(true).and("status").is("ACTIVE"));
-        query.limit(limit);
-        return mongoTemplate.find(query, Product.class);
+    /**
+     * Products by id in request order, null where an id does not exist. Cached products
+     * are served as-is and the rest come from one {@code $in} query.
+     */
+    public List<Product> getProductsByIds(List<String> ids) {
+        Map<String, Product> found = productCache.getAll(ids,
+            missing -> mongoTemplate.find(new Query(Criteria.where("_id").in(missing)), Product.class));
+        List<Product> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            ordered.add(found.get(id));
+        }
+        return ordered;
     }
     
-    public List<Product> getTrendingProducts(int limit) {
-        Query query = new Query(Criteria.where("trending").is(true).and("status").is("ACTIVE"));
-        query.limit(limit);
-        return mongoTemplate.find(query, Product.class);
+    public List<Product> getFeaturedProducts(int limit, ProductFields fields) {
+        return fromRail(homepageRails.current().featured(limit), fields);
     }
     
-    public List<Product> getDeals(int limit) {
-        Query query = new Query(Criteria.where("discount").gt(0).and("status").is("ACTIVE"));
-        query.limit(limit);
-        return mongoTemplate.find(query, Product.class);
+    public List<Product> getTrendingProducts(int limit, ProductFields fields) {
+        return fromRail(homepageRails.current().trending(limit), fields);
+    }
+    
+    public List<Product> getDeals(int limit, ProductFields fields) {
+        return fromRail(homepageRails.current().deals(limit), fields);
+    }
+    
+    // Rails hold summary-projected documents; wider fieldsets re-read just those ids
+    private List<Product> fromRail(List<Product> rail, ProductFields fields) {
+        if (fields.isCoveredBySummary()) {
+            return rail;
+        }
+        return findActiveByIds(rail.stream().map(Product::getId).toList(), fields);
     }
     
     public List<String> getAllCategories() {
-        return mongoTemplate.findDistinct("category", Product.class, String.class);
+        return homepageRails.current().getCategories();
     }
     
     public Product createProduct(Product product) {
+        // Rating aggregates, related products and popularity are server-maintained; ReviewService,
+        // RelatedProducts and PopularityScorer build them from nothing, never from a client's starting values
+        product.setRating(null);
+        product.setReviewCount(null);
+        product.setRatingSum(0);
+        product.setRatingHistogram(null);
+        product.setRelatedProductIds(null);
+        product.setPopularity(null);
         product.setCreatedAt(LocalDateTime.now());
         product.setUpdatedAt(LocalDateTime.now());
-        return mongoTemplate.save(product);
+        product.setVersion(0);
+        Product saved = mongoTemplate.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), null, saved));
+        return saved;
     }
     
-    public Product updateProduct(String id, Product product, String userId, String userRole) {
-        Product existing = mongoTemplate.findById(id, Product.class);
-        if (existing != null) {
-            if ("SELLER".equals(userRole) && !existing.getSellerId().equals(userId)) {
+    /**
+     * Replaces the client-writable fields as one conditional write, like {@link #patchProduct}.
+     * Without an expected version the version read here is the condition, so a write landing
+     * in between is a conflict instead of being overwritten. Server-maintained fields (rating
+     * aggregates, popularity, related products, stock) are not part of the write.
+     */
+    public Product updateProduct(String id, Product product, Long expectedVersion, String userId, String userRole) {
+        ProductPatch patch = ProductPatch.replacing(product);
+        if (expectedVersion == null) {
+            Query current = new Query(Criteria.where("_id").is(id));
+            current.fields().include("version");
+            Product existing = mongoTemplate.findOne(current, Product.class);
+            if (existing == null) {
+                return null;
+            }
+            expectedVersion = existing.getVersion();
+        }
+        return write(id, patch, expectedVersion, userId, userRole);
+    }
+    
+    /**
+     * Applies {@code changes} as one conditional {@code findAndModify}: the filter carries
+     * the owner check and, when given, the expected version, and the update bumps the
+     * version. The pre-image comes back from the same round trip, so listeners still see
+     * both versions. Returns null when the product does not exist.
+     */
+    public Product patchProduct(String id, Map<String, Object> changes, Long expectedVersion,
+                                String userId, String userRole) {
+        return write(id, ProductPatch.of(changes, objectMapper), expectedVersion, userId, userRole);
+    }
+    
+    private Product write(String id, ProductPatch patch, Long expectedVersion, String userId, String userRole) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if ("SELLER".equals(userRole)) {
+            criteria = criteria.and("sellerId").is(userId);
+        }
+        if (expectedVersion != null) {
+            // Documents written before versioning have no field and read as version 0
+            criteria = expectedVersion == 0
+                ? criteria.and("version").in(0L, null)
+                : criteria.and("version").is(expectedVersion);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Product previous = mongoTemplate.findAndModify(new Query(criteria),
+            patch.toUpdate(updateMapper, productEntity, now), Product.class);
+        if (previous == null) {
+            // Only the failure path pays for a second read, to report why
+            Product existing = mongoTemplate.findById(id, Product.class);
+            if (existing == null) {
+                return null;
+            }
+            if ("SELLER".equals(userRole) && !userId.equals(existing.getSellerId())) {
                 throw new RuntimeException("Unauthorized");
             }
-            
-            product.setId(id);
-            product.setUpdatedAt(LocalDateTime.now());
-            return mongoTemplate.save(product);
+            throw new VersionConflictException(id, expectedVersion != null ? expectedVersion : existing.getVersion(),
+                existing.getVersion());
+        }
+        
+        Product current = patch.applyTo(previous, objectMapper);
+        current.setUpdatedAt(now);
+        current.setVersion(previous.getVersion() + 1);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, previous, current));
+        return current;
+    }
+    
+    /** Appends an image URL with {@code $push}, so concurrent uploads to one product all land. */
+    public Product addImage(String id, String imageUrl, String userId, String userRole) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if ("SELLER".equals(userRole)) {
+            criteria = criteria.and("sellerId").is(userId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().push("images", imageUrl).set("updatedAt", now).inc("version", 1L);
+        
+        Product previous = mongoTemplate.findAndModify(new Query(criteria), update, Product.class);
+        if (previous == null) {
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(id)), Product.class)) {
+                throw new RuntimeException("Unauthorized");
+            }
+            return null;
+        }
+        
+        List<String> images = new ArrayList<>(previous.getImages() == null ? List.of() : previous.getImages());
+        images.add(imageUrl);
+        Product current = objectMapper.convertValue(previous, Product.class);
+        current.setImages(images);
+        current.setUpdatedAt(now);
+        current.setVersion(previous.getVersion() + 1);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, previous, current));
+        return current;
+    }
+    
+    public Page<Product> searchProducts(String query, Pageable pageable, ProductFields fields) {
+        Query searchQuery = queryOf(searchCriteria(query));
+        
+        long total = browseMongoTemplate.count(searchQuery, Product.class);
+        
+        searchQuery.with(pageable);
+        fields.project(searchQuery);
+        List<Product> products = productReader.browse(searchQuery);
+        
+        return new PageImpl<>(products, pageable, total);
+    }
+    
+    public CursorPage<Product> searchProducts(String query, String cursor, int size, CountMode countMode, ProductFields fields) {
+        return findAfterCursor(searchCriteria(query), cursor, size, countMode, fields);
+    }
+    
+    // Filters are collected as a list and combined under a single $and, so independent
+    // conditions ($or from search, keyset bounds, facet filters) never collide on a key
+    private List<Criteria> publicCriteria(String category, String search) {
+        List<Criteria> criteria = new ArrayList<>();
+        
+        if (category != null && !category.isEmpty()) {
+            criteria.add(categoryService.subtreeCriteria(category));
         }
-        return null;
+        
+        if (search != null && !search.isEmpty()) {
+            criteria.add(Criteria.where("name").regex(search, "i"));
+        }
+        
+        criteria.add(Criteria.where("status").is("ACTIVE"));
+        return criteria;
     }
     
-    public Page<Product> searchProducts(String query, Pageable pageable) {
-        Query searchQuery = new Query();
+    private List<Criteria> searchCriteria(String query) {
+        List<Criteria> criteria = new ArrayList<>();
         
         if (query != null && !query.trim().isEmpty()) {
             String sanitizedQuery = sanitizeRegexInput(query.trim());
-            searchQuery.addCriteria(new Criteria().orOperator(
+            criteria.add(new Criteria().orOperator(
                 Criteria.where("name").regex(sanitizedQuery, "i"),
                 Criteria.where("description").regex(sanitizedQuery, "i"),
                 Criteria.where("category").regex(sanitizedQuery, "i")
             ));
         }
         
-        searchQuery.addCriteria(Criteria.where("status").is("ACTIVE"));
+        criteria.add(Criteria.where("status").is("ACTIVE"));
+        return criteria;
+    }
+    
+    private static Query queryOf(List<Criteria> criteria) {
+        return new Query(new Criteria().andOperator(criteria));
+    }
+    
+    private CursorPage<Product> findAfterCursor(List<Criteria> criteria, String cursor, int size,
+                                                CountMode countMode, ProductFields fields) {
+        return findAfterCursor(criteria, cursor, size, countMode, fields, CURSOR_SORT_FIELD, Sort.Direction.DESC);
+    }
+    
+    // Sorted on (sortField, _id) in one direction, which the status_<field>_id indexes serve as-is
+    private CursorPage<Product> findAfterCursor(List<Criteria> criteria, String cursor, int size,
+                                                CountMode countMode, ProductFields fields,
+                                                String sortField, Sort.Direction direction) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Query query = queryOf(criteria);
         
-        long total = mongoTemplate.count(searchQuery, Product.class);
+        // Totals are computed before the keyset bound is added, so they describe the whole result set
+        Long total = null;
+        boolean totalExact = false;
+        if (countMode == CountMode.EXACT) {
+            total = browseMongoTemplate.count(query, Product.class);
+            totalExact = true;
+        } else if (countMode == CountMode.ESTIMATED) {
+            total = browseMongoTemplate.count(Query.of(query).limit(ESTIMATED_COUNT_CAP), Product.class);
+            totalExact = total < ESTIMATED_COUNT_CAP;
+        }
         
-        searchQuery.with(pageable);
-        List<Product> products = mongoTemplate.find(searchQuery, Product.class);
+        if (cursor != null && !cursor.isEmpty()) {
+            ProductCursor after = ProductCursor.decode(cursor);
+            if (!sortField.equals(after.getSortField())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            List<Criteria> bounded = new ArrayList<>(criteria);
+            bounded.add(after.toCriteria(direction));
+            query = queryOf(bounded);
+        }
         
-        return new PageImpl<>(products, pageable, total);
+        query.with(Sort.by(direction, sortField, "_id"));
+        query.limit(pageSize + 1);
+        fields.project(query, sortField);
+        List<Product> products = productReader.browse(query);
+        
+        String nextCursor = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            nextCursor = ProductCursor.after(products.get(pageSize - 1), sortField).encode();
+        }
+        return new CursorPage<>(products, nextCursor, total, totalExact);
+    }
+    
+    // The index may lag a write by a few seconds; rows no longer ACTIVE are dropped here
+    private List<Product> findActiveByIds(List<String> ids, ProductFields fields) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids).and("status").is("ACTIVE"));
+        fields.project(query);
+        Map<String, Product> byId = new HashMap<>();
+        for (Product product : productReader.browse(query)) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product product = byId.get(id);
+            if (product != null) {
+                ordered.add(product);
+            }
+        }
+        return ordered;
     }
     
     private String sanitizeRegexInput(String input) {
@@ -128,6 +428,8 @@ public class ProductService {
                 throw new RuntimeException("Unauthorized");
             }
             mongoTemplate.remove(existing);
+            productCache.invalidate(id);
+            eventPublisher.publishEvent(new ProductChangedEvent(id, existing, null));
         }
     }
 }
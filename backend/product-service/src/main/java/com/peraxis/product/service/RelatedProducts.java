@@ -0,0 +1,421 @@
+package com.peraxis.product.service;
+
+import com.mongodb.client.MongoCursor;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Background job that stores a fixed-size list of related product ids on every active
+ * product, so the detail page gets them in the same read as the product itself.
+ *
+ * Candidates come from an inverted index over category, subcategory, brand and tag
+ * tokens. Every posting list is ordered by price, so a product only looks at the
+ * nearest-priced window of each list it appears in rather than at all pairs; a
+ * catalog of N products costs O(N * tokens * window). Candidates are scored on shared
+ * attributes, with tags weighted by rarity, plus price proximity. Lists are written
+ * only when they changed, without a version bump, since they are derived data.
+ */
+@Component
+public class RelatedProducts {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatedProducts.class);
+    private static final double CATEGORY_WEIGHT = 1.0;
+    private static final double SUBCATEGORY_WEIGHT = 2.0;
+    private static final double BRAND_WEIGHT = 1.5;
+    private static final double TAG_WEIGHT = 1.0;
+    private static final double PRICE_WEIGHT = 1.5;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${product.related.size:12}")
+    private int size;
+
+    // Candidates taken from each posting list, centred on the product's price
+    @Value("${product.related.candidate-window:100}")
+    private int candidateWindow;
+
+    @Value("${product.related.write-batch-size:1000}")
+    private int writeBatchSize;
+
+    @Value("${product.related.refresh-interval-minutes:360}")
+    private long refreshIntervalMinutes;
+
+    // A full recompute is not cheap; writes only bring the next one forward
+    @Value("${product.related.rebuild-delay-seconds:300}")
+    private long rebuildDelaySeconds;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly,
+            refreshIntervalMinutes, refreshIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (affectsNeighbours(event.getPrevious(), event.getCurrent())) {
+            requestRebuild();
+        }
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        requestRebuild();
+    }
+
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::rebuildQuietly, rebuildDelaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Related products rebuild failed", e);
+        }
+    }
+
+    private void rebuild() {
+        rebuildPending.set(false);
+        long started = System.currentTimeMillis();
+        Catalog catalog = load();
+        List<String>[] related = catalog.neighbours(size, candidateWindow);
+        long computed = System.currentTimeMillis();
+        int updated = write(catalog, related);
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("products", catalog.ids.length);
+        run.put("updated", updated);
+        run.put("computeMs", computed - started);
+        run.put("writeMs", System.currentTimeMillis() - computed);
+        run.put("finishedAt", System.currentTimeMillis());
+        lastRun = run;
+        logger.info("Related products rebuilt: {}", run);
+    }
+
+    private Catalog load() {
+        Document filter = new Document("status", "ACTIVE");
+        Document projection = new Document("category", 1).append("subcategory", 1).append("brand", 1)
+            .append("tags", 1).append("price", 1).append("rating", 1).append("relatedProductIds", 1);
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .find(filter).projection(projection).batchSize(5000).iterator()) {
+            return new Catalog(cursor);
+        }
+    }
+
+    private int write(Catalog catalog, List<String>[] related) {
+        int updated = 0;
+        BulkOperations bulk = null;
+        List<String> batchIds = new ArrayList<>();
+        for (int p = 0; p < related.length; p++) {
+            if (related[p].hashCode() == catalog.currentHash[p]) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(catalog.ids[p])),
+                new Update().set("relatedProductIds", related[p]));
+            batchIds.add(catalog.ids[p]);
+            if (batchIds.size() >= writeBatchSize) {
+                bulk.execute();
+                productCache.invalidate(batchIds);
+                updated += batchIds.size();
+                bulk = null;
+                batchIds = new ArrayList<>();
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+            productCache.invalidate(batchIds);
+            updated += batchIds.size();
+        }
+        return updated;
+    }
+
+    private static boolean affectsNeighbours(Product previous, Product current) {
+        if (previous == null || current == null) {
+            return true;
+        }
+        return previous.getStatus() != current.getStatus()
+            || !Objects.equals(previous.getCategory(), current.getCategory())
+            || !Objects.equals(previous.getSubcategory(), current.getSubcategory())
+            || !Objects.equals(previous.getBrand(), current.getBrand())
+            || !Objects.equals(previous.getTags(), current.getTags())
+            || !Objects.equals(previous.getPrice(), current.getPrice());
+    }
+
+    /** Columnar, interned view of the active catalog plus the price-ordered inverted index. */
+    static final class Catalog {
+        final String[] ids;
+        final int[] category;
+        final int[] subcategory;
+        final int[] brand;
+        final int[][] tags;
+        final double[] logPrice;
+        final double[] rating;
+        final int[] currentHash;
+        final double[] tagWeight;
+        final int[][] postings;
+
+        // Columns are filled straight from the cursor; documents are not retained
+        Catalog(Iterator<Document> documents) {
+            String[] ids = new String[1024];
+            int[] category = new int[1024];
+            int[] subcategory = new int[1024];
+            int[] brand = new int[1024];
+            int[][] tags = new int[1024][];
+            double[] logPrice = new double[1024];
+            double[] rating = new double[1024];
+            int[] currentHash = new int[1024];
+            Map<String, Integer> tokens = new HashMap<>();
+            int n = 0;
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                if (n == ids.length) {
+                    int grown = n * 2;
+                    ids = Arrays.copyOf(ids, grown);
+                    category = Arrays.copyOf(category, grown);
+                    subcategory = Arrays.copyOf(subcategory, grown);
+                    brand = Arrays.copyOf(brand, grown);
+                    tags = Arrays.copyOf(tags, grown);
+                    logPrice = Arrays.copyOf(logPrice, grown);
+                    rating = Arrays.copyOf(rating, grown);
+                    currentHash = Arrays.copyOf(currentHash, grown);
+                }
+                Object id = document.get("_id");
+                ids[n] = id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id);
+                category[n] = intern(tokens, "c:", document.get("category"));
+                subcategory[n] = intern(tokens, "s:", document.get("subcategory"));
+                brand[n] = intern(tokens, "b:", document.get("brand"));
+                Object rawTags = document.get("tags");
+                tags[n] = rawTags instanceof List
+                    ? ((List<?>) rawTags).stream().mapToInt(tag -> intern(tokens, "t:", tag)).filter(t -> t >= 0).distinct().sorted().toArray()
+                    : new int[0];
+                Object price = document.get("price");
+                logPrice[n] = price instanceof Number && ((Number) price).doubleValue() > 0
+                    ? Math.log(((Number) price).doubleValue()) : Double.NaN;
+                Object productRating = document.get("rating");
+                rating[n] = productRating instanceof Number ? ((Number) productRating).doubleValue() : 0;
+                Object current = document.get("relatedProductIds");
+                currentHash[n] = current instanceof List ? current.hashCode() : new ArrayList<String>().hashCode();
+                n++;
+            }
+            this.ids = Arrays.copyOf(ids, n);
+            this.category = Arrays.copyOf(category, n);
+            this.subcategory = Arrays.copyOf(subcategory, n);
+            this.brand = Arrays.copyOf(brand, n);
+            this.tags = Arrays.copyOf(tags, n);
+            this.logPrice = Arrays.copyOf(logPrice, n);
+            this.rating = Arrays.copyOf(rating, n);
+            this.currentHash = Arrays.copyOf(currentHash, n);
+
+            // Filling postings in price order leaves every list sorted by price
+            double[] prices = this.logPrice;
+            int[] byPrice = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(p -> Double.isNaN(prices[p]) ? Double.MAX_VALUE : prices[p]))
+                .mapToInt(Integer::intValue).toArray();
+            int[] frequency = new int[tokens.size()];
+            for (int p = 0; p < n; p++) {
+                forEachToken(p, token -> frequency[token]++);
+            }
+            postings = new int[tokens.size()][];
+            for (int token = 0; token < postings.length; token++) {
+                postings[token] = new int[frequency[token]];
+            }
+            int[] fill = new int[tokens.size()];
+            for (int p : byPrice) {
+                forEachToken(p, token -> postings[token][fill[token]++] = p);
+            }
+            // Rare tags say more than common ones; weights fall in (0, 1]
+            tagWeight = new double[tokens.size()];
+            double maxIdf = Math.log(Math.max(2, n));
+            for (int token = 0; token < tagWeight.length; token++) {
+                tagWeight[token] = Math.max(0.05, Math.log((double) Math.max(2, n) / Math.max(1, frequency[token])) / maxIdf);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        List<String>[] neighbours(int size, int window) {
+            List<String>[] result = new List[ids.length];
+            ThreadLocal<int[]> seen = ThreadLocal.withInitial(() -> new int[ids.length]);
+            IntStream.range(0, ids.length).parallel().forEach(p -> result[p] = neighbours(p, size, window, seen.get()));
+            return result;
+        }
+
+        private List<String> neighbours(int p, int size, int window, int[] seen) {
+            int[] best = new int[size];
+            double[] bestScore = new double[size];
+            int[] count = new int[1];
+            int stamp = p + 1;
+            seen[p] = stamp;
+            forEachToken(p, token -> {
+                int[] posting = postings[token];
+                int from = 0;
+                int to = posting.length;
+                if (posting.length > window) {
+                    int centre = lowerBound(posting, logPrice[p]);
+                    from = Math.max(0, Math.min(centre - window / 2, posting.length - window));
+                    to = from + window;
+                }
+                for (int i = from; i < to; i++) {
+                    int q = posting[i];
+                    if (seen[q] != stamp) {
+                        seen[q] = stamp;
+                        offer(q, score(p, q), best, bestScore, count);
+                    }
+                }
+            });
+            List<String> related = new ArrayList<>(count[0]);
+            for (int i = 0; i < count[0]; i++) {
+                related.add(ids[best[i]]);
+            }
+            return related;
+        }
+
+        private double score(int p, int q) {
+            double score = 0;
+            if (category[p] >= 0 && category[p] == category[q]) score += CATEGORY_WEIGHT;
+            if (subcategory[p] >= 0 && subcategory[p] == subcategory[q]) score += SUBCATEGORY_WEIGHT;
+            if (brand[p] >= 0 && brand[p] == brand[q]) score += BRAND_WEIGHT;
+            int[] a = tags[p];
+            int[] b = tags[q];
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] == b[j]) {
+                    score += TAG_WEIGHT * tagWeight[a[i]];
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            if (!Double.isNaN(logPrice[p]) && !Double.isNaN(logPrice[q])) {
+                // 1.0 at equal price, about 0.37 at a 1.65x price ratio
+                score += PRICE_WEIGHT * Math.exp(-2 * Math.abs(logPrice[p] - logPrice[q]));
+            }
+            return score;
+        }
+
+        // Keeps best[0..count) ordered by score, then rating, then catalog order
+        private void offer(int q, double score, int[] best, double[] bestScore, int[] count) {
+            int size = best.length;
+            int position = count[0];
+            while (position > 0 && better(q, score, best[position - 1], bestScore[position - 1])) {
+                position--;
+            }
+            if (position >= size) {
+                return;
+            }
+            int last = Math.min(count[0], size - 1);
+            System.arraycopy(best, position, best, position + 1, last - position);
+            System.arraycopy(bestScore, position, bestScore, position + 1, last - position);
+            best[position] = q;
+            bestScore[position] = score;
+            count[0] = Math.min(size, count[0] + 1);
+        }
+
+        private boolean better(int q, double score, int other, double otherScore) {
+            if (score != otherScore) {
+                return score > otherScore;
+            }
+            if (rating[q] != rating[other]) {
+                return rating[q] > rating[other];
+            }
+            return q < other;
+        }
+
+        private int lowerBound(int[] posting, double value) {
+            if (Double.isNaN(value)) {
+                return posting.length;
+            }
+            int low = 0;
+            int high = posting.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                double price = logPrice[posting[mid]];
+                if (!Double.isNaN(price) && price < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void forEachToken(int p, IntConsumer action) {
+            if (category[p] >= 0) action.accept(category[p]);
+            if (subcategory[p] >= 0) action.accept(subcategory[p]);
+            if (brand[p] >= 0) action.accept(brand[p]);
+            for (int tag : tags[p]) {
+                action.accept(tag);
+            }
+        }
+
+        private static int intern(Map<String, Integer> tokens, String kind, Object value) {
+            if (!(value instanceof String) || ((String) value).isBlank()) {
+                return -1;
+            }
+            String token = kind + ((String) value).trim().toLowerCase();
+            return tokens.computeIfAbsent(token, key -> tokens.size());
+        }
+    }
+}
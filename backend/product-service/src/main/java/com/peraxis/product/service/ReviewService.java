@@ -0,0 +1,253 @@
+package com.peraxis.product.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peraxis.product.cache.ProductCache;
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.Review;
+import com.peraxis.product.event.ProductChangedEvent;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reviews and the rating aggregates they feed. Every review write adjusts the product's
+ * {@code reviewCount}, {@code ratingSum} and {@code ratingHistogram} with one {@code $inc},
+ * so the cost of a write, and of reading a product's rating, does not grow with the
+ * number of reviews. Listings are keyset-paged on (createdAt, _id), newest first.
+ */
+@Service
+public class ReviewService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_COMMENT_LENGTH = 5000;
+
+    // Products rated before reviews were stored only carry rating and reviewCount;
+    // seed the sum from them once so the first $inc continues from the same average
+    private static final AggregationUpdate SEED_AGGREGATES = AggregationUpdate.from(List.<AggregationOperation>of(
+        context -> new Document("$set", new Document("ratingSum",
+                new Document("$toLong", new Document("$round", List.of(
+                    new Document("$multiply", List.of(
+                        new Document("$ifNull", List.of("$rating", 0)),
+                        new Document("$ifNull", List.of("$reviewCount", 0)))),
+                    0))))
+            .append("ratingHistogram", new Document()))
+    ));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Review createReview(String productId, Review review, String userId, String userName) {
+        validate(review);
+        if (!mongoTemplate.exists(new Query(Criteria.where("_id").is(productId)), Product.class)) {
+            return null;
+        }
+        review.setId(null);
+        review.setProductId(productId);
+        review.setUserId(userId);
+        review.setUserName(userName);
+        review.setCreatedAt(LocalDateTime.now());
+        review.setUpdatedAt(review.getCreatedAt());
+        // The unique (productId, userId) index turns a second review into a DuplicateKeyException
+        Review saved = mongoTemplate.insert(review);
+        applyDelta(productId, 1, saved.getRating(), 1, 0, 0);
+        return saved;
+    }
+
+    /** Only the author may edit. Returns null when the review does not exist. */
+    public Review updateReview(String productId, String reviewId, Review changes, String userId) {
+        validate(changes);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+            .set("rating", changes.getRating())
+            .set("title", changes.getTitle())
+            .set("comment", changes.getComment())
+            .set("updatedAt", now);
+        Query query = new Query(Criteria.where("_id").is(reviewId).and("productId").is(productId).and("userId").is(userId));
+
+        Review previous = mongoTemplate.findAndModify(query, update, Review.class);
+        if (previous == null) {
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(reviewId).and("productId").is(productId)), Review.class)) {
+                throw new RuntimeException("Unauthorized");
+            }
+            return null;
+        }
+        if (previous.getRating() != changes.getRating()) {
+            applyDelta(productId, 0, changes.getRating(), 1, previous.getRating(), -1);
+        }
+        previous.setRating(changes.getRating());
+        previous.setTitle(changes.getTitle());
+        previous.setComment(changes.getComment());
+        previous.setUpdatedAt(now);
+        return previous;
+    }
+
+    /** The author or an admin may delete. Returns false when the review does not exist. */
+    public boolean deleteReview(String productId, String reviewId, String userId, String userRole) {
+        Criteria criteria = Criteria.where("_id").is(reviewId).and("productId").is(productId);
+        if (!"ADMIN".equals(userRole)) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        Review removed = mongoTemplate.findAndRemove(new Query(criteria), Review.class);
+        if (removed == null) {
+            if (mongoTemplate.exists(new Query(Criteria.where("_id").is(reviewId).and("productId").is(productId)), Review.class)) {
+                throw new RuntimeException("Unauthorized");
+            }
+            return false;
+        }
+        applyDelta(productId, -1, removed.getRating(), -1, 0, 0);
+        return true;
+    }
+
+    /**
+     * One page of a product's reviews, optionally for a single star rating. The total
+     * comes from the product's aggregates rather than a count over the reviews.
+     */
+    public CursorPage<Review> getReviews(String productId, Integer stars, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (stars != null && (stars < 1 || stars > 5)) {
+            throw new IllegalArgumentException("rating must be between 1 and 5");
+        }
+        Criteria criteria = Criteria.where("productId").is(productId);
+        if (stars != null) {
+            criteria = criteria.and("rating").is(stars);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+            // The query mapper converts _id only for equality, so the range bound needs the ObjectId here
+            Object lastId = ObjectId.isValid(position[1]) ? new ObjectId(position[1]) : position[1];
+            criteria = criteria.orOperator(
+                Criteria.where("createdAt").lt(createdAt),
+                Criteria.where("createdAt").is(createdAt).and("_id").lt(lastId));
+        }
+        Query query = new Query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+            .limit(size + 1);
+
+        List<Review> reviews = mongoTemplate.find(query, Review.class);
+        String nextCursor = null;
+        if (reviews.size() > size) {
+            reviews = reviews.subList(0, size);
+            Review last = reviews.get(size - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(reviews, nextCursor, total(productId, stars), true);
+    }
+
+    private Long total(String productId, Integer stars) {
+        Product product = productCache.get(productId, key -> mongoTemplate.findById(key, Product.class));
+        if (product == null) {
+            return null;
+        }
+        if (stars == null) {
+            return product.getReviewCount() == null ? 0L : product.getReviewCount().longValue();
+        }
+        Map<String, Integer> histogram = product.getRatingHistogram();
+        Integer count = histogram == null ? null : histogram.get(String.valueOf(stars));
+        return count == null ? 0L : count.longValue();
+    }
+
+    /**
+     * Moves the aggregates by one review: {@code count} to reviewCount, and
+     * {@code addedWeight}/{@code removedWeight} reviews of the given stars to the sum and
+     * histogram. The average is then written with a filter on the sum and count it was
+     * computed from, so under concurrent writers only the one that saw the latest
+     * aggregates sets it.
+     */
+    private void applyDelta(String productId, int count, int addedStars, int addedWeight, int removedStars, int removedWeight) {
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(productId).and("ratingHistogram").exists(false)),
+            SEED_AGGREGATES, Product.class);
+
+        Update update = new Update()
+            .inc("reviewCount", count)
+            .inc("ratingSum", (long) addedStars * addedWeight + (long) removedStars * removedWeight)
+            .inc("ratingHistogram." + addedStars, addedWeight);
+        if (removedWeight != 0) {
+            update.inc("ratingHistogram." + removedStars, removedWeight);
+        }
+        Product previous = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(productId)), update, Product.class);
+        if (previous == null) {
+            // The product was deleted under us; its reviews are orphaned either way
+            return;
+        }
+
+        Product current = objectMapper.convertValue(previous, Product.class);
+        int reviewCount = (previous.getReviewCount() == null ? 0 : previous.getReviewCount()) + count;
+        long ratingSum = previous.getRatingSum() + (long) addedStars * addedWeight + (long) removedStars * removedWeight;
+        Map<String, Integer> histogram = new LinkedHashMap<>(previous.getRatingHistogram() == null ? Map.of() : previous.getRatingHistogram());
+        histogram.merge(String.valueOf(addedStars), addedWeight, Integer::sum);
+        if (removedWeight != 0) {
+            histogram.merge(String.valueOf(removedStars), removedWeight, Integer::sum);
+        }
+        double rating = reviewCount > 0 ? Math.round(ratingSum * 100.0 / reviewCount) / 100.0 : 0.0;
+        current.setReviewCount(reviewCount);
+        current.setRatingSum(ratingSum);
+        current.setRatingHistogram(histogram);
+        current.setRating(rating);
+
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(productId).and("ratingSum").is(ratingSum).and("reviewCount").is(reviewCount)),
+            new Update().set("rating", rating), Product.class);
+        productCache.invalidate(productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, previous, current));
+    }
+
+    private static void validate(Review review) {
+        if (review == null || review.getRating() < 1 || review.getRating() > 5) {
+            throw new IllegalArgumentException("rating must be between 1 and 5");
+        }
+        if (review.getTitle() != null && review.getTitle().length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("title must be at most " + MAX_TITLE_LENGTH + " characters");
+        }
+        if (review.getComment() != null && review.getComment().length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("comment must be at most " + MAX_COMMENT_LENGTH + " characters");
+        }
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, String id) {
+        String position = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.peraxis.product.service;
+
+/** A conditional write named a product version that is no longer current. */
+public class VersionConflictException extends RuntimeException {
+    private final long currentVersion;
+
+    public VersionConflictException(String productId, long expectedVersion, long currentVersion) {
+        super("Product " + productId + " is at version " + currentVersion + ", not " + expectedVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public long getCurrentVersion() { return currentVersion; }
+}
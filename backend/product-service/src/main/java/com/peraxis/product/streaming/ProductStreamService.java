@@ -0,0 +1,79 @@
+package com.peraxis.product.streaming;
+
+import com.peraxis.product.facet.FacetQuery;
+import com.peraxis.product.repository.ProductReader;
+import com.peraxis.product.service.ProductFields;
+import com.peraxis.product.service.ProductService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Filtered catalog listings as a {@link Flux}, pulled from one Mongo cursor only as fast
+ * as the subscriber requests. Spring MVC subscribes to it for NDJSON responses and requests
+ * the next product once the previous one is written, so a slow client holds back the cursor
+ * instead of buffering the listing in memory, and no servlet thread waits on Mongo.
+ *
+ * Cursor reads block, so they run on a dedicated bounded scheduler: {@code threads} cursors
+ * are read at once and at most {@code max-queued} more wait; beyond that a stream fails
+ * fast rather than queueing without bound.
+ */
+@Component
+public class ProductStreamService {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductReader productReader;
+
+    @Value("${product.streaming.enabled:true}")
+    private boolean enabled;
+
+    @Value("${product.streaming.threads:32}")
+    private int threads;
+
+    @Value("${product.streaming.max-queued:1024}")
+    private int maxQueued;
+
+    // Documents per cursor round trip; also how far Mongo reads ahead of the client
+    @Value("${product.streaming.batch-size:100}")
+    private int batchSize;
+
+    @Value("${product.streaming.max-items:10000}")
+    private int maxItems;
+
+    private Scheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Schedulers.newBoundedElastic(threads, maxQueued, "product-stream");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Up to {@code limit} products of the listing, rendered with {@code view}, in cursor-page order. */
+    public Flux<Object> stream(FacetQuery filters, String search, int limit, ProductFields view) {
+        if (limit < 1 || limit > maxItems) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxItems);
+        }
+        Query query = productService.listingQuery(filters, search, view).limit(limit);
+        int fetch = Math.min(batchSize, limit);
+        return Flux.fromStream(() -> productReader.browseStream(query, fetch))
+            .map(view::render)
+            .subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,261 @@
+package com.peraxis.product.synthetic;
+
+import com.peraxis.product.entity.Product;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of realistic catalog documents, in the stored layout of
+ * {@link Product}. Product {@code i} depends only on the seed and {@code i}, so any range
+ * can be generated independently, in parallel or resumed, and the same seed always gives
+ * the same catalog.
+ *
+ * Category sizes follow the configured weights and brands within a category follow a
+ * Zipf distribution, so a few brands dominate as in a real marketplace. Prices are
+ * log-normal around a per-category median, ratings lean high, review counts are
+ * heavy-tailed, and a share of products are discounted, low on stock or inactive.
+ */
+public class SyntheticCatalog {
+
+    private static final long EPOCH = 1_700_000_000_000L;
+    private static final long TWO_YEARS_MS = 2L * 365 * 24 * 3600 * 1000;
+
+    private final long seed;
+    private final List<CategorySpec> categories = new ArrayList<>();
+    private double totalWeight;
+    private int brandsPerCategory = 40;
+    private double brandSkew = 1.1;
+    private double variantRate = 0.35;
+    private double discountRate = 0.4;
+    private double inactiveRate = 0.08;
+    private int sellers = 500;
+    private double[] brandCdf;
+
+    public SyntheticCatalog(long seed) {
+        this.seed = seed;
+        category("Electronics", 0.22, 450, "Phones", "Laptops", "Audio", "Wearables", "Cameras");
+        category("Fashion", 0.25, 40, "Men", "Women", "Kids", "Footwear", "Accessories");
+        category("Home", 0.15, 60, "Kitchen", "Furniture", "Decor", "Lighting");
+        category("Beauty", 0.10, 20, "Skincare", "Makeup", "Haircare", "Fragrance");
+        category("Sports", 0.08, 55, "Fitness", "Outdoor", "Cycling", "Team Sports");
+        category("Books", 0.08, 12, "Fiction", "Non-fiction", "Children", "Education");
+        category("Toys", 0.06, 25, "Building", "Dolls", "Games", "Educational");
+        category("Gaming", 0.06, 120, "Consoles", "Accessories", "Games");
+    }
+
+    /** Replaces the default category mix; weights are relative. */
+    public SyntheticCatalog clearCategories() {
+        categories.clear();
+        totalWeight = 0;
+        return this;
+    }
+
+    public SyntheticCatalog category(String name, double weight, double medianPrice, String... subcategories) {
+        categories.add(new CategorySpec(name, weight, medianPrice, subcategories));
+        totalWeight += weight;
+        return this;
+    }
+
+    public SyntheticCatalog brands(int perCategory, double zipfExponent) {
+        this.brandsPerCategory = perCategory;
+        this.brandSkew = zipfExponent;
+        this.brandCdf = null;
+        return this;
+    }
+
+    public SyntheticCatalog variantRate(double rate) {
+        this.variantRate = rate;
+        return this;
+    }
+
+    public SyntheticCatalog discountRate(double rate) {
+        this.discountRate = rate;
+        return this;
+    }
+
+    public SyntheticCatalog inactiveRate(double rate) {
+        this.inactiveRate = rate;
+        return this;
+    }
+
+    public SyntheticCatalog sellers(int sellers) {
+        this.sellers = sellers;
+        return this;
+    }
+
+    public List<Document> products(long from, int count) {
+        List<Document> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(from + i));
+        }
+        return products;
+    }
+
+    public Document product(long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        CategorySpec category = pickCategory(random.nextDouble());
+        String subcategory = category.subcategories[random.nextInt(category.subcategories.length)];
+        int brandRank = pickBrand(random.nextDouble());
+        String brand = category.name.substring(0, 3) + "Brand" + (brandRank + 1);
+
+        double price = round(category.medianPrice * Math.exp(0.8 * gaussian(random)));
+        boolean discounted = random.nextDouble() < discountRate;
+        double originalPrice = discounted ? round(price / (1 - (0.05 + 0.55 * random.nextDouble()))) : price;
+        double discount = discounted ? round((originalPrice - price) / originalPrice * 100) : 0.0;
+
+        int minStock = 5 + random.nextInt(16);
+        double stockRoll = random.nextDouble();
+        int stock = stockRoll < 0.07 ? 0 : stockRoll < 0.17 ? 1 + random.nextInt(minStock) : minStock + random.nextInt(1000);
+
+        double rating = Math.round(Math.min(5.0, Math.max(1.0, 4.2 + 0.6 * gaussian(random))) * 10) / 10.0;
+        int reviewCount = (int) Math.min(250_000, 3 * (Math.pow(1 - random.nextDouble(), -1.4) - 1));
+        String status = random.nextDouble() < inactiveRate ? (random.nextBoolean() ? "DRAFT" : "INACTIVE") : "ACTIVE";
+        long createdAt = EPOCH - (long) (random.nextDouble() * TWO_YEARS_MS);
+        String sku = "SYN-" + index;
+
+        List<String> images = new ArrayList<>();
+        for (int i = 0, n = 1 + random.nextInt(5); i < n; i++) {
+            images.add("https://cdn.peraxis.example/products/" + index + "/" + i + ".jpg");
+        }
+        List<String> tags = new ArrayList<>();
+        tags.add(category.name.toLowerCase());
+        tags.add(subcategory.toLowerCase());
+        for (int i = 0, n = random.nextInt(4); i < n; i++) {
+            tags.add(category.name.toLowerCase() + "-tag-" + pickBrand(random.nextDouble()));
+        }
+
+        Map<String, Object> specifications = new LinkedHashMap<>();
+        specifications.put("weightGrams", 50 + random.nextInt(5000));
+        specifications.put("color", COLORS[random.nextInt(COLORS.length)]);
+        specifications.put("warrantyMonths", 6 * random.nextInt(5));
+        specifications.put("origin", ORIGINS[random.nextInt(ORIGINS.length)]);
+        specifications.put("dimensions", new Document("w", round(5 + random.nextDouble() * 60))
+            .append("h", round(5 + random.nextDouble() * 60)).append("d", round(1 + random.nextDouble() * 30)));
+
+        List<Document> variants = new ArrayList<>();
+        if (random.nextDouble() < variantRate) {
+            boolean sized = "Fashion".equals(category.name) || "Sports".equals(category.name);
+            String[] values = sized ? SIZES : COLORS;
+            int n = 2 + random.nextInt(Math.min(4, values.length - 1));
+            for (int i = 0; i < n; i++) {
+                variants.add(new Document("name", sized ? "Size" : "Color")
+                    .append("value", values[i])
+                    .append("price", round(price * (1 + 0.05 * i)))
+                    .append("stock", random.nextInt(200))
+                    .append("image", images.get(i % images.size())));
+            }
+        }
+
+        return new Document("_id", objectId(createdAt, index))
+            .append("name", brand + " " + subcategory + " " + MODELS[random.nextInt(MODELS.length)] + " " + index)
+            .append("description", "A " + subcategory.toLowerCase() + " product from " + brand
+                + " in the " + category.name + " category. Catalog item " + index + ".")
+            .append("category", category.name)
+            .append("subcategory", subcategory)
+            .append("categoryKey", Product.keyOf(category.name))
+            .append("subcategoryKey", Product.keyOf(subcategory))
+            .append("brand", brand)
+            .append("brandKey", Product.keyOf(brand))
+            .append("sku", sku)
+            .append("price", price)
+            .append("originalPrice", originalPrice)
+            .append("discount", discount)
+            .append("stock", stock)
+            .append("minStock", minStock)
+            .append("images", images)
+            .append("specifications", new Document(specifications))
+            .append("variants", variants)
+            .append("tags", tags)
+            .append("rating", rating)
+            .append("reviewCount", reviewCount)
+            .append("sellerId", "seller-" + random.nextInt(sellers))
+            .append("sellerName", "Seller " + random.nextInt(sellers))
+            .append("status", status)
+            .append("featured", random.nextDouble() < 0.02)
+            .append("trending", random.nextDouble() < 0.03)
+            .append("createdAt", new Date(createdAt))
+            .append("updatedAt", new Date(createdAt))
+            .append("version", 0L)
+            .append("_class", Product.class.getName());
+    }
+
+    // Creation second followed by the index: unique per catalog and the same on every run
+    private static ObjectId objectId(long createdAt, long index) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt((int) (createdAt / 1000)).putLong(index).array());
+    }
+
+    private CategorySpec pickCategory(double roll) {
+        double target = roll * totalWeight;
+        for (CategorySpec category : categories) {
+            target -= category.weight;
+            if (target < 0) {
+                return category;
+            }
+        }
+        return categories.get(categories.size() - 1);
+    }
+
+    private int pickBrand(double roll) {
+        double[] cdf = brandCdf;
+        if (cdf == null) {
+            cdf = new double[brandsPerCategory];
+            double sum = 0;
+            for (int rank = 0; rank < brandsPerCategory; rank++) {
+                sum += 1 / Math.pow(rank + 1, brandSkew);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < brandsPerCategory; rank++) {
+                cdf[rank] /= sum;
+            }
+            brandCdf = cdf;
+        }
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < roll) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Box-Muller; one draw per call keeps product i independent of every other product
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static final String[] COLORS = { "Black", "White", "Silver", "Blue", "Red", "Green", "Beige" };
+    private static final String[] SIZES = { "XS", "S", "M", "L", "XL", "XXL" };
+    private static final String[] ORIGINS = { "IN", "CN", "US", "DE", "JP", "VN", "KR" };
+    private static final String[] MODELS = { "Pro", "Max", "Lite", "Plus", "Classic", "Air", "Ultra", "Mini", "Neo" };
+
+    private static final class CategorySpec {
+        final String name;
+        final double weight;
+        final double medianPrice;
+        final String[] subcategories;
+
+        CategorySpec(String name, double weight, double medianPrice, String[] subcategories) {
+            this.name = name;
+            this.weight = weight;
+            this.medianPrice = medianPrice;
+            this.subcategories = subcategories;
+        }
+    }
+}
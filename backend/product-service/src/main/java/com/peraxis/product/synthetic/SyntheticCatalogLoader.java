@@ -0,0 +1,82 @@
+package com.peraxis.product.synthetic;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk-inserts a {@link SyntheticCatalog} range into the products collection. Batches
+ * are generated and written in parallel with unordered {@code insertMany}; since ids are
+ * derived from the product index, re-running a load over existing data only reports
+ * duplicates instead of growing the catalog.
+ */
+public class SyntheticCatalogLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticCatalogLoader.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoCollection<Document> products;
+    private final SyntheticCatalog catalog;
+    private final int batchSize;
+    private final int threads;
+
+    public SyntheticCatalogLoader(MongoCollection<Document> products, SyntheticCatalog catalog, int batchSize, int threads) {
+        this.products = products;
+        this.catalog = catalog;
+        this.batchSize = Math.max(1, batchSize);
+        this.threads = Math.max(1, threads);
+    }
+
+    /** Inserts products {@code 0..count-1} and returns how many were new. */
+    public long load(long count) {
+        long started = System.currentTimeMillis();
+        AtomicLong inserted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (long from = 0; from < count; from += batchSize) {
+                long start = from;
+                int size = (int) Math.min(batchSize, count - from);
+                batches.add(pool.submit(() -> inserted.addAndGet(insert(catalog.products(start, size)))));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Synthetic catalog load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic catalog load failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        logger.info("Loaded {} of {} synthetic products in {} ms ({} products/s)",
+            inserted.get(), count, elapsed, inserted.get() * 1000 / elapsed);
+        return inserted.get();
+    }
+
+    private int insert(List<Document> batch) {
+        try {
+            products.insertMany(batch, new InsertManyOptions().ordered(false));
+            return batch.size();
+        } catch (MongoBulkWriteException e) {
+            boolean onlyDuplicates = e.getWriteErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            return e.getWriteResult().getInsertedCount();
+        }
+    }
+}
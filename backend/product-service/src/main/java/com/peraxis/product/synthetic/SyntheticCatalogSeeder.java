@@ -0,0 +1,66 @@
+package com.peraxis.product.synthetic;
+
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads the deterministic {@link SyntheticCatalog} into this service's database, either
+ * at startup ({@code product.synthetic.count}) or on demand for scale benchmarks. Since
+ * product {@code i} is always the same document, growing from 100k to 1M only inserts
+ * the missing tail. Rails and facets are rebuilt afterwards like after an import.
+ */
+@Component
+public class SyntheticCatalogSeeder {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${product.synthetic.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${product.synthetic.threads:4}")
+    private int threads;
+
+    @Value("${product.synthetic.endpoint-enabled:false}")
+    private boolean endpointEnabled;
+
+    public boolean isEndpointEnabled() {
+        return endpointEnabled;
+    }
+
+    public Map<String, Object> seed(long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        long started = System.currentTimeMillis();
+        SyntheticCatalogLoader loader = new SyntheticCatalogLoader(
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class)),
+            new SyntheticCatalog(seed), batchSize, threads);
+        long inserted = loader.load(count);
+        if (inserted > 0) {
+            eventPublisher.publishEvent(new ProductsBulkChangedEvent(List.of()));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("seed", seed);
+        result.put("requested", count);
+        result.put("inserted", inserted);
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        return result;
+    }
+}
@@ -0,0 +1,379 @@
+package com.peraxis.product.variant;
+
+import com.peraxis.product.category.CategoryService;
+import com.peraxis.product.dto.CursorPage;
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductStatus;
+import com.peraxis.product.entity.ProductVariant;
+import com.peraxis.product.entity.VariantEntry;
+import com.peraxis.product.event.ProductChangedEvent;
+import com.peraxis.product.event.ProductsBulkChangedEvent;
+import com.peraxis.product.repository.ProductReader;
+import com.peraxis.product.service.ProductFields;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@code product_variants}, one {@link VariantEntry} per (product, variant name,
+ * variant value), in step with the products and answers variant-level queries from it.
+ *
+ * Product writes re-sync that product's entries in one bulk write and reservations
+ * move an entry's stock with the product's. Bulk imports re-sync the imported products
+ * in the background, and a periodic full pass repairs anything a failed or racing write
+ * left behind. A variant with no price of its own and no product price is not indexed.
+ */
+@Component
+public class VariantIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VariantIndex.class);
+
+    private static final String[] SOURCE_FIELDS = {"variants", "price", "status", "category", "subcategory"};
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductReader productReader;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Value("${product.variants.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${product.variants.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.variants.sync-delay-ms:2000}")
+    private long syncDelayMs;
+
+    @Value("${product.variants.rebuild-interval-minutes:360}")
+    private long rebuildIntervalMinutes;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean syncPending = new AtomicBoolean();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        scheduler.scheduleWithFixedDelay(this::requestRebuild,
+            rebuildIntervalMinutes, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * ACTIVE products' variants named {@code name} (any of the comma-separated
+     * {@code values} when given), cheapest first. Each result pairs the matching variant
+     * with its product rendered in {@code fields}.
+     */
+    public CursorPage<Map<String, Object>> find(String name, String values, Double minPrice, Double maxPrice,
+                                                boolean inStock, String category, String cursor, int size,
+                                                ProductFields fields) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("status").is(ProductStatus.ACTIVE).and("nameKey").is(keyOf(name)));
+        Set<String> valueKeys = new LinkedHashSet<>();
+        if (values != null) {
+            for (String value : values.split(",")) {
+                if (!value.isBlank()) valueKeys.add(keyOf(value));
+            }
+        }
+        if (!valueKeys.isEmpty()) {
+            criteria.add(Criteria.where("valueKey").in(valueKeys));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) price = price.gte(minPrice);
+            if (maxPrice != null) price = price.lte(maxPrice);
+            criteria.add(price);
+        }
+        if (inStock) {
+            criteria.add(Criteria.where("stock").gt(0));
+        }
+        if (category != null && !category.isBlank()) {
+            criteria.add(categoryService.subtreeCriteria(category));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            double price = Double.parseDouble(position[0]);
+            // Range operators on _id are not converted by the query mapper
+            Object lastId = ObjectId.isValid(position[1]) ? new ObjectId(position[1]) : position[1];
+            criteria.add(new Criteria().orOperator(
+                Criteria.where("price").gt(price),
+                Criteria.where("price").is(price).and("_id").gt(lastId)));
+        }
+
+        Query query = new Query(new Criteria().andOperator(criteria))
+            .with(Sort.by(Sort.Direction.ASC, "price", "_id"))
+            .limit(pageSize + 1);
+        List<VariantEntry> entries = mongoTemplate.find(query, VariantEntry.class);
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            VariantEntry last = entries.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getPrice(), last.getId());
+        }
+        return new CursorPage<>(withProducts(entries, fields), nextCursor, null, false);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isDelete() && event.getPrevious() != null
+                && signature(event.getPrevious()).equals(signature(event.getCurrent()))) {
+            return;
+        }
+        try {
+            if (event.isDelete()) {
+                mongoTemplate.remove(new Query(Criteria.where("productId").is(event.getProductId())), VariantEntry.class);
+            } else {
+                sync(List.of(event.getCurrent()), List.of());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not sync variants of product {}, retrying in the background", event.getProductId(), e);
+            requestSync(List.of(event.getProductId()));
+        }
+    }
+
+    @EventListener
+    public void onProductsBulkChanged(ProductsBulkChangedEvent event) {
+        if (event.getProductIds().isEmpty()) {
+            requestRebuild();
+        } else {
+            requestSync(event.getProductIds());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (mongoTemplate.count(new Query(), VariantEntry.class) == 0) {
+            requestRebuild();
+        }
+    }
+
+    /** A reservation or its release moved {@code delta} units of one variant. */
+    public void stockMoved(String productId, String name, String value, int delta) {
+        try {
+            mongoTemplate.updateFirst(
+                new Query(Criteria.where("productId").is(productId).and("name").is(name).and("value").is(value)),
+                new Update().inc("stock", delta).set("updatedAt", LocalDateTime.now()),
+                VariantEntry.class);
+        } catch (Exception e) {
+            logger.warn("Could not move variant stock of product {}, retrying in the background", productId, e);
+            requestSync(List.of(productId));
+        }
+    }
+
+    public void requestSync(Collection<String> productIds) {
+        pendingIds.addAll(productIds);
+        if (syncPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::syncPending, syncDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            scheduler.schedule(this::rebuild, syncDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void syncPending() {
+        syncPending.set(false);
+        List<String> ids = new ArrayList<>(pendingIds);
+        pendingIds.removeAll(ids);
+        try {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+                Query query = new Query(Criteria.where("_id").in(chunk));
+                query.fields().include(SOURCE_FIELDS);
+                List<Product> products = mongoTemplate.find(query, Product.class);
+                Set<String> gone = new HashSet<>(chunk);
+                products.forEach(product -> gone.remove(product.getId()));
+                sync(products, gone);
+            }
+        } catch (Exception e) {
+            logger.error("Variant sync of {} products failed, leaving it to the next rebuild", ids.size(), e);
+        }
+    }
+
+    // Re-syncs every product that has variants, then drops entries the pass did not touch
+    private void rebuild() {
+        rebuildPending.set(false);
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime startedAt = LocalDateTime.now();
+            Query query = new Query(Criteria.where("variants.0").exists(true));
+            query.fields().include(SOURCE_FIELDS);
+            List<Product> batch = new ArrayList<>(batchSize);
+            int[] products = new int[1];
+            try (Stream<Product> stream = mongoTemplate.stream(query, Product.class)) {
+                stream.forEach(product -> {
+                    batch.add(product);
+                    products[0]++;
+                    if (batch.size() == batchSize) {
+                        sync(batch, List.of());
+                        batch.clear();
+                    }
+                });
+            }
+            sync(batch, List.of());
+            long removed = mongoTemplate.remove(new Query(Criteria.where("updatedAt").lt(startedAt)), VariantEntry.class)
+                .getDeletedCount();
+            logger.info("Variant index rebuilt from {} products ({} stale entries removed) in {} ms",
+                products[0], removed, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Variant index rebuild failed", e);
+        }
+    }
+
+    // Upserts each product's current variants and removes the ones it no longer has
+    private void sync(List<Product> products, Collection<String> deletedIds) {
+        if (products.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, VariantEntry.class);
+        for (Product product : products) {
+            List<Criteria> kept = new ArrayList<>();
+            for (ProductVariant variant : product.getVariants() == null ? List.<ProductVariant>of() : product.getVariants()) {
+                Double price = variant.getPrice() != null ? variant.getPrice() : product.getPrice();
+                if (variant.getName() == null || variant.getValue() == null || price == null) {
+                    continue;
+                }
+                kept.add(Criteria.where("name").is(variant.getName()).and("value").is(variant.getValue()));
+                ops.upsert(new Query(Criteria.where("productId").is(product.getId())
+                    .and("name").is(variant.getName()).and("value").is(variant.getValue())), new Update()
+                    .set("nameKey", keyOf(variant.getName()))
+                    .set("valueKey", keyOf(variant.getValue()))
+                    .set("price", price)
+                    .set("stock", variant.getStock())
+                    .set("image", variant.getImage())
+                    .set("status", product.getStatus())
+                    .set("category", product.getCategory())
+                    .set("subcategory", product.getSubcategory())
+                    .set("categoryKey", Product.keyOf(product.getCategory()))
+                    .set("subcategoryKey", Product.keyOf(product.getSubcategory()))
+                    .set("updatedAt", now));
+            }
+            Criteria stale = Criteria.where("productId").is(product.getId());
+            if (!kept.isEmpty()) {
+                stale = stale.norOperator(kept);
+            }
+            ops.remove(new Query(stale));
+        }
+        if (!deletedIds.isEmpty()) {
+            ops.remove(new Query(Criteria.where("productId").in(deletedIds)));
+        }
+        ops.execute();
+    }
+
+    // Hydrates the entries' products in one read; entries whose product is no longer ACTIVE are dropped
+    private List<Map<String, Object>> withProducts(List<VariantEntry> entries, ProductFields fields) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        entries.forEach(entry -> ids.add(entry.getProductId()));
+        Query query = new Query(Criteria.where("_id").in(ids).and("status").is(ProductStatus.ACTIVE));
+        fields.project(query);
+        Map<String, Product> byId = new HashMap<>();
+        for (Product product : productReader.browse(query)) {
+            byId.put(product.getId(), product);
+        }
+        List<Map<String, Object>> results = new ArrayList<>(entries.size());
+        for (VariantEntry entry : entries) {
+            Product product = byId.get(entry.getProductId());
+            if (product == null) {
+                continue;
+            }
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("name", entry.getName());
+            variant.put("value", entry.getValue());
+            variant.put("price", entry.getPrice());
+            variant.put("stock", entry.getStock());
+            variant.put("image", entry.getImage());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("variant", variant);
+            result.put("product", fields.render(product));
+            results.add(result);
+        }
+        return results;
+    }
+
+    // The product fields the entries are built from
+    private static List<Object> signature(Product product) {
+        List<Object> signature = new ArrayList<>(Arrays.asList(product.getPrice(), product.getStatus(),
+            product.getCategory(), product.getSubcategory()));
+        if (product.getVariants() != null) {
+            for (ProductVariant variant : product.getVariants()) {
+                signature.add(Arrays.asList(variant.getName(), variant.getValue(), variant.getPrice(),
+                    variant.getStock(), variant.getImage()));
+            }
+        }
+        return signature;
+    }
+
+    private static String keyOf(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String encodeCursor(Double price, String id) {
+        String position = price + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Double.parseDouble(position[0]);
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
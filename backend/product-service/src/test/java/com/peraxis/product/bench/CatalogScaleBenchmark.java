@@ -0,0 +1,193 @@
+package com.peraxis.product.bench;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP benchmark of the browse endpoints against a running product-service
+ * at increasing catalog sizes. Before each size the catalog is grown through
+ * {@code POST /api/products/admin/synthetic-catalog}, so the service must run with
+ * {@code product.synthetic.endpoint-enabled=true} on a throwaway database:
+ *
+ * <pre>java -cp target/classes:target/test-classes:&lt;runtime classpath&gt; com.peraxis.product.bench.CatalogScaleBenchmark
+ *     [baseUrl] [sizes] [concurrency] [seconds] [warmupSeconds] [cacheMode]</pre>
+ *
+ * e.g. {@code http://localhost:8082 10000,100000,1000000 16 30 10 miss}. Sizes must ascend;
+ * each generated catalog is a prefix of the next. Every scenario is warmed up, then run
+ * for the given duration; latency percentiles are exact over all measured requests.
+ * <p>
+ * The scenarios draw from a few dozen URLs, which the listing response cache would serve
+ * after warmup. In {@code miss} mode (the default) every request carries a unique
+ * {@code nonce} parameter, so each one is rendered from Mongo and the facet index; start the
+ * service with {@code product.response-cache.enabled=false} to also leave out the cost of
+ * filling the cache. {@code hit} mode sends the shared URLs and measures cached serving.
+ */
+public class CatalogScaleBenchmark {
+
+    private static final String[] CATEGORIES = { "Electronics", "Fashion", "Home", "Beauty", "Sports", "Books", "Toys", "Gaming" };
+    private static final String[] SEARCH_TERMS = { "pro", "laptops", "footwear", "EleBrand1", "kitchen", "fiction", "ultra", "fitness" };
+    private static final String[] SORTS = { "price_low", "price_high", "rating", "newest" };
+    private static final AtomicLong NONCES = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8082";
+        long[] sizes = Arrays.stream((args.length > 1 ? args[1] : "10000,100000,1000000").split(","))
+            .mapToLong(Long::parseLong).toArray();
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int warmupSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        boolean cacheMisses = !"hit".equals(args.length > 5 ? args[5] : "miss");
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+        String api = baseUrl + "/api/products";
+
+        Map<String, Function<SplittableRandom, String>> scenarios = new LinkedHashMap<>();
+        scenarios.put("listing", random -> api + "?page=" + random.nextInt(10) + "&size=20");
+        scenarios.put("listing-filtered", random -> api + "?category=" + pick(random, CATEGORIES)
+            + "&sortBy=" + pick(random, SORTS) + "&size=20");
+        scenarios.put("search", random -> api + "/search?size=20&query="
+            + URLEncoder.encode(pick(random, SEARCH_TERMS), StandardCharsets.UTF_8));
+        scenarios.put("featured", random -> api + "/featured?limit=10");
+        scenarios.put("categories", random -> api + "/categories");
+        scenarios.put("category-page", random -> api + "/public?size=20&category=" + pick(random, CATEGORIES));
+
+        System.out.println("response cache: " + (cacheMisses ? "miss (unique URL per request)" : "hit (shared URLs)"));
+        System.out.printf("%-10s %-17s %10s %10s %9s %9s %9s %7s%n",
+            "products", "scenario", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (long size : sizes) {
+            grow(client, api, size);
+            for (Map.Entry<String, Function<SplittableRandom, String>> scenario : scenarios.entrySet()) {
+                run(client, scenario.getValue(), cacheMisses, concurrency, warmupSeconds);
+                Result result = run(client, scenario.getValue(), cacheMisses, concurrency, seconds);
+                System.out.printf("%-10d %-17s %10d %10.0f %9.2f %9.2f %9.2f %7d%n", size, scenario.getKey(),
+                    result.latencies.length, result.latencies.length / (double) seconds,
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors);
+            }
+        }
+    }
+
+    private static void grow(HttpClient client, String api, long size) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(api + "/admin/synthetic-catalog?count=" + size))
+            .header("X-User-Role", "ADMIN")
+            .timeout(Duration.ofHours(1))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not load " + size + " products: " + response.body());
+        }
+        System.err.println("catalog " + size + ": " + response.body());
+    }
+
+    private static Result run(HttpClient client, Function<SplittableRandom, String> urls, boolean cacheMisses,
+                              int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] latencies = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        int[] errors = new int[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(worker);
+                long[] samples = new long[4096];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        String url = urls.apply(random);
+                        if (cacheMisses) {
+                            // Response cache keys include every parameter
+                            url += (url.indexOf('?') < 0 ? "?" : "&") + "nonce=" + NONCES.incrementAndGet();
+                        }
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                            .timeout(Duration.ofSeconds(30)).GET().build();
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) {
+                                errors[worker]++;
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            if (e instanceof InterruptedException) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                            errors[worker]++;
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - started;
+                    }
+                } finally {
+                    latencies[worker] = samples;
+                    counts[worker] = count;
+                    done.countDown();
+                }
+            }, "bench-" + worker);
+            thread.start();
+        }
+        done.await();
+
+        List<long[]> parts = new ArrayList<>();
+        int total = 0;
+        int errorCount = 0;
+        for (int t = 0; t < concurrency; t++) {
+            parts.add(Arrays.copyOf(latencies[t], counts[t]));
+            total += counts[t];
+            errorCount += errors[t];
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(all);
+        return new Result(all, errorCount);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static final class Result {
+        final long[] latencies;
+        final int errors;
+
+        Result(long[] latencies, int errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1e6;
+        }
+    }
+
+    private CatalogScaleBenchmark() {
+    }
+}
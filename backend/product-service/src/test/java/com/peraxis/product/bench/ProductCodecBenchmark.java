@@ -0,0 +1,126 @@
+package com.peraxis.product.bench;
+
+import com.peraxis.product.entity.Product;
+import com.peraxis.product.entity.ProductCodec;
+import com.peraxis.product.synthetic.SyntheticCatalog;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoSimpleTypes;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Decode throughput and allocation of {@link ProductCodec} against the default path
+ * (driver {@link DocumentCodec} followed by {@link MappingMongoConverter#read}), over the
+ * same encoded catalog bytes. Runs without Mongo or a Spring context:
+ *
+ * <pre>java -cp target/classes:target/test-classes:&lt;runtime classpath&gt; com.peraxis.product.bench.ProductCodecBenchmark [products] [seconds]</pre>
+ *
+ * Each path gets warmup iterations followed by measured ones; allocation is read from
+ * the thread's allocated-bytes counter, so it is per decoded product.
+ */
+public class ProductCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1.0;
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(MongoSimpleTypes.HOLDER);
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        ProductCodec codec = new ProductCodec();
+        DocumentCodec documentCodec = new DocumentCodec();
+        DecoderContext decoderContext = DecoderContext.builder().build();
+
+        List<byte[]> encoded = new ArrayList<>(count);
+        for (Document product : new SyntheticCatalog(42).products(0, count)) {
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            documentCodec.encode(new BsonBinaryWriter(buffer), product, EncoderContext.builder().build());
+            encoded.add(buffer.toByteArray());
+        }
+
+        Function<byte[], Product> mapping = bytes -> converter.read(Product.class,
+            documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), decoderContext));
+        Function<byte[], Product> direct = bytes -> codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), decoderContext);
+
+        verifySameResult(encoded, mapping, direct);
+        System.out.printf("%d products, %.0f bytes each on average%n", count,
+            encoded.stream().mapToInt(bytes -> bytes.length).average().orElse(0));
+        report("MappingMongoConverter", run(encoded, mapping, seconds));
+        report("ProductCodec", run(encoded, direct, seconds));
+    }
+
+    private static void verifySameResult(List<byte[]> encoded, Function<byte[], Product> expected,
+                                         Function<byte[], Product> actual) {
+        for (byte[] bytes : encoded) {
+            Product a = expected.apply(bytes);
+            Product b = actual.apply(bytes);
+            if (!Objects.equals(a.getId(), b.getId()) || !Objects.equals(a.getPrice(), b.getPrice())
+                    || !Objects.equals(a.getSpecifications(), b.getSpecifications())
+                    || !Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                    || !Objects.equals(a.getTags(), b.getTags())
+                    || a.getVersion() != b.getVersion()
+                    || a.getStatus() != b.getStatus()
+                    || (a.getVariants() == null ? 0 : a.getVariants().size()) != (b.getVariants() == null ? 0 : b.getVariants().size())) {
+                throw new IllegalStateException("Decoders disagree on product " + a.getId());
+            }
+        }
+    }
+
+    private static double[] run(List<byte[]> encoded, Function<byte[], Product> decoder, double seconds) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long sink = 0;
+        double opsPerSecond = 0;
+        double bytesPerOp = 0;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURED_ITERATIONS; iteration++) {
+            long deadline = System.nanoTime() + (long) (seconds * 1e9);
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long started = System.nanoTime();
+            long ops = 0;
+            while (System.nanoTime() < deadline) {
+                for (byte[] bytes : encoded) {
+                    sink += decoder.apply(bytes).getName().length();
+                }
+                ops += encoded.size();
+            }
+            long elapsed = System.nanoTime() - started;
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+            if (iteration >= WARMUP_ITERATIONS) {
+                opsPerSecond += ops / (elapsed / 1e9) / MEASURED_ITERATIONS;
+                bytesPerOp += (double) allocated / ops / MEASURED_ITERATIONS;
+            }
+        }
+        // Keeps the decoded values observable so the JIT cannot drop the work
+        if (sink == Long.MIN_VALUE) {
+            System.out.println(sink);
+        }
+        return new double[] { opsPerSecond, bytesPerOp };
+    }
+
+    private static void report(String name, double[] result) {
+        System.out.printf("%-22s %,12.0f products/s %,10.0f bytes/product%n", name, result[0], result[1]);
+    }
+
+    private ProductCodecBenchmark() {
+    }
+}
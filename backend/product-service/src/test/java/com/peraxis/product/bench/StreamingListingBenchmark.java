@@ -0,0 +1,222 @@
+package com.peraxis.product.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP benchmark that reads the same listings two ways against a running
+ * product-service. The blocking way walks cursor pages of {@code GET /api/products}. The
+ * streamed way reads one NDJSON response from {@code GET /api/products/stream}.
+ *
+ * <pre>java -cp target/classes:target/test-classes:&lt;runtime classpath&gt; com.peraxis.product.bench.StreamingListingBenchmark
+ *     [baseUrl] [items] [concurrencies] [seconds] [warmupSeconds]</pre>
+ *
+ * e.g. {@code http://localhost:8082 2000 64,256,1024 30 10} against a catalog grown with
+ * CatalogScaleBenchmark. Each client reads {@code items} products of a random
+ * category and sort, and then starts over. "first" is the time until the first product
+ * arrives; "full" is the time until the listing is complete.
+ * <p>
+ * The stream is never served from the listing response cache, so every page request carries
+ * a unique {@code nonce} parameter to keep the paged side off it too; both sides read from
+ * Mongo. Running the service with {@code product.response-cache.enabled=false} also leaves
+ * out the paged side's cost of filling the cache.
+ */
+public class StreamingListingBenchmark {
+
+    private static final String[] CATEGORIES = { "Electronics", "Fashion", "Home", "Beauty", "Sports", "Books", "Toys", "Gaming" };
+    private static final String[] SORTS = { "price_low", "price_high", "rating", "newest" };
+    private static final int PAGE_SIZE = 100;
+    private static final AtomicLong NONCES = new AtomicLong();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private interface Reader {
+        // Reads one listing; returns nanos until the first product, or -1 on an error
+        long read(HttpClient client, String api, SplittableRandom random, int items, long started) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8082";
+        int items = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int[] concurrencies = Arrays.stream((args.length > 2 ? args[2] : "64,256,1024").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        int warmupSeconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+        String api = baseUrl + "/api/products";
+
+        System.out.printf("%-7s %-11s %10s %9s %9s %9s %9s %9s %7s%n",
+            "clients", "stack", "listings", "items/s", "first p50", "first p99", "full p50", "full p99", "errors");
+        for (int concurrency : concurrencies) {
+            for (String stack : new String[] { "paged", "streamed" }) {
+                Reader reader = "paged".equals(stack) ? StreamingListingBenchmark::paged : StreamingListingBenchmark::streamed;
+                run(client, api, reader, items, concurrency, warmupSeconds);
+                Result result = run(client, api, reader, items, concurrency, seconds);
+                System.out.printf("%-7d %-11s %10d %9.0f %9.2f %9.2f %9.2f %9.2f %7d%n", concurrency, stack,
+                    result.full.length, result.full.length * (double) items / seconds,
+                    percentile(result.first, 0.50), percentile(result.first, 0.99),
+                    percentile(result.full, 0.50), percentile(result.full, 0.99), result.errors);
+            }
+        }
+    }
+
+    private static long paged(HttpClient client, String api, SplittableRandom random, int items, long started) throws Exception {
+        String filters = filters(random);
+        String cursor = "";
+        long first = -1;
+        int read = 0;
+        while (read < items) {
+            int size = Math.min(PAGE_SIZE, items - read);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(api + "?size=" + size + filters
+                    + "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8) + "&nonce=" + NONCES.incrementAndGet()))
+                .timeout(Duration.ofSeconds(60)).GET().build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            JsonNode page = MAPPER.readTree(response.body());
+            if (first < 0) {
+                first = System.nanoTime() - started;
+            }
+            read += page.path("products").size();
+            if (!page.path("hasNext").asBoolean() || page.path("nextCursor").isNull()) {
+                break;
+            }
+            cursor = page.path("nextCursor").asText();
+        }
+        return first;
+    }
+
+    private static long streamed(HttpClient client, String api, SplittableRandom random, int items, long started) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(api + "/stream?limit=" + items + filters(random)))
+            .timeout(Duration.ofSeconds(60)).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                return -1;
+            }
+            long first = -1;
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = body.read(buffer)) > 0) {
+                if (first < 0) {
+                    for (int i = 0; i < n; i++) {
+                        if (buffer[i] == '\n') {
+                            first = System.nanoTime() - started;
+                            break;
+                        }
+                    }
+                }
+            }
+            return first < 0 ? System.nanoTime() - started : first;
+        }
+    }
+
+    private static String filters(SplittableRandom random) {
+        return "&category=" + CATEGORIES[random.nextInt(CATEGORIES.length)]
+            + "&sortBy=" + SORTS[random.nextInt(SORTS.length)];
+    }
+
+    private static Result run(HttpClient client, String api, Reader reader, int items,
+                              int concurrency, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] firsts = new long[concurrency][];
+        long[][] fulls = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        int[] errors = new int[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int t = 0; t < concurrency; t++) {
+            int worker = t;
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(worker);
+                long[] first = new long[1024];
+                long[] full = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+                        long firstNanos;
+                        try {
+                            firstNanos = reader.read(client, api, random, items, started);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            firstNanos = -1;
+                        }
+                        if (firstNanos < 0) {
+                            errors[worker]++;
+                            continue;
+                        }
+                        if (count == full.length) {
+                            first = Arrays.copyOf(first, count * 2);
+                            full = Arrays.copyOf(full, count * 2);
+                        }
+                        first[count] = firstNanos;
+                        full[count++] = System.nanoTime() - started;
+                    }
+                } finally {
+                    firsts[worker] = first;
+                    fulls[worker] = full;
+                    counts[worker] = count;
+                    done.countDown();
+                }
+            }, "bench-" + worker);
+            thread.start();
+        }
+        done.await();
+
+        int total = Arrays.stream(counts).sum();
+        long[] first = new long[total];
+        long[] full = new long[total];
+        int offset = 0;
+        for (int t = 0; t < concurrency; t++) {
+            System.arraycopy(firsts[t], 0, first, offset, counts[t]);
+            System.arraycopy(fulls[t], 0, full, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(first);
+        Arrays.sort(full);
+        return new Result(first, full, Arrays.stream(errors).sum());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static final class Result {
+        final long[] first;
+        final long[] full;
+        final int errors;
+
+        Result(long[] first, long[] full, int errors) {
+            this.first = first;
+            this.full = full;
+            this.errors = errors;
+        }
+    }
+
+    private StreamingListingBenchmark() {
+    }
+}